@@ -42,6 +42,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/**").permitAll()
                         // Allow actuator health
                         .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        // Scrape Prometheus
+                        .requestMatchers("/actuator/prometheus").permitAll()
                         .anyRequest().authenticated())
                 .userDetailsService(userDetailsService);
 
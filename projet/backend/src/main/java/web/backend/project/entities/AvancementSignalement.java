@@ -5,9 +5,11 @@ import java.util.Objects;
 
 import jakarta.persistence.*;
 import web.backend.project.entities.dto.AvancementSignalementDTO;
+import web.backend.project.features.signalements.events.AvancementChangeListener;
 
 @Entity
 @Table(name = "avancements_signalement")
+@EntityListeners(AvancementChangeListener.class)
 public class AvancementSignalement implements SyncableEntity<AvancementSignalementDTO> {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -2,6 +2,7 @@ package web.backend.project.entities;
 
 import jakarta.persistence.*;
 import web.backend.project.entities.dto.SignalementDTO;
+import web.backend.project.features.signalements.events.SignalementChangeListener;
 import web.backend.project.utils.GeometryUtils;
 
 import org.locationtech.jts.geom.Geometry;
@@ -13,6 +14,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "signalements")
+@EntityListeners(SignalementChangeListener.class)
 public class Signalement implements SyncableEntity<SignalementDTO> {
     @Id
     @Column(name = "id")
@@ -44,6 +46,11 @@ public class Signalement implements SyncableEntity<SignalementDTO> {
     @OneToMany(mappedBy = "signalement", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<AvancementSignalement> avancements = new ArrayList<>();
 
+    // Localisation telle que lue ou écrite en base (tenue par
+    // SignalementChangeListener pour invalider les caches de l'ancienne position)
+    @Transient
+    private Geometry persistedLocalisation;
+
     // Constructeurs
     public Signalement() {
     }
@@ -167,6 +174,14 @@ public class Signalement implements SyncableEntity<SignalementDTO> {
         this.avancements = avancements;
     }
 
+    public Geometry getPersistedLocalisation() {
+        return persistedLocalisation;
+    }
+
+    public void setPersistedLocalisation(Geometry persistedLocalisation) {
+        this.persistedLocalisation = persistedLocalisation;
+    }
+
     // Helper method to add an avancement
     public void addAvancement(AvancementSignalement avancement) {
         avancements.add(avancement);
@@ -0,0 +1,145 @@
+package web.backend.project.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Point de reprise d'une phase (PUSH ou PULL) d'un type dans une exécution
+ * Le curseur est celui de la dernière page committée : id local pour le push,
+ * id du document Firebase pour le pull complet. Il est mis à jour dans la
+ * transaction de la page.
+ */
+@Entity
+@Table(name = "sync_checkpoints")
+public class SyncCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "entity_type", nullable = false, length = 100)
+    private String entityType;
+
+    @Column(name = "phase", nullable = false, length = 10)
+    private String phase; // PUSH ou PULL
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status; // IN_PROGRESS, COMPLETED ou RESUMED
+
+    @Column(name = "cursor_value", length = 255)
+    private String cursorValue;
+
+    @Column(name = "pages", nullable = false)
+    private Integer pages = 0;
+
+    // Début du parcours, conservé lors d'une reprise
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructeurs
+    public SyncCheckpoint() {
+    }
+
+    public SyncCheckpoint(Long runId, String entityType, String phase) {
+        this.runId = runId;
+        this.entityType = entityType;
+        this.phase = phase;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCursorValue() {
+        return cursorValue;
+    }
+
+    public void setCursorValue(String cursorValue) {
+        this.cursorValue = cursorValue;
+    }
+
+    public Integer getPages() {
+        return pages;
+    }
+
+    public void setPages(Integer pages) {
+        this.pages = pages;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Equals et HashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SyncCheckpoint that = (SyncCheckpoint) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
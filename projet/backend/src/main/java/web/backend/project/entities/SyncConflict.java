@@ -0,0 +1,125 @@
+package web.backend.project.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Conflit de synchronisation détecté au pull : document modifié dans Firebase
+ * alors que l'entité locale portait une modification non poussée
+ */
+@Entity
+@Table(name = "sync_conflicts")
+public class SyncConflict {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 100)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Column(name = "policy", nullable = false, length = 30)
+    private String policy;
+
+    @Column(name = "resolution", nullable = false, length = 30)
+    private String resolution; // REMOTE, LOCAL ou MERGED
+
+    @Column(name = "local_modified_at")
+    private LocalDateTime localModifiedAt;
+
+    @Column(name = "remote_modified_at")
+    private LocalDateTime remoteModifiedAt;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt = LocalDateTime.now();
+
+    // Constructeurs
+    public SyncConflict() {
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Integer getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Integer entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getLocalModifiedAt() {
+        return localModifiedAt;
+    }
+
+    public void setLocalModifiedAt(LocalDateTime localModifiedAt) {
+        this.localModifiedAt = localModifiedAt;
+    }
+
+    public LocalDateTime getRemoteModifiedAt() {
+        return remoteModifiedAt;
+    }
+
+    public void setRemoteModifiedAt(LocalDateTime remoteModifiedAt) {
+        this.remoteModifiedAt = remoteModifiedAt;
+    }
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+
+    public void setDetectedAt(LocalDateTime detectedAt) {
+        this.detectedAt = detectedAt;
+    }
+
+    // Equals et HashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SyncConflict that = (SyncConflict) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
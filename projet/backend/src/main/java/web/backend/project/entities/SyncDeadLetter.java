@@ -0,0 +1,115 @@
+package web.backend.project.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Document Firebase rejeté par la synchronisation (pull ou ingest), avec la
+ * raison du dernier échec
+ * Une ligne par document ; elle disparaît dès que le document est intégré
+ */
+@Entity
+@Table(name = "sync_dead_letters")
+public class SyncDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 100)
+    private String entityType;
+
+    @Column(name = "document_id", nullable = false, length = 255)
+    private String documentId;
+
+    @Column(name = "error", nullable = false, columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 1;
+
+    @Column(name = "first_failed_at", nullable = false)
+    private LocalDateTime firstFailedAt = LocalDateTime.now();
+
+    @Column(name = "last_failed_at", nullable = false)
+    private LocalDateTime lastFailedAt = LocalDateTime.now();
+
+    // Constructeurs
+    public SyncDeadLetter() {
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getFirstFailedAt() {
+        return firstFailedAt;
+    }
+
+    public void setFirstFailedAt(LocalDateTime firstFailedAt) {
+        this.firstFailedAt = firstFailedAt;
+    }
+
+    public LocalDateTime getLastFailedAt() {
+        return lastFailedAt;
+    }
+
+    public void setLastFailedAt(LocalDateTime lastFailedAt) {
+        this.lastFailedAt = lastFailedAt;
+    }
+
+    // Equals et HashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SyncDeadLetter that = (SyncDeadLetter) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
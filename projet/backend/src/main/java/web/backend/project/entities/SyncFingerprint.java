@@ -0,0 +1,153 @@
+package web.backend.project.entities;
+
+import jakarta.persistence.*;
+
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Empreinte du contenu d'un document Firebase tel qu'il a été écrit ou lu par
+ * la dernière synchronisation (hash de toFirebaseMap(), hors métadonnées de
+ * synchronisation)
+ */
+@Entity
+@Table(name = "sync_fingerprints")
+@IdClass(SyncFingerprint.Key.class)
+public class SyncFingerprint implements Persistable<SyncFingerprint.Key> {
+    @Id
+    @Column(name = "collection_name", length = 100)
+    private String collectionName;
+
+    @Id
+    @Column(name = "document_id", length = 255)
+    private String documentId;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Évite le SELECT de merge() pour une empreinte jamais enregistrée
+    @Transient
+    private boolean isNew = true;
+
+    // Constructeurs
+    public SyncFingerprint() {
+    }
+
+    public SyncFingerprint(String collectionName, String documentId, String contentHash) {
+        this.collectionName = collectionName;
+        this.documentId = documentId;
+        this.contentHash = contentHash;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(collectionName, documentId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Getters et Setters
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public void setCollectionName(String collectionName) {
+        this.collectionName = collectionName;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Equals et HashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SyncFingerprint that = (SyncFingerprint) o;
+        return Objects.equals(collectionName, that.collectionName)
+                && Objects.equals(documentId, that.documentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collectionName, documentId);
+    }
+
+    /**
+     * Clé composite (collection, id du document)
+     */
+    public static class Key implements Serializable {
+        private String collectionName;
+        private String documentId;
+
+        public Key() {
+        }
+
+        public Key(String collectionName, String documentId) {
+            this.collectionName = collectionName;
+            this.documentId = documentId;
+        }
+
+        public String getCollectionName() {
+            return collectionName;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            Key key = (Key) o;
+            return Objects.equals(collectionName, key.collectionName)
+                    && Objects.equals(documentId, key.documentId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(collectionName, documentId);
+        }
+    }
+}
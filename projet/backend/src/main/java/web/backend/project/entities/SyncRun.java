@@ -0,0 +1,116 @@
+package web.backend.project.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Exécution d'une synchronisation (tous types demandés confondus)
+ * RUNNING tant qu'elle est en cours ; une exécution interrompue par un arrêt
+ * du backend reste RUNNING jusqu'à ce qu'une suivante reprenne ses points de
+ * reprise (INTERRUPTED)
+ */
+@Entity
+@Table(name = "sync_runs")
+public class SyncRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "direction", nullable = false, length = 20)
+    private String direction;
+
+    @Column(name = "force_sync", nullable = false)
+    private Boolean forceSync = false;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status; // RUNNING, COMPLETED, FAILED ou INTERRUPTED
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructeurs
+    public SyncRun() {
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public Boolean getForceSync() {
+        return forceSync;
+    }
+
+    public void setForceSync(Boolean forceSync) {
+        this.forceSync = forceSync;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    // Equals et HashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SyncRun that = (SyncRun) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,86 @@
+package web.backend.project.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Marque haute (high-water mark) du pull incrémental pour une collection
+ * Firebase : dernier couple (last_modified, id du document) intégré en base
+ */
+@Entity
+@Table(name = "sync_watermarks")
+public class SyncWatermark {
+    @Id
+    @Column(name = "collection_name", length = 100)
+    private String collectionName;
+
+    @Column(name = "last_modified", nullable = false, length = 64)
+    private String lastModified;
+
+    @Column(name = "last_document_id", nullable = false, length = 255)
+    private String lastDocumentId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructeurs
+    public SyncWatermark() {
+    }
+
+    public SyncWatermark(String collectionName, String lastModified, String lastDocumentId) {
+        this.collectionName = collectionName;
+        this.lastModified = lastModified;
+        this.lastDocumentId = lastDocumentId;
+    }
+
+    // Getters et Setters
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public void setCollectionName(String collectionName) {
+        this.collectionName = collectionName;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getLastDocumentId() {
+        return lastDocumentId;
+    }
+
+    public void setLastDocumentId(String lastDocumentId) {
+        this.lastDocumentId = lastDocumentId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Equals et HashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SyncWatermark that = (SyncWatermark) o;
+        return Objects.equals(collectionName, that.collectionName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collectionName);
+    }
+}
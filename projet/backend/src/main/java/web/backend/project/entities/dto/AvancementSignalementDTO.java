@@ -2,7 +2,6 @@ package web.backend.project.entities.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -52,7 +51,7 @@ public class AvancementSignalementDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(7);
         map.put("id", id);
         map.put("date_modification", dateModification != null ? dateModification.toString() : null);
         // Lors du push vers Firebase, synchro est toujours true (donnée synchronisée)
@@ -1,11 +1,15 @@
 package web.backend.project.entities.dto;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
+import web.backend.project.utils.FirebaseValueDecoder;
+
 /**
  * Interface pour les DTOs pouvant être sérialisés/désérialisés depuis Firebase
- * Chaque DTO implémente sa propre logique de mapping
+ * Chaque DTO écrit à la main sa conversion (toFirebaseMap / fromFirebaseMap) ;
+ * aucun code n'est généré à la compilation
  */
 public interface FirebaseSerializable {
 
@@ -32,47 +36,44 @@ public interface FirebaseSerializable {
 
     /**
      * Convertit ce DTO vers une Map pour Firebase
+     * La Map est neuve à chaque appel et appartient à l'appelant, qui peut la
+     * modifier (FirebaseSyncService y convertit les dates en place)
      * 
      * @return Map représentant les données pour Firebase
      */
     Map<String, Object> toFirebaseMap();
 
+    /**
+     * Map dimensionnée pour le nombre de champs du document (aucun
+     * redimensionnement pendant le remplissage)
+     */
+    static Map<String, Object> newFirebaseMap(int fieldCount) {
+        return new HashMap<>((int) (fieldCount / 0.75f) + 1);
+    }
+
     // ========== Helpers statiques pour le parsing ==========
+    // Décodage sans exception sur le chemin nominal (FirebaseValueDecoder)
 
     static Integer extractInteger(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null)
-            return null;
-        if (value instanceof Integer)
-            return (Integer) value;
-        if (value instanceof Long)
-            return ((Long) value).intValue();
-        if (value instanceof Double)
-            return ((Double) value).intValue();
-        if (value instanceof String) {
-            try {
-                return Integer.parseInt((String) value);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
+        return FirebaseValueDecoder.toInteger(data.get(key));
+    }
+
+    /**
+     * Variante primitive : defaultValue si la clé est absente ou illisible
+     */
+    static int extractIntOr(Map<String, Object> data, String key, int defaultValue) {
+        return FirebaseValueDecoder.intOr(data.get(key), defaultValue);
     }
 
     static Double extractDouble(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null)
-            return null;
-        if (value instanceof Number)
-            return ((Number) value).doubleValue();
-        if (value instanceof String) {
-            try {
-                return Double.parseDouble((String) value);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
+        return FirebaseValueDecoder.toDouble(data.get(key));
+    }
+
+    /**
+     * Variante primitive : defaultValue si la clé est absente ou illisible
+     */
+    static double extractDoubleOr(Map<String, Object> data, String key, double defaultValue) {
+        return FirebaseValueDecoder.doubleOr(data.get(key), defaultValue);
     }
 
     static Boolean extractBoolean(Map<String, Object> data, String key) {
@@ -91,25 +92,11 @@ public interface FirebaseSerializable {
         return value != null ? value.toString() : null;
     }
 
-    static java.time.LocalDateTime extractLocalDateTime(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null)
-            return null;
-        if (value instanceof String) {
-            String str = ((String) value).trim();
-            try {
-                // Format ISO standard: "2026-02-07T12:39:22"
-                return java.time.LocalDateTime.parse(str);
-            } catch (Exception e1) {
-                try {
-                    // Format avec espace au lieu de T: "2026-02-07 12:39:22"
-                    return java.time.LocalDateTime.parse(str,
-                            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-                } catch (Exception e2) {
-                    return null;
-                }
-            }
-        }
-        return null;
+    /**
+     * Date ISO ("2026-02-07T12:39:22"), séparée par un espace
+     * ("2026-02-07 12:39:22"), Timestamp Firestore ou Date ; null si illisible
+     */
+    static LocalDateTime extractLocalDateTime(Map<String, Object> data, String key) {
+        return FirebaseValueDecoder.toLocalDateTime(data.get(key));
     }
 }
@@ -57,7 +57,7 @@ public class ParametreDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new java.util.HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(4);
         map.put("id", id);
         map.put("nb_tentatives_connexion", nbTentativesConnexion);
         map.put("duree_session", dureeSession);
@@ -53,7 +53,7 @@ public class RoleDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new java.util.HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(3);
         map.put("id", id);
         map.put("nom", nom);
         // Lors du push vers Firebase, synchro est toujours true (donnée synchronisée)
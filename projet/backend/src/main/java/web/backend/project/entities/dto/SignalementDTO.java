@@ -3,7 +3,6 @@ package web.backend.project.entities.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.cloud.firestore.GeoPoint;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -61,7 +60,7 @@ public class SignalementDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(9);
         map.put("id", id);
         map.put("date_creation", dateCreation);
         map.put("surface", surface);
@@ -2,7 +2,6 @@ package web.backend.project.entities.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -44,7 +43,7 @@ public class StatutAvancementDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(5);
         map.put("id", id);
         map.put("nom", nom);
         map.put("valeur", valeur);
@@ -71,7 +71,7 @@ public class UtilisateurBloqueDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new java.util.HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(4);
         map.put("id", id);
         map.put("date_blocage", dateBlocage != null ? dateBlocage.toString() : null);
         // Lors du push vers Firebase, synchro est toujours true (donnée synchronisée)
@@ -91,7 +91,7 @@ public class UtilisateurDTO implements FirebaseSerializable {
 
     @Override
     public Map<String, Object> toFirebaseMap() {
-        Map<String, Object> map = new java.util.HashMap<>();
+        Map<String, Object> map = FirebaseSerializable.newFirebaseMap(6);
         map.put("id", id);
         map.put("email", email);
         map.put("password", password);
@@ -1,9 +1,14 @@
 package web.backend.project.features.signalements.api;
 
 import jakarta.validation.Valid;
+import web.backend.project.features.signalements.dto.SignalementBboxDTO;
+import web.backend.project.features.signalements.dto.SignalementClustersDTO;
 import web.backend.project.features.signalements.dto.SignalementInsertDTO;
+import web.backend.project.features.signalements.dto.SignalementPageRequest;
 import web.backend.project.features.signalements.dto.SignalementResponseDTO;
+import web.backend.project.features.signalements.services.SignalementClusterService;
 import web.backend.project.features.signalements.services.SignalementService;
+import web.backend.project.repositories.SignalementRepositoryCustom.Filter;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/signalements")
@@ -21,6 +27,9 @@ public class SignalementController {
     @Autowired
     private SignalementService signalementService;
 
+    @Autowired
+    private SignalementClusterService signalementClusterService;
+
 
     /**
      * CREATE - Créer un nouveau signalement
@@ -36,13 +45,55 @@ public class SignalementController {
     /**
      * READ - Récupérer tous les signalements
      * GET /api/signalements
+     * 
+     * Pagination par clé (toutes les listes) :
+     * GET /api/signalements?limit=50&sort=budget&direction=desc&includeTotal=true
+     * puis GET /api/signalements?cursor={nextCursor}
+     * Sans limit ni cursor, la liste complète est renvoyée
      */
     @GetMapping
-    public ResponseEntity<List<SignalementResponseDTO>> getAllSignalements() {
-        List<SignalementResponseDTO> signalements = signalementService.getAllSignalements();
+    public ResponseEntity<?> getAllSignalements(SignalementPageRequest pageRequest) {
+        return list(Filter.all(), pageRequest, signalementService::getAllSignalements);
+    }
+
+    /**
+     * Signalements visibles dans une emprise de carte (WGS 84)
+     * GET /api/signalements/bbox?minLon=47.4&minLat=-19.0&maxLon=47.6&maxLat=-18.8&zoom=14
+     * Filtres optionnels : entreprise (id), statut (id du statut du dernier
+     * avancement). Réponse plafonnée, truncated si l'emprise en contient plus.
+     */
+    @GetMapping("/bbox")
+    public ResponseEntity<SignalementBboxDTO> getSignalementsInBbox(
+            @RequestParam double minLon,
+            @RequestParam double minLat,
+            @RequestParam double maxLon,
+            @RequestParam double maxLat,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(required = false) Integer entreprise,
+            @RequestParam(required = false) Integer statut) {
+        SignalementBboxDTO signalements = signalementService.getSignalementsInBbox(minLon, minLat, maxLon, maxLat,
+                zoom, entreprise, statut);
         return ResponseEntity.ok(signalements);
     }
 
+    /**
+     * Signalements regroupés par zoom pour une emprise de carte (WGS 84)
+     * GET /api/signalements/clusters?minLon=47.0&minLat=-19.5&maxLon=48.0&maxLat=-18.5&zoom=10
+     * Nombre, position moyenne, budget et surface totaux par cellule ; aux
+     * zooms élevés, un groupe par signalement (idSignalement renseigné)
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<SignalementClustersDTO> getSignalementClusters(
+            @RequestParam double minLon,
+            @RequestParam double minLat,
+            @RequestParam double maxLon,
+            @RequestParam double maxLat,
+            @RequestParam int zoom) {
+        SignalementClustersDTO clusters = signalementClusterService.getClusters(minLon, minLat, maxLon, maxLat,
+                zoom);
+        return ResponseEntity.ok(clusters);
+    }
+
     /**
      * READ - Récupérer un signalement par son ID
      * GET /api/signalements/{id}
@@ -83,10 +134,11 @@ public class SignalementController {
      * GET /api/signalements/entreprise/{entrepriseId}
      */
     @GetMapping("/entreprise/{entrepriseId}")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsByEntreprise(
-            @PathVariable Integer entrepriseId) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsByEntreprise(entrepriseId);
-        return ResponseEntity.ok(signalements);
+    public ResponseEntity<?> getSignalementsByEntreprise(
+            @PathVariable Integer entrepriseId,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().entreprise(entrepriseId), pageRequest,
+                () -> signalementService.getSignalementsByEntreprise(entrepriseId));
     }
 
     /**
@@ -94,10 +146,11 @@ public class SignalementController {
      * GET /api/signalements/utilisateur/{utilisateurId}
      */
     @GetMapping("/utilisateur/{utilisateurId}")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsByUtilisateur(
-            @PathVariable Integer utilisateurId) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsByUtilisateur(utilisateurId);
-        return ResponseEntity.ok(signalements);
+    public ResponseEntity<?> getSignalementsByUtilisateur(
+            @PathVariable Integer utilisateurId,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().utilisateur(utilisateurId), pageRequest,
+                () -> signalementService.getSignalementsByUtilisateur(utilisateurId));
     }
 
     /**
@@ -105,10 +158,11 @@ public class SignalementController {
      * GET /api/signalements/synchro/{synchro}
      */
     @GetMapping("/synchro/{synchro}")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsBySynchro(
-            @PathVariable Boolean synchro) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsBySynchro(synchro);
-        return ResponseEntity.ok(signalements);
+    public ResponseEntity<?> getSignalementsBySynchro(
+            @PathVariable Boolean synchro,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().synchro(synchro), pageRequest,
+                () -> signalementService.getSignalementsBySynchro(synchro));
     }
 
     /**
@@ -116,10 +170,11 @@ public class SignalementController {
      * GET /api/signalements/budget/min/{budgetMin}
      */
     @GetMapping("/budget/min/{budgetMin}")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsByBudgetMin(
-            @PathVariable Integer budgetMin) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsByBudgetMin(budgetMin);
-        return ResponseEntity.ok(signalements);
+    public ResponseEntity<?> getSignalementsByBudgetMin(
+            @PathVariable Integer budgetMin,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().budget(budgetMin, null), pageRequest,
+                () -> signalementService.getSignalementsByBudgetMin(budgetMin));
     }
 
     /**
@@ -127,10 +182,11 @@ public class SignalementController {
      * GET /api/signalements/surface/min/{surfaceMin}
      */
     @GetMapping("/surface/min/{surfaceMin}")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsBySurfaceMin(
-            @PathVariable Double surfaceMin) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsBySurfaceMin(surfaceMin);
-        return ResponseEntity.ok(signalements);
+    public ResponseEntity<?> getSignalementsBySurfaceMin(
+            @PathVariable Double surfaceMin,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().surface(surfaceMin, null), pageRequest,
+                () -> signalementService.getSignalementsBySurfaceMin(surfaceMin));
     }
 
     /**
@@ -138,11 +194,12 @@ public class SignalementController {
      * GET /api/signalements/budget/range?min=1000&max=5000
      */
     @GetMapping("/budget/range")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsByBudgetRange(
+    public ResponseEntity<?> getSignalementsByBudgetRange(
             @RequestParam Integer min,
-            @RequestParam Integer max) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsByBudgetRange(min, max);
-        return ResponseEntity.ok(signalements);
+            @RequestParam Integer max,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().budget(min, max), pageRequest,
+                () -> signalementService.getSignalementsByBudgetRange(min, max));
     }
 
     /**
@@ -150,11 +207,12 @@ public class SignalementController {
      * GET /api/signalements/surface/range?min=100.0&max=500.0
      */
     @GetMapping("/surface/range")
-    public ResponseEntity<List<SignalementResponseDTO>> getSignalementsBySurfaceRange(
+    public ResponseEntity<?> getSignalementsBySurfaceRange(
             @RequestParam Double min,
-            @RequestParam Double max) {
-        List<SignalementResponseDTO> signalements = signalementService.getSignalementsBySurfaceRange(min, max);
-        return ResponseEntity.ok(signalements);
+            @RequestParam Double max,
+            SignalementPageRequest pageRequest) {
+        return list(Filter.all().surface(min, max), pageRequest,
+                () -> signalementService.getSignalementsBySurfaceRange(min, max));
     }
 
     /**
@@ -168,4 +226,15 @@ public class SignalementController {
         SignalementResponseDTO updated = signalementService.updateSynchroStatus(id, synchro);
         return ResponseEntity.ok(updated);
     }
+
+    /**
+     * Page de la liste si la pagination est demandée, sinon la liste complète
+     */
+    private ResponseEntity<?> list(Filter filter, SignalementPageRequest pageRequest,
+            Supplier<List<SignalementResponseDTO>> fullList) {
+        if (pageRequest.isPaged()) {
+            return ResponseEntity.ok(signalementService.getSignalementsPage(filter, pageRequest));
+        }
+        return ResponseEntity.ok(fullList.get());
+    }
 }
\ No newline at end of file
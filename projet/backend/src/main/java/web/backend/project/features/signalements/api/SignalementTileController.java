@@ -0,0 +1,45 @@
+package web.backend.project.features.signalements.api;
+
+import web.backend.project.features.signalements.services.SignalementTileService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/tiles/signalements")
+public class SignalementTileController {
+
+    private static final MediaType MAPBOX_VECTOR_TILE = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    @Autowired
+    private SignalementTileService signalementTileService;
+
+    // Durée de cache navigateur des tuiles
+    @Value("${signalements.tiles.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    /**
+     * Tuile vectorielle de la couche "signalements"
+     * GET /api/tiles/signalements/{z}/{x}/{y}.pbf
+     * Attributs : statut, budget, entreprise (identifiant d'entité : id du
+     * signalement) ; 204 si la tuile ne contient aucun signalement
+     */
+    @GetMapping("/{z}/{x}/{y}.pbf")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        byte[] tile = signalementTileService.getTile(z, x, y);
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS);
+        if (tile.length == 0) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MAPBOX_VECTOR_TILE)
+                .cacheControl(cacheControl)
+                .body(tile);
+    }
+}
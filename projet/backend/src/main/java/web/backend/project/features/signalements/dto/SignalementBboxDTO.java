@@ -0,0 +1,58 @@
+package web.backend.project.features.signalements.dto;
+
+import java.util.List;
+
+/**
+ * Signalements d'une emprise de carte
+ */
+public class SignalementBboxDTO {
+
+    private List<SignalementResponseDTO> items;
+    private Integer count;
+    private Integer limit; // Nombre maximal de signalements renvoyés
+    private Boolean truncated; // Vrai si l'emprise contient plus de signalements que limit
+
+    // Constructeurs
+    public SignalementBboxDTO() {
+    }
+
+    public SignalementBboxDTO(List<SignalementResponseDTO> items, Integer limit, Boolean truncated) {
+        this.items = items;
+        this.count = items.size();
+        this.limit = limit;
+        this.truncated = truncated;
+    }
+
+    // Getters et Setters
+    public List<SignalementResponseDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<SignalementResponseDTO> items) {
+        this.items = items;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+}
@@ -0,0 +1,78 @@
+package web.backend.project.features.signalements.dto;
+
+/**
+ * Groupe de signalements d'une cellule de grille (ou signalement isolé aux
+ * zooms élevés)
+ */
+public class SignalementClusterDTO {
+
+    private Double lon; // Position moyenne des signalements du groupe
+    private Double lat;
+    private Integer count;
+    private Long budgetTotal;
+    private Double surfaceTotal;
+    private Integer idSignalement; // Renseigné si le groupe ne contient qu'un signalement
+
+    // Constructeurs
+    public SignalementClusterDTO() {
+    }
+
+    public SignalementClusterDTO(Double lon, Double lat, Integer count, Long budgetTotal, Double surfaceTotal,
+            Integer idSignalement) {
+        this.lon = lon;
+        this.lat = lat;
+        this.count = count;
+        this.budgetTotal = budgetTotal;
+        this.surfaceTotal = surfaceTotal;
+        this.idSignalement = idSignalement;
+    }
+
+    // Getters et Setters
+    public Double getLon() {
+        return lon;
+    }
+
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Long getBudgetTotal() {
+        return budgetTotal;
+    }
+
+    public void setBudgetTotal(Long budgetTotal) {
+        this.budgetTotal = budgetTotal;
+    }
+
+    public Double getSurfaceTotal() {
+        return surfaceTotal;
+    }
+
+    public void setSurfaceTotal(Double surfaceTotal) {
+        this.surfaceTotal = surfaceTotal;
+    }
+
+    public Integer getIdSignalement() {
+        return idSignalement;
+    }
+
+    public void setIdSignalement(Integer idSignalement) {
+        this.idSignalement = idSignalement;
+    }
+}
@@ -0,0 +1,58 @@
+package web.backend.project.features.signalements.dto;
+
+import java.util.List;
+
+/**
+ * Groupes de signalements des tuiles couvrant une emprise de carte
+ */
+public class SignalementClustersDTO {
+
+    private Integer zoom;
+    private Boolean points; // Vrai si chaque groupe est un signalement isolé (zoom élevé)
+    private Integer tiles; // Nombre de tuiles couvrant l'emprise
+    private List<SignalementClusterDTO> clusters;
+
+    // Constructeurs
+    public SignalementClustersDTO() {
+    }
+
+    public SignalementClustersDTO(Integer zoom, Boolean points, Integer tiles, List<SignalementClusterDTO> clusters) {
+        this.zoom = zoom;
+        this.points = points;
+        this.tiles = tiles;
+        this.clusters = clusters;
+    }
+
+    // Getters et Setters
+    public Integer getZoom() {
+        return zoom;
+    }
+
+    public void setZoom(Integer zoom) {
+        this.zoom = zoom;
+    }
+
+    public Boolean getPoints() {
+        return points;
+    }
+
+    public void setPoints(Boolean points) {
+        this.points = points;
+    }
+
+    public Integer getTiles() {
+        return tiles;
+    }
+
+    public void setTiles(Integer tiles) {
+        this.tiles = tiles;
+    }
+
+    public List<SignalementClusterDTO> getClusters() {
+        return clusters;
+    }
+
+    public void setClusters(List<SignalementClusterDTO> clusters) {
+        this.clusters = clusters;
+    }
+}
@@ -0,0 +1,58 @@
+package web.backend.project.features.signalements.dto;
+
+import java.util.List;
+
+/**
+ * Page de signalements (pagination par clé)
+ */
+public class SignalementPageDTO {
+
+    private List<SignalementResponseDTO> items;
+    private String nextCursor; // Curseur opaque de la page suivante, null en fin de liste
+    private Boolean hasMore;
+    private Long total; // Nombre total de résultats, si demandé (includeTotal)
+
+    // Constructeurs
+    public SignalementPageDTO() {
+    }
+
+    public SignalementPageDTO(List<SignalementResponseDTO> items, String nextCursor, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.total = total;
+    }
+
+    // Getters et Setters
+    public List<SignalementResponseDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<SignalementResponseDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
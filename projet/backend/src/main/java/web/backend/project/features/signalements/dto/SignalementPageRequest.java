@@ -0,0 +1,66 @@
+package web.backend.project.features.signalements.dto;
+
+/**
+ * Paramètres de pagination des listes de signalements (query string)
+ * Sans limit ni cursor, la liste complète est renvoyée comme auparavant
+ */
+public class SignalementPageRequest {
+
+    private Integer limit;
+    private String cursor; // Curseur opaque renvoyé par la page précédente
+    private String sort; // id (défaut), budget, surface, dateCreation
+    private String direction; // asc (défaut) ou desc
+    private Boolean includeTotal = false;
+
+    // Constructeurs
+    public SignalementPageRequest() {
+    }
+
+    /**
+     * Vrai si la pagination est demandée
+     */
+    public boolean isPaged() {
+        return limit != null || cursor != null;
+    }
+
+    // Getters et Setters
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public Boolean getIncludeTotal() {
+        return includeTotal;
+    }
+
+    public void setIncludeTotal(Boolean includeTotal) {
+        this.includeTotal = includeTotal;
+    }
+}
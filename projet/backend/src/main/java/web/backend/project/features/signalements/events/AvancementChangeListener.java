@@ -0,0 +1,39 @@
+package web.backend.project.features.signalements.events;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.hibernate.Hibernate;
+import org.locationtech.jts.geom.Geometry;
+import org.springframework.context.ApplicationEventPublisher;
+
+import web.backend.project.entities.AvancementSignalement;
+import web.backend.project.entities.Signalement;
+
+/**
+ * Listener JPA d'AvancementSignalement : un avancement change le statut de son
+ * signalement, un SignalementChangedEvent est publié à chaque écriture
+ * La localisation n'est renseignée que si le signalement est déjà chargé (pas
+ * de requête pendant le flush) ; sinon seul l'id est transmis.
+ */
+public class AvancementChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AvancementChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(AvancementSignalement avancement) {
+        Signalement signalement = avancement.getSignalement();
+        if (signalement == null) {
+            return;
+        }
+        Geometry localisation = Hibernate.isInitialized(signalement) ? signalement.getLocalisation() : null;
+        eventPublisher.publishEvent(new SignalementChangedEvent(signalement.getId(), localisation, localisation));
+    }
+}
@@ -0,0 +1,47 @@
+package web.backend.project.features.signalements.events;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.locationtech.jts.geom.Geometry;
+import org.springframework.context.ApplicationEventPublisher;
+
+import web.backend.project.entities.Signalement;
+
+/**
+ * Listener JPA de Signalement : publie un SignalementChangedEvent à chaque
+ * écriture (instancié par Spring via le conteneur de beans d'Hibernate)
+ * Les caches qui en dépendent s'invalident après le commit
+ * (TransactionalEventListener).
+ */
+public class SignalementChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SignalementChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void onLoad(Signalement signalement) {
+        signalement.setPersistedLocalisation(signalement.getLocalisation());
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Signalement signalement) {
+        eventPublisher.publishEvent(new SignalementChangedEvent(signalement.getId(),
+                signalement.getPersistedLocalisation(), signalement.getLocalisation()));
+        signalement.setPersistedLocalisation(signalement.getLocalisation());
+    }
+
+    @PostRemove
+    public void onRemove(Signalement signalement) {
+        Geometry previous = signalement.getPersistedLocalisation() != null
+                ? signalement.getPersistedLocalisation()
+                : signalement.getLocalisation();
+        eventPublisher.publishEvent(new SignalementChangedEvent(signalement.getId(), previous, null));
+    }
+}
@@ -0,0 +1,35 @@
+package web.backend.project.features.signalements.events;
+
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Un signalement a été créé, modifié ou supprimé, ou l'un de ses avancements
+ * a été écrit (publié par SignalementChangeListener et AvancementChangeListener,
+ * quelle que soit l'origine de l'écriture : API, synchronisation, ...)
+ * Porte l'ancienne et la nouvelle localisation pour que les caches spatiaux
+ * n'invalident que les zones concernées.
+ */
+public class SignalementChangedEvent {
+
+    private final Integer signalementId;
+    private final Geometry previousLocalisation; // null à la création (ou avancement, signalement non chargé)
+    private final Geometry localisation; // null à la suppression (ou avancement, signalement non chargé)
+
+    public SignalementChangedEvent(Integer signalementId, Geometry previousLocalisation, Geometry localisation) {
+        this.signalementId = signalementId;
+        this.previousLocalisation = previousLocalisation;
+        this.localisation = localisation;
+    }
+
+    public Integer getSignalementId() {
+        return signalementId;
+    }
+
+    public Geometry getPreviousLocalisation() {
+        return previousLocalisation;
+    }
+
+    public Geometry getLocalisation() {
+        return localisation;
+    }
+}
@@ -0,0 +1,171 @@
+package web.backend.project.features.signalements.services;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import web.backend.project.features.signalements.dto.SignalementClusterDTO;
+import web.backend.project.features.signalements.dto.SignalementClustersDTO;
+import web.backend.project.features.signalements.events.SignalementChangedEvent;
+import web.backend.project.repositories.SignalementRepository;
+import web.backend.project.utils.WebMercatorTiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Regroupement des signalements par zoom pour la carte
+ *
+ * L'emprise demandée est découpée en tuiles XYZ du zoom ; chaque tuile est
+ * regroupée en PostGIS sur une grille de grid-size x grid-size cellules (nombre,
+ * position moyenne, budget et surface totaux par cellule). À partir de
+ * points-min-zoom, les signalements sont renvoyés un par un.
+ *
+ * Les groupes de chaque (zoom, tuile) sont gardés en cache (LRU de
+ * cache-max-tiles tuiles). Après le commit d'une écriture sur un signalement,
+ * seules les tuiles contenant son ancienne et sa nouvelle position sont
+ * invalidées, à tous les zooms.
+ */
+@Service
+public class SignalementClusterService {
+
+    private final SignalementRepository signalementRepository;
+
+    // Cellules de la grille par côté de tuile
+    @Value("${signalements.clusters.grid-size:8}")
+    private int gridSize;
+
+    // À partir de ce zoom, les signalements ne sont plus regroupés
+    @Value("${signalements.clusters.points-min-zoom:16}")
+    private int pointsMinZoom;
+
+    // Nombre maximal de tuiles pour une emprise
+    @Value("${signalements.clusters.max-tiles:256}")
+    private int maxTiles;
+
+    private final Map<Long, List<SignalementClusterDTO>> tileCache;
+
+    // Incrémenté à chaque invalidation : une tuile calculée pendant une
+    // invalidation n'est pas mise en cache
+    private final AtomicLong version = new AtomicLong();
+
+    public SignalementClusterService(SignalementRepository signalementRepository,
+            @Value("${signalements.clusters.cache-max-tiles:5000}") int cacheMaxTiles) {
+        this.signalementRepository = signalementRepository;
+        this.tileCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<SignalementClusterDTO>> eldest) {
+                return size() > cacheMaxTiles;
+            }
+        });
+    }
+
+    /**
+     * Groupes des tuiles du zoom couvrant l'emprise (WGS 84)
+     *
+     * @throws IllegalArgumentException si l'emprise ou le zoom sont invalides, ou
+     *                                  si l'emprise couvre plus de max-tiles tuiles
+     */
+    @Transactional(readOnly = true)
+    public SignalementClustersDTO getClusters(double minLon, double minLat, double maxLon, double maxLat, int zoom) {
+        if (Double.isNaN(minLon + minLat + maxLon + maxLat) || minLon < -180 || maxLon > 180 || minLat < -90
+                || maxLat > 90 || minLon > maxLon || minLat > maxLat) {
+            throw new IllegalArgumentException("Emprise invalide: [" + minLon + ", " + minLat + ", " + maxLon
+                    + ", " + maxLat + "]");
+        }
+        if (zoom < 0 || zoom > WebMercatorTiles.MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom invalide: " + zoom);
+        }
+
+        int minX = WebMercatorTiles.tileX(minLon, zoom);
+        int maxX = WebMercatorTiles.tileX(maxLon, zoom);
+        int minY = WebMercatorTiles.tileY(maxLat, zoom);
+        int maxY = WebMercatorTiles.tileY(minLat, zoom);
+        long tiles = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (tiles > maxTiles) {
+            throw new IllegalArgumentException("Emprise trop large pour le zoom " + zoom + " (" + tiles
+                    + " tuiles, maximum " + maxTiles + ")");
+        }
+
+        List<SignalementClusterDTO> clusters = new ArrayList<>();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                clusters.addAll(getTile(zoom, x, y));
+            }
+        }
+        return new SignalementClustersDTO(zoom, zoom >= pointsMinZoom, (int) tiles, clusters);
+    }
+
+    /**
+     * Groupes d'une tuile, depuis le cache ou calculés
+     */
+    private List<SignalementClusterDTO> getTile(int zoom, int x, int y) {
+        long key = tileKey(zoom, x, y);
+        List<SignalementClusterDTO> cached = tileCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long versionBefore = version.get();
+        double west = WebMercatorTiles.tileWest(x, zoom);
+        double east = WebMercatorTiles.tileWest(x + 1, zoom);
+        double north = WebMercatorTiles.tileNorth(y, zoom);
+        double south = WebMercatorTiles.tileNorth(y + 1, zoom);
+
+        List<Object[]> rows = zoom >= pointsMinZoom
+                ? signalementRepository.findPoints(west, south, east, north)
+                : signalementRepository.findGridClusters(west, south, east, north, (east - west) / gridSize,
+                        (north - south) / gridSize);
+
+        List<SignalementClusterDTO> clusters = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int count = ((Number) row[0]).intValue();
+            clusters.add(new SignalementClusterDTO(
+                    ((Number) row[1]).doubleValue(),
+                    ((Number) row[2]).doubleValue(),
+                    count,
+                    row[3] != null ? ((Number) row[3]).longValue() : 0L,
+                    row[4] != null ? ((Number) row[4]).doubleValue() : 0.0,
+                    count == 1 ? ((Number) row[5]).intValue() : null));
+        }
+        List<SignalementClusterDTO> tile = Collections.unmodifiableList(clusters);
+
+        if (version.get() == versionBefore) {
+            tileCache.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Invalide, à tous les zooms, les tuiles de l'ancienne et de la nouvelle
+     * position d'un signalement modifié
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        version.incrementAndGet();
+        invalidate(event.getPreviousLocalisation());
+        invalidate(event.getLocalisation());
+    }
+
+    private void invalidate(Geometry localisation) {
+        if (localisation == null || localisation.isEmpty()) {
+            return;
+        }
+        Point centroid = localisation.getCentroid();
+        for (int zoom = 0; zoom <= WebMercatorTiles.MAX_ZOOM; zoom++) {
+            tileCache.remove(tileKey(zoom, WebMercatorTiles.tileX(centroid.getX(), zoom),
+                    WebMercatorTiles.tileY(centroid.getY(), zoom)));
+        }
+    }
+
+    private static long tileKey(int zoom, int x, int y) {
+        return ((long) zoom << 56) | ((long) x << 28) | y;
+    }
+}
@@ -0,0 +1,63 @@
+package web.backend.project.features.signalements.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import web.backend.project.features.signalements.events.SignalementChangedEvent;
+import web.backend.project.repositories.SignalementRepositoryCustom.Filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache des totaux des listes de signalements, par filtre
+ * Un total est conservé signalements.count-cache.ttl-seconds secondes ; tout
+ * le cache est vidé après le commit d'une écriture sur un signalement
+ */
+@Component
+public class SignalementCountCache {
+
+    private final Map<Filter, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${signalements.count-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // Au-delà, le cache est vidé avant d'ajouter un total
+    @Value("${signalements.count-cache.max-entries:1000}")
+    private int maxEntries;
+
+    /**
+     * Total du filtre, calculé par counter s'il n'est pas en cache ou expiré
+     */
+    public long get(Filter filter, Supplier<Long> counter) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(filter);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.count;
+        }
+
+        long count = counter.get();
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(filter, new Entry(count, now + ttlSeconds * 1000));
+        return count;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        entries.clear();
+    }
+
+    private static class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package web.backend.project.features.signalements.services;
+
+import web.backend.project.repositories.SignalementRepositoryCustom.Filter;
+import web.backend.project.repositories.SignalementRepositoryCustom.Keyset;
+import web.backend.project.repositories.SignalementRepositoryCustom.SortKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination des signalements
+ * Encode la clé et le sens du tri, une empreinte du filtre et la position
+ * (id, valeur de la clé) du dernier signalement de la page, en base64 URL.
+ * Un curseur réutilisé avec un autre filtre est refusé.
+ */
+final class SignalementCursor {
+
+    private static final String VERSION = "1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SortKey sortKey;
+    private final boolean descending;
+    private final Keyset keyset;
+
+    SignalementCursor(SortKey sortKey, boolean descending, Keyset keyset) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.keyset = keyset;
+    }
+
+    SortKey getSortKey() {
+        return sortKey;
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    Keyset getKeyset() {
+        return keyset;
+    }
+
+    String encode(Filter filter) {
+        // La valeur, qui peut contenir le séparateur, est en dernier
+        String raw = String.join("|", VERSION, sortKey.name(), descending ? "D" : "A",
+                Integer.toHexString(filter.key().hashCode()), keyset.getId().toString(),
+                String.valueOf(keyset.getValue()));
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si le curseur est illisible ou émis pour
+     *                                  un autre filtre
+     */
+    static SignalementCursor decode(String token, Filter filter) {
+        String[] parts = split(token);
+        if (parts == null) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+        if (!Integer.toHexString(filter.key().hashCode()).equals(parts[3])) {
+            throw new IllegalArgumentException("Curseur de pagination émis pour un autre filtre");
+        }
+        try {
+            SortKey sortKey = SortKey.valueOf(parts[1]);
+            Keyset keyset = new Keyset(sortKey.parse(parts[5]), Integer.valueOf(parts[4]));
+            return new SignalementCursor(sortKey, "D".equals(parts[2]), keyset);
+        } catch (IllegalArgumentException e) {
+            // Clé de tri ou nombre invalides (NumberFormatException incluse)
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    private static String[] split(String token) {
+        String raw;
+        try {
+            raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String[] parts = raw.split("\\|", 6);
+        return parts.length == 6 && VERSION.equals(parts[0]) ? parts : null;
+    }
+}
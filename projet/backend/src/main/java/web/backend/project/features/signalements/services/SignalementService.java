@@ -1,6 +1,7 @@
 package web.backend.project.features.signalements.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,17 +11,23 @@ import web.backend.project.entities.Signalement;
 import web.backend.project.entities.StatutAvancement;
 import web.backend.project.entities.Utilisateur;
 import web.backend.project.exceptions.ResourceNotFoundException;
+import web.backend.project.features.signalements.dto.SignalementBboxDTO;
 import web.backend.project.features.signalements.dto.SignalementInsertDTO;
+import web.backend.project.features.signalements.dto.SignalementPageDTO;
+import web.backend.project.features.signalements.dto.SignalementPageRequest;
 import web.backend.project.features.signalements.dto.SignalementResponseDTO;
 import web.backend.project.mappers.CrudSignalementMapper;
 import web.backend.project.repositories.EntrepriseRepository;
 import web.backend.project.repositories.SignalementRepository;
+import web.backend.project.repositories.SignalementRepositoryCustom.Filter;
+import web.backend.project.repositories.SignalementRepositoryCustom.Keyset;
+import web.backend.project.repositories.SignalementRepositoryCustom.SortKey;
 import web.backend.project.repositories.StatutAvancementRepo;
 import web.backend.project.repositories.UtilisateurRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @Service
 @Transactional
@@ -38,6 +45,24 @@ public class SignalementService {
 	@Autowired
 	private StatutAvancementRepo statutAvancementRepo;
 
+	@Autowired
+	private SignalementCountCache countCache;
+
+	// Taille de page par défaut et maximale des listes paginées
+	@Value("${signalements.page.default-size:50}")
+	private int defaultPageSize;
+
+	@Value("${signalements.page.max-size:500}")
+	private int maxPageSize;
+
+	// Nombre maximal de signalements renvoyés pour une emprise de carte
+	@Value("${signalements.bbox.max-results:2000}")
+	private int bboxMaxResults;
+
+	// En deçà de ce zoom, l'emprise est trop large pour renvoyer le détail
+	@Value("${signalements.bbox.min-zoom:6}")
+	private int bboxMinZoom;
+
 	/**
 	 * Crée un nouveau signalement
 	 */
@@ -67,9 +92,109 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getAllSignalements() {
-		return signalementRepository.findAll().stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findAllWithRelations());
+	}
+
+	/**
+	 * Page de signalements correspondant au filtre (pagination par clé)
+	 * Le tri (clé, sens) est celui du curseur s'il est fourni, sinon celui de la
+	 * requête ; l'id départage les égalités. Le total n'est calculé que sur
+	 * demande, et mis en cache par filtre.
+	 */
+	@Transactional(readOnly = true)
+	public SignalementPageDTO getSignalementsPage(Filter filter, SignalementPageRequest pageRequest) {
+		int limit = pageRequest.getLimit() != null
+				? Math.max(1, Math.min(pageRequest.getLimit(), maxPageSize))
+				: defaultPageSize;
+
+		SortKey sortKey;
+		boolean descending;
+		Keyset after = null;
+		if (pageRequest.getCursor() != null) {
+			SignalementCursor cursor = SignalementCursor.decode(pageRequest.getCursor(), filter);
+			sortKey = cursor.getSortKey();
+			descending = cursor.isDescending();
+			after = cursor.getKeyset();
+		} else {
+			sortKey = parseSortKey(pageRequest.getSort());
+			descending = "desc".equalsIgnoreCase(pageRequest.getDirection());
+		}
+
+		// Une ligne de plus pour savoir s'il existe une page suivante
+		List<Signalement> rows = signalementRepository.findPage(filter, sortKey, descending, after, limit + 1);
+		boolean hasMore = rows.size() > limit;
+		List<Signalement> page = hasMore ? rows.subList(0, limit) : rows;
+
+		String nextCursor = null;
+		if (hasMore) {
+			Signalement last = page.get(page.size() - 1);
+			Keyset position = new Keyset((Comparable<?>) sortKey.valueOf(last), last.getId());
+			nextCursor = new SignalementCursor(sortKey, descending, position).encode(filter);
+		}
+
+		Long total = Boolean.TRUE.equals(pageRequest.getIncludeTotal())
+				? countCache.get(filter, () -> signalementRepository.countMatching(filter))
+				: null;
+
+		return new SignalementPageDTO(crudSignalementMapper.toResponseDTOs(page), nextCursor, total);
+	}
+
+	/**
+	 * Signalements dont la localisation intersecte l'emprise (WGS 84)
+	 * Au plus signalements.bbox.max-results signalements (par id croissant),
+	 * truncated indiquant qu'il en existe d'autres. Avec un zoom inférieur à
+	 * signalements.bbox.min-zoom, aucun détail n'est renvoyé (truncated).
+	 *
+	 * @throws IllegalArgumentException si l'emprise est invalide (les emprises
+	 *                                  traversant l'antiméridien ne sont pas
+	 *                                  supportées)
+	 */
+	@Transactional(readOnly = true)
+	public SignalementBboxDTO getSignalementsInBbox(double minLon, double minLat, double maxLon, double maxLat,
+			Integer zoom, Integer entrepriseId, Integer statutId) {
+		if (Double.isNaN(minLon + minLat + maxLon + maxLat) || minLon < -180 || maxLon > 180 || minLat < -90
+				|| maxLat > 90 || minLon > maxLon || minLat > maxLat) {
+			throw new IllegalArgumentException("Emprise invalide: [" + minLon + ", " + minLat + ", " + maxLon
+					+ ", " + maxLat + "]");
+		}
+		if (zoom != null && zoom < bboxMinZoom) {
+			return new SignalementBboxDTO(List.of(), bboxMaxResults, true);
+		}
+
+		// Une ligne de plus pour détecter la troncature
+		List<Integer> ids = signalementRepository.findIdsInBbox(minLon, minLat, maxLon, maxLat, entrepriseId,
+				statutId, bboxMaxResults + 1);
+		boolean truncated = ids.size() > bboxMaxResults;
+		if (truncated) {
+			ids = ids.subList(0, bboxMaxResults);
+		}
+		if (ids.isEmpty()) {
+			return new SignalementBboxDTO(List.of(), bboxMaxResults, false);
+		}
+
+		List<Signalement> signalements = signalementRepository.findByIdInOrderByIdAsc(ids);
+		return new SignalementBboxDTO(crudSignalementMapper.toResponseDTOs(signalements), bboxMaxResults,
+				truncated);
+	}
+
+	private SortKey parseSortKey(String sort) {
+		if (sort == null || sort.isBlank()) {
+			return SortKey.ID;
+		}
+		switch (sort.toLowerCase(Locale.ROOT)) {
+			case "id":
+				return SortKey.ID;
+			case "budget":
+				return SortKey.BUDGET;
+			case "surface":
+				return SortKey.SURFACE;
+			case "datecreation":
+			case "date_creation":
+				return SortKey.DATE_CREATION;
+			default:
+				throw new IllegalArgumentException("Tri non supporté: " + sort
+						+ " (id, budget, surface, dateCreation)");
+		}
 	}
 
 	/**
@@ -134,6 +259,10 @@ public class SignalementService {
 		// Mettre à jour l'entité
 		crudSignalementMapper.updateEntity(signalement, signalementDTO, utilisateur, entreprise);
 
+		// Modification locale : à propager vers Firebase (ligne d'outbox ajoutée par
+		// trigger dans cette transaction)
+		signalement.setSynchro(false);
+
 		// Sauvegarder
 		Signalement updatedSignalement = signalementRepository.save(signalement);
 
@@ -156,9 +285,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsByEntreprise(Integer entrepriseId) {
-		return signalementRepository.findByEntrepriseId(entrepriseId).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findByEntrepriseId(entrepriseId));
 	}
 
 	/**
@@ -166,9 +293,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsByUtilisateur(Integer utilisateurId) {
-		return signalementRepository.findByUtilisateurCreateurId(utilisateurId).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findByUtilisateurCreateurId(utilisateurId));
 	}
 
 	/**
@@ -176,9 +301,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsBySynchro(Boolean synchro) {
-		return signalementRepository.findBySynchro(synchro).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findBySynchro(synchro));
 	}
 
 	/**
@@ -186,9 +309,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsByBudgetMin(Integer budgetMin) {
-		return signalementRepository.findByBudgetGreaterThanEqual(budgetMin).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findByBudgetGreaterThanEqual(budgetMin));
 	}
 
 	/**
@@ -196,9 +317,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsBySurfaceMin(Double surfaceMin) {
-		return signalementRepository.findBySurfaceGreaterThanEqual(surfaceMin).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findBySurfaceGreaterThanEqual(surfaceMin));
 	}
 
 	/**
@@ -206,9 +325,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsByBudgetRange(Integer minBudget, Integer maxBudget) {
-		return signalementRepository.findByBudgetBetween(minBudget, maxBudget).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findByBudgetBetween(minBudget, maxBudget));
 	}
 
 	/**
@@ -216,9 +333,7 @@ public class SignalementService {
 	 */
 	@Transactional(readOnly = true)
 	public List<SignalementResponseDTO> getSignalementsBySurfaceRange(Double minSurface, Double maxSurface) {
-		return signalementRepository.findBySurfaceBetween(minSurface, maxSurface).stream()
-				.map(crudSignalementMapper::toResponseDTO)
-				.collect(Collectors.toList());
+		return crudSignalementMapper.toResponseDTOs(signalementRepository.findBySurfaceBetween(minSurface, maxSurface));
 	}
 
 	/**
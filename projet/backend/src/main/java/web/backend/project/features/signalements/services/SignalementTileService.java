@@ -0,0 +1,185 @@
+package web.backend.project.features.signalements.services;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import web.backend.project.features.signalements.events.SignalementChangedEvent;
+import web.backend.project.repositories.SignalementRepository;
+import web.backend.project.utils.WebMercatorTiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tuiles vectorielles (Mapbox Vector Tile) de la couche des signalements
+ *
+ * Chaque tuile XYZ est générée par PostGIS (ST_AsMVT) : une entité par
+ * signalement, avec statut, budget et entreprise en attributs. Une tuile
+ * contient aussi les signalements de sa marge (buffer pixels sur 4096), pour
+ * que les symboles au bord ne soient pas coupés.
+ *
+ * Les tuiles sont gardées en cache (LRU de cache-max-tiles tuiles). Après le
+ * commit d'une écriture sur un signalement ou l'un de ses avancements, seules
+ * les tuiles dont l'emprise élargie contient son ancienne ou sa nouvelle
+ * localisation sont invalidées, à tous les zooms. Pour un avancement dont le
+ * signalement n'était pas chargé, l'id est mis de côté : les localisations en
+ * attente sont relues en une requête avant la lecture suivante d'une tuile.
+ */
+@Service
+public class SignalementTileService {
+
+    private static final int EXTENT = 4096;
+
+    // Au-delà, tout le cache est vidé plutôt que de parcourir les tuiles
+    private static final int MAX_INVALIDATED_TILES_PER_ZOOM = 1024;
+
+    // Au-delà, tout le cache est vidé plutôt que de relire les localisations
+    private static final int MAX_PENDING_LOOKUPS = 1000;
+
+    private final SignalementRepository signalementRepository;
+
+    // Marge de la tuile, en unités de tuile (4096 par côté)
+    @Value("${signalements.tiles.buffer:64}")
+    private int buffer;
+
+    private final Map<Long, byte[]> tileCache;
+
+    // Incrémenté à chaque invalidation : une tuile calculée pendant une
+    // invalidation n'est pas mise en cache
+    private final AtomicLong version = new AtomicLong();
+
+    // Signalements modifiés par un avancement, localisation pas encore relue ;
+    // retirés seulement après invalidation (une lecture concurrente attend)
+    private final Set<Integer> pendingLookups = ConcurrentHashMap.newKeySet();
+    private final Object lookupLock = new Object();
+
+    public SignalementTileService(SignalementRepository signalementRepository,
+            @Value("${signalements.tiles.cache-max-tiles:2000}") int cacheMaxTiles) {
+        this.signalementRepository = signalementRepository;
+        this.tileCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > cacheMaxTiles;
+            }
+        });
+    }
+
+    /**
+     * Tuile (z, x, y) encodée en protobuf, vide si aucun signalement
+     *
+     * @throws IllegalArgumentException si la tuile n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public byte[] getTile(int zoom, int x, int y) {
+        if (!WebMercatorTiles.isValid(zoom, x, y)) {
+            throw new IllegalArgumentException("Tuile invalide: " + zoom + "/" + x + "/" + y);
+        }
+
+        invalidatePendingLookups();
+        long key = tileKey(zoom, x, y);
+        byte[] cached = tileCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long versionBefore = version.get();
+        double margin = (double) buffer / EXTENT;
+        double west = Math.max(-180.0, WebMercatorTiles.tileWest(x - margin, zoom));
+        double east = Math.min(180.0, WebMercatorTiles.tileWest(x + 1 + margin, zoom));
+        double north = WebMercatorTiles.tileNorth(y - margin, zoom);
+        double south = WebMercatorTiles.tileNorth(y + 1 + margin, zoom);
+
+        byte[] tile = signalementRepository.findVectorTile(zoom, x, y, buffer, west, south, east, north);
+        if (tile == null) {
+            tile = new byte[0];
+        }
+
+        if (version.get() == versionBefore) {
+            tileCache.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Invalide, à tous les zooms, les tuiles de l'ancienne et de la nouvelle
+     * localisation d'un signalement modifié
+     * Pour un avancement dont le signalement n'était pas chargé, seul l'id est
+     * retenu : aucune requête par événement
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSignalementChanged(SignalementChangedEvent event) {
+        version.incrementAndGet();
+        if (event.getPreviousLocalisation() == null && event.getLocalisation() == null) {
+            if (event.getSignalementId() != null) {
+                pendingLookups.add(event.getSignalementId());
+            }
+            return;
+        }
+        invalidate(event.getPreviousLocalisation());
+        invalidate(event.getLocalisation());
+    }
+
+    /**
+     * Invalide les tuiles des signalements en attente, localisations relues en
+     * une requête
+     */
+    private void invalidatePendingLookups() {
+        if (pendingLookups.isEmpty()) {
+            return;
+        }
+        synchronized (lookupLock) {
+            List<Integer> ids = new ArrayList<>(pendingLookups);
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (ids.size() > MAX_PENDING_LOOKUPS) {
+                tileCache.clear();
+            } else {
+                signalementRepository.findLocalisationsByIdIn(ids).forEach(this::invalidate);
+            }
+            pendingLookups.removeAll(ids);
+        }
+    }
+
+    private void invalidate(Geometry localisation) {
+        if (localisation == null || localisation.isEmpty()) {
+            return;
+        }
+        Envelope envelope = localisation.getEnvelopeInternal();
+        double margin = (double) buffer / EXTENT;
+        for (int zoom = 0; zoom <= WebMercatorTiles.MAX_ZOOM; zoom++) {
+            int n = 1 << zoom;
+            int minX = clamp((int) Math.floor(WebMercatorTiles.tileXFraction(envelope.getMinX(), zoom) - margin), n);
+            int maxX = clamp((int) Math.floor(WebMercatorTiles.tileXFraction(envelope.getMaxX(), zoom) + margin), n);
+            int minY = clamp((int) Math.floor(WebMercatorTiles.tileYFraction(envelope.getMaxY(), zoom) - margin), n);
+            int maxY = clamp((int) Math.floor(WebMercatorTiles.tileYFraction(envelope.getMinY(), zoom) + margin), n);
+            if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_INVALIDATED_TILES_PER_ZOOM) {
+                tileCache.clear();
+                return;
+            }
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    tileCache.remove(tileKey(zoom, x, y));
+                }
+            }
+        }
+    }
+
+    private static int clamp(int tile, int n) {
+        return Math.max(0, Math.min(n - 1, tile));
+    }
+
+    private static long tileKey(int zoom, int x, int y) {
+        return ((long) zoom << 56) | ((long) x << 28) | y;
+    }
+}
@@ -3,16 +3,27 @@ package web.backend.project.features.sync.api;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import web.backend.project.entities.SyncConflict;
+import web.backend.project.entities.SyncDeadLetter;
+import web.backend.project.features.sync.dto.SyncJobResponse;
 import web.backend.project.features.sync.dto.SyncRequest;
 import web.backend.project.features.sync.dto.SyncResponse;
+import web.backend.project.features.sync.services.SyncConflictService;
+import web.backend.project.features.sync.services.SyncDeadLetterService;
+import web.backend.project.features.sync.services.SyncJobService;
+import web.backend.project.features.sync.services.SyncRunService;
 import web.backend.project.features.sync.services.SyncService;
 
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +36,10 @@ public class SyncController {
     private static final Logger logger = LoggerFactory.getLogger(SyncController.class);
 
     private final SyncService syncService;
+    private final SyncJobService syncJobService;
+    private final SyncDeadLetterService deadLetterService;
+    private final SyncConflictService conflictService;
+    private final SyncRunService runService;
 
     // Liste des types d'entités supportés
     private static final List<String> SUPPORTED_ENTITY_TYPES = Arrays.asList(
@@ -37,8 +52,14 @@ public class SyncController {
             "avancements_signalement",
             "utilisateurs_bloques");
 
-    public SyncController(SyncService syncService) {
+    public SyncController(SyncService syncService, SyncJobService syncJobService,
+            SyncDeadLetterService deadLetterService, SyncConflictService conflictService,
+            SyncRunService runService) {
         this.syncService = syncService;
+        this.syncJobService = syncJobService;
+        this.deadLetterService = deadLetterService;
+        this.conflictService = conflictService;
+        this.runService = runService;
     }
 
     /**
@@ -51,12 +72,81 @@ public class SyncController {
      * "direction": "PUSH",
      * "forceSync": false
      * }
+     * 
+     * La synchronisation s'exécute comme un job : répond 202 avec l'identifiant
+     * du job, comme POST /api/sync/jobs. Le résultat se consulte via
+     * GET /api/sync/jobs/{jobId} ; aucune requête HTTP n'attend la fin du job
      */
     @PostMapping
-    public ResponseEntity<SyncResponse> synchronize(@Valid @RequestBody SyncRequest request) {
+    public ResponseEntity<?> synchronize(@Valid @RequestBody SyncRequest request) {
         logger.info("Synchronization request received: direction={}, entities={}",
                 request.getDirection(), request.getEntityTypes());
+        return submit(request);
+    }
+
+    /**
+     * Soumet une synchronisation asynchrone
+     * POST /api/sync/jobs (même body que POST /api/sync)
+     * 
+     * Répond 202 avec l'identifiant du job ; l'avancement se consulte via
+     * GET /api/sync/jobs/{jobId} ou le flux SSE /api/sync/jobs/{jobId}/events
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@Valid @RequestBody SyncRequest request) {
+        logger.info("Sync job request received: direction={}, entities={}",
+                request.getDirection(), request.getEntityTypes());
+        return submit(request);
+    }
 
+    /**
+     * Valide puis soumet la demande comme job
+     * 
+     * @return 202 avec le job et son URL, ou la réponse d'erreur
+     */
+    private ResponseEntity<?> submit(SyncRequest request) {
+        ResponseEntity<SyncResponse> rejection = validate(request);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        try {
+            SyncJobService.SyncJob job = syncJobService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/sync/jobs/" + job.getId()))
+                    .body(job.toResponse());
+        } catch (RejectedExecutionException e) {
+            return busyResponse();
+        }
+    }
+
+    /**
+     * État et compteurs courants d'un job
+     * GET /api/sync/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<SyncJobResponse> getJob(@PathVariable String jobId) {
+        return syncJobService.find(jobId)
+                .map(job -> ResponseEntity.ok(job.toResponse()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Flux SSE de l'avancement d'un job
+     * GET /api/sync/jobs/{jobId}/events
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        return syncJobService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Valide une demande de synchronisation
+     * 
+     * @return La réponse d'erreur, ou null si la demande est valide
+     */
+    private ResponseEntity<SyncResponse> validate(SyncRequest request) {
         // Validation des types d'entités
         if (request.getEntityTypes() == null || request.getEntityTypes().isEmpty()) {
             logger.warn("Sync request rejected: empty entity types");
@@ -98,32 +188,28 @@ public class SyncController {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         }
 
-        try {
-            SyncResponse response = syncService.synchronize(request);
-
-            if (response.getSuccess()) {
-                logger.info("Synchronization completed successfully");
-                return ResponseEntity.ok(response);
-            } else {
-                logger.error("Synchronization failed: {}", response.getMessage());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-            }
-        } catch (Exception e) {
-            logger.error("Synchronization error", e);
-            SyncResponse errorResponse = new SyncResponse(false, "Synchronization error: " + e.getMessage());
-            errorResponse.addError(e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+        return null;
+    }
+
+    /**
+     * File d'attente des jobs pleine
+     */
+    private ResponseEntity<SyncResponse> busyResponse() {
+        logger.warn("Sync request rejected: job queue is full");
+        SyncResponse errorResponse = new SyncResponse(false, "Too many synchronizations in progress");
+        errorResponse.addError("Retry once running synchronizations have completed");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
     }
 
     /**
      * Endpoint simplifié pour push uniquement
      * POST /api/sync/push?entities=Signalement,StatutAvancement
      * 
-     * Si entities est omis, synchronise tous les types supportés
+     * Si entities est omis, synchronise tous les types supportés ; répond 202
+     * avec le job, comme POST /api/sync
      */
     @PostMapping("/push")
-    public ResponseEntity<SyncResponse> push(
+    public ResponseEntity<?> push(
             @RequestParam(required = false) String entities,
             @RequestParam(required = false, defaultValue = "false") Boolean forceSync) {
 
@@ -133,34 +219,36 @@ public class SyncController {
         SyncRequest request = new SyncRequest(entityTypes, SyncRequest.SyncDirection.PUSH);
         request.setForceSync(forceSync);
 
-        return synchronize(request);
+        return submit(request);
     }
 
     /**
      * Endpoint simplifié pour pull uniquement
      * POST /api/sync/pull?entities=Signalement,StatutAvancement
      * 
-     * Si entities est omis, synchronise tous les types supportés
+     * Si entities est omis, synchronise tous les types supportés ; répond 202
+     * avec le job, comme POST /api/sync
      */
     @PostMapping("/pull")
-    public ResponseEntity<SyncResponse> pull(
+    public ResponseEntity<?> pull(
             @RequestParam(required = false) String entities) {
 
         List<String> entityTypes = parseEntityTypes(entities);
         logger.info("Pull request received for entities: {}", entityTypes);
 
         SyncRequest request = new SyncRequest(entityTypes, SyncRequest.SyncDirection.PULL);
-        return synchronize(request);
+        return submit(request);
     }
 
     /**
      * Endpoint pour synchronisation bidirectionnelle
      * POST /api/sync/bidirectional?entities=Signalement,StatutAvancement
      * 
-     * Si entities est omis, synchronise tous les types supportés
+     * Si entities est omis, synchronise tous les types supportés ; répond 202
+     * avec le job, comme POST /api/sync
      */
     @PostMapping("/bidirectional")
-    public ResponseEntity<SyncResponse> bidirectional(
+    public ResponseEntity<?> bidirectional(
             @RequestParam(required = false) String entities,
             @RequestParam(required = false, defaultValue = "false") Boolean forceSync) {
 
@@ -170,7 +258,68 @@ public class SyncController {
         SyncRequest request = new SyncRequest(entityTypes, SyncRequest.SyncDirection.BIDIRECTIONAL);
         request.setForceSync(forceSync);
 
-        return synchronize(request);
+        return submit(request);
+    }
+
+    /**
+     * Derniers conflits détectés au pull et leur résolution
+     * GET /api/sync/conflicts?entityType=signalements&limit=100
+     */
+    @GetMapping("/conflicts")
+    public ResponseEntity<List<SyncConflict>> getConflicts(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false, defaultValue = "100") Integer limit) {
+        return ResponseEntity.ok(conflictService.find(entityType, limit));
+    }
+
+    /**
+     * Dernières exécutions de synchronisation et leurs points de reprise
+     * GET /api/sync/runs?limit=20
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<SyncRunService.RunSummary>> getRuns(
+            @RequestParam(required = false, defaultValue = "20") Integer limit) {
+        return ResponseEntity.ok(runService.findRecent(limit));
+    }
+
+    /**
+     * Documents Firebase rejetés par la synchronisation
+     * GET /api/sync/dead-letters?entityType=signalements&limit=100
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<SyncDeadLetter>> getDeadLetters(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false, defaultValue = "100") Integer limit) {
+        return ResponseEntity.ok(deadLetterService.find(entityType, limit));
+    }
+
+    /**
+     * Reprise des documents rejetés
+     * POST /api/sync/dead-letters/retry?entities=signalements&limit=500
+     * 
+     * Si entities est omis, reprend tous les types supportés (dans l'ordre des
+     * dépendances)
+     */
+    @PostMapping("/dead-letters/retry")
+    public ResponseEntity<SyncResponse> retryDeadLetters(
+            @RequestParam(required = false) String entities,
+            @RequestParam(required = false, defaultValue = "500") Integer limit) {
+        List<String> entityTypes = parseEntityTypes(entities).stream()
+                .filter(syncService::isEntityTypeRegistered)
+                .collect(Collectors.toList());
+        logger.info("Dead letter retry request received for entities: {}", entityTypes);
+
+        SyncResponse response = new SyncResponse(true, "Dead letters retried");
+        for (String entityType : syncService.dependencyOrder(entityTypes)) {
+            try {
+                response.getResults().put(entityType, syncService.retryDeadLetters(entityType, limit));
+            } catch (Exception e) {
+                logger.error("Dead letter retry failed for {}", entityType, e);
+                response.setSuccess(false);
+                response.addError(entityType + ": " + e.getMessage());
+            }
+        }
+        return ResponseEntity.ok(response);
     }
 
     /**
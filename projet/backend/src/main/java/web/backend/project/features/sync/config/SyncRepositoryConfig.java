@@ -6,6 +6,7 @@ import web.backend.project.entities.Entreprise;
 import web.backend.project.entities.Parametre;
 import web.backend.project.entities.Role;
 import web.backend.project.entities.Signalement;
+import web.backend.project.entities.SyncableEntity;
 import web.backend.project.entities.StatutAvancement;
 import web.backend.project.entities.Utilisateur;
 import web.backend.project.entities.UtilisateurBloque;
@@ -17,6 +18,7 @@ import web.backend.project.entities.dto.SignalementDTO;
 import web.backend.project.entities.dto.StatutAvancementDTO;
 import web.backend.project.entities.dto.UtilisateurBloqueDTO;
 import web.backend.project.entities.dto.UtilisateurDTO;
+import web.backend.project.features.sync.services.ConflictPolicy;
 import web.backend.project.features.sync.services.EntitySyncRegistry;
 import web.backend.project.features.sync.services.EntityTypeHandler;
 import web.backend.project.features.sync.services.SyncService;
@@ -28,11 +30,22 @@ import web.backend.project.repositories.SignalementRepository;
 import web.backend.project.repositories.StatutAvancementRepo;
 import web.backend.project.repositories.UtilisateurBloqueRepo;
 import web.backend.project.repositories.UtilisateurRepository;
+import web.backend.project.utils.GeometryUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Configuration pour enregistrer les handlers d'entités dans le registre de
@@ -105,6 +118,7 @@ public class SyncRepositoryConfig {
 		syncRegistry.register(new EntityTypeHandler<>(
 				"statuts_avancement",
 				statutAvancementRepository,
+				statutAvancementRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				StatutAvancement::new,
 				StatutAvancementDTO::new));
 
@@ -112,32 +126,48 @@ public class SyncRepositoryConfig {
 		syncRegistry.register(new EntityTypeHandler<>(
 				"signalements",
 				signalementRepository,
+				signalementRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				Signalement::new,
 				SignalementDTO::new,
-				(entity, dto) -> {
-					// Résolution de la relation UtilisateurCreateur (obligatoire)
-					if (dto.getUtilisateurCreateurId() != null) {
-						Utilisateur utilisateur = utilisateurRepository.findById(dto.getUtilisateurCreateurId())
-								.orElseThrow(() -> new RuntimeException(
-										"Utilisateur with id " + dto.getUtilisateurCreateurId() + " not found. " +
-												"Ensure 'utilisateurs' are synchronized before 'signalements'."));
-						entity.setUtilisateurCreateur(utilisateur);
-					} else {
-						throw new RuntimeException(
-								"UtilisateurCreateur id is required for Signalement but was null. " +
-										"Firebase data must include 'id_utilisateur_createur' field.");
-					}
-					// Résolution de la relation Entreprise (obligatoire)
-					if (dto.getEntrepriseId() != null) {
-						Entreprise entreprise = entrepriseRepository.findById(dto.getEntrepriseId())
-								.orElseThrow(() -> new RuntimeException(
-										"Entreprise with id " + dto.getEntrepriseId() + " not found. " +
-												"Ensure 'entreprises' are synchronized before 'signalements'."));
-						entity.setEntreprise(entreprise);
-					} else {
-						throw new RuntimeException(
-								"Entreprise id is required for Signalement but was null. " +
-										"Firebase data must include 'id_entreprise' field.");
+				dtos -> {
+					// Une requête par type référencé pour toute la page
+					Map<Integer, Utilisateur> utilisateurs = loadReferenced(utilisateurRepository, dtos,
+							SignalementDTO::getUtilisateurCreateurId);
+					Map<Integer, Entreprise> entreprises = loadReferenced(entrepriseRepository, dtos,
+							SignalementDTO::getEntrepriseId);
+					return (entity, dto) -> {
+						// Résolution de la relation UtilisateurCreateur (obligatoire)
+						if (dto.getUtilisateurCreateurId() != null) {
+							Utilisateur utilisateur = Optional.ofNullable(utilisateurs.get(dto.getUtilisateurCreateurId()))
+									.orElseThrow(() -> new RuntimeException(
+											"Utilisateur with id " + dto.getUtilisateurCreateurId() + " not found. " +
+													"Ensure 'utilisateurs' are synchronized before 'signalements'."));
+							entity.setUtilisateurCreateur(utilisateur);
+						} else {
+							throw new RuntimeException(
+									"UtilisateurCreateur id is required for Signalement but was null. " +
+											"Firebase data must include 'id_utilisateur_createur' field.");
+						}
+						// Résolution de la relation Entreprise (obligatoire)
+						if (dto.getEntrepriseId() != null) {
+							Entreprise entreprise = Optional.ofNullable(entreprises.get(dto.getEntrepriseId()))
+									.orElseThrow(() -> new RuntimeException(
+											"Entreprise with id " + dto.getEntrepriseId() + " not found. " +
+													"Ensure 'entreprises' are synchronized before 'signalements'."));
+							entity.setEntreprise(entreprise);
+						} else {
+							throw new RuntimeException(
+									"Entreprise id is required for Signalement but was null. " +
+											"Firebase data must include 'id_entreprise' field.");
+						}
+					};
+				}).dependsOn("utilisateurs", "entreprises")
+				// Conflit : date et position viennent du terrain (mobile), budget,
+				// surface et entreprise restent ceux saisis côté backend
+				.mergeWith((local, remote) -> {
+					local.setDateCreation(remote.getDateCreation());
+					if (remote.getLocalisationWkt() != null) {
+						local.setLocalisation(GeometryUtils.wktToGeometry(remote.getLocalisationWkt()));
 					}
 				}));
 
@@ -145,105 +175,146 @@ public class SyncRepositoryConfig {
 		syncRegistry.register(new EntityTypeHandler<>(
 				"avancements_signalement",
 				avancementSignalementRepository,
+				avancementSignalementRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				AvancementSignalement::new,
 				AvancementSignalementDTO::new,
-				(entity, dto) -> {
-					// Résolution de la relation Utilisateur (obligatoire)
-					if (dto.getUtilisateurId() != null) {
-						Utilisateur utilisateur = utilisateurRepository.findById(dto.getUtilisateurId())
-								.orElseThrow(() -> new RuntimeException(
-										"Utilisateur with id " + dto.getUtilisateurId() + " not found. " +
-												"Ensure 'utilisateurs' are synchronized before 'avancements_signalement'."));
-						entity.setUtilisateur(utilisateur);
-					} else {
-						throw new RuntimeException(
-								"Utilisateur id is required for AvancementSignalement but was null. " +
-										"Firebase data must include 'id_utilisateur' field.");
-					}
-					// Résolution de la relation StatutAvancement (obligatoire)
-					if (dto.getStatutAvancementId() != null) {
-						StatutAvancement statut = statutAvancementRepository.findById(dto.getStatutAvancementId())
-								.orElseThrow(() -> new RuntimeException(
-										"StatutAvancement with id " + dto.getStatutAvancementId() + " not found. " +
-												"Ensure 'statuts_avancement' are synchronized before 'avancements_signalement'."));
-						entity.setStatutAvancement(statut);
-					} else {
-						throw new RuntimeException(
-								"StatutAvancement id is required for AvancementSignalement but was null. " +
-										"Firebase data must include 'id_statut_avancement' field.");
-					}
-					// Résolution de la relation Signalement (obligatoire)
-					if (dto.getSignalementId() != null) {
-						Signalement signalement = signalementRepository.findById(dto.getSignalementId())
-								.orElseThrow(() -> new RuntimeException(
-										"Signalement with id " + dto.getSignalementId() + " not found. " +
-												"Ensure 'signalements' are synchronized before 'avancements_signalement'."));
-						entity.setSignalement(signalement);
-					} else {
-						throw new RuntimeException(
-								"Signalement id is required for AvancementSignalement but was null. " +
-										"Firebase data must include 'id_signalement' field.");
-					}
-				}));
+				dtos -> {
+					// Une requête par type référencé pour toute la page
+					Map<Integer, Utilisateur> utilisateurs = loadReferenced(utilisateurRepository, dtos,
+							AvancementSignalementDTO::getUtilisateurId);
+					Map<Integer, StatutAvancement> statuts = loadReferenced(statutAvancementRepository, dtos,
+							AvancementSignalementDTO::getStatutAvancementId);
+					Map<Integer, Signalement> signalements = loadReferenced(signalementRepository, dtos,
+							AvancementSignalementDTO::getSignalementId);
+					return (entity, dto) -> {
+						// Résolution de la relation Utilisateur (obligatoire)
+						if (dto.getUtilisateurId() != null) {
+							Utilisateur utilisateur = Optional.ofNullable(utilisateurs.get(dto.getUtilisateurId()))
+									.orElseThrow(() -> new RuntimeException(
+											"Utilisateur with id " + dto.getUtilisateurId() + " not found. " +
+													"Ensure 'utilisateurs' are synchronized before 'avancements_signalement'."));
+							entity.setUtilisateur(utilisateur);
+						} else {
+							throw new RuntimeException(
+									"Utilisateur id is required for AvancementSignalement but was null. " +
+											"Firebase data must include 'id_utilisateur' field.");
+						}
+						// Résolution de la relation StatutAvancement (obligatoire)
+						if (dto.getStatutAvancementId() != null) {
+							StatutAvancement statut = Optional.ofNullable(statuts.get(dto.getStatutAvancementId()))
+									.orElseThrow(() -> new RuntimeException(
+											"StatutAvancement with id " + dto.getStatutAvancementId() + " not found. " +
+													"Ensure 'statuts_avancement' are synchronized before 'avancements_signalement'."));
+							entity.setStatutAvancement(statut);
+						} else {
+							throw new RuntimeException(
+									"StatutAvancement id is required for AvancementSignalement but was null. " +
+											"Firebase data must include 'id_statut_avancement' field.");
+						}
+						// Résolution de la relation Signalement (obligatoire)
+						if (dto.getSignalementId() != null) {
+							Signalement signalement = Optional.ofNullable(signalements.get(dto.getSignalementId()))
+									.orElseThrow(() -> new RuntimeException(
+											"Signalement with id " + dto.getSignalementId() + " not found. " +
+													"Ensure 'signalements' are synchronized before 'avancements_signalement'."));
+							entity.setSignalement(signalement);
+						} else {
+							throw new RuntimeException(
+									"Signalement id is required for AvancementSignalement but was null. " +
+											"Firebase data must include 'id_signalement' field.");
+						}
+					};
+				}).dependsOn("utilisateurs", "statuts_avancement", "signalements"));
 
 		// Handler pour Utilisateur (avec relation Role)
 		syncRegistry.register(new EntityTypeHandler<>(
 				"utilisateurs",
 				utilisateurRepository,
+				utilisateurRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				Utilisateur::new,
 				UtilisateurDTO::new,
-				(entity, dto) -> {
-					// Résolution de la relation Role (obligatoire)
-					if (dto.getRoleId() != null) {
-						Role role = roleRepository.findById(dto.getRoleId())
-								.orElseThrow(() -> new RuntimeException(
-										"Role with id " + dto.getRoleId() + " not found. " +
-												"Ensure 'roles' are synchronized before 'utilisateurs'."));
-						entity.setRole(role);
-					} else {
-						throw new RuntimeException(
-								"Role id is required for Utilisateur but was null. " +
-										"Firebase data must include 'id_role' field.");
-					}
-				}));
+				dtos -> {
+					Map<Integer, Role> roles = loadReferenced(roleRepository, dtos, UtilisateurDTO::getRoleId);
+					return (entity, dto) -> {
+						// Résolution de la relation Role (obligatoire)
+						if (dto.getRoleId() != null) {
+							Role role = Optional.ofNullable(roles.get(dto.getRoleId()))
+									.orElseThrow(() -> new RuntimeException(
+											"Role with id " + dto.getRoleId() + " not found. " +
+													"Ensure 'roles' are synchronized before 'utilisateurs'."));
+							entity.setRole(role);
+						} else {
+							throw new RuntimeException(
+									"Role id is required for Utilisateur but was null. " +
+											"Firebase data must include 'id_role' field.");
+						}
+					};
+				}).dependsOn("roles"));
 
 		// Handler pour UtilisateurBloque (avec relation Utilisateur)
 		syncRegistry.register(new EntityTypeHandler<>(
 				"utilisateurs_bloques",
 				utilisateurBloqueRepository,
+				utilisateurBloqueRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				UtilisateurBloque::new,
 				UtilisateurBloqueDTO::new,
-				(entity, dto) -> {
-					// Résolution de la relation Utilisateur (obligatoire)
-					if (dto.getUtilisateurId() != null) {
-						Utilisateur utilisateur = utilisateurRepository.findById(dto.getUtilisateurId())
-								.orElseThrow(() -> new RuntimeException(
-										"Utilisateur with id " + dto.getUtilisateurId() + " not found. " +
-												"Ensure 'utilisateurs' are synchronized before 'utilisateurs_bloques'."));
-						entity.setUtilisateur(utilisateur);
-					} else {
-						throw new RuntimeException(
-								"Utilisateur id is required for UtilisateurBloque but was null. " +
-										"Firebase data must include 'id_utilisateur' field.");
-					}
-				}));
+				dtos -> {
+					Map<Integer, Utilisateur> utilisateurs = loadReferenced(utilisateurRepository, dtos,
+							UtilisateurBloqueDTO::getUtilisateurId);
+					return (entity, dto) -> {
+						// Résolution de la relation Utilisateur (obligatoire)
+						if (dto.getUtilisateurId() != null) {
+							Utilisateur utilisateur = Optional.ofNullable(utilisateurs.get(dto.getUtilisateurId()))
+									.orElseThrow(() -> new RuntimeException(
+											"Utilisateur with id " + dto.getUtilisateurId() + " not found. " +
+													"Ensure 'utilisateurs' are synchronized before 'utilisateurs_bloques'."));
+							entity.setUtilisateur(utilisateur);
+						} else {
+							throw new RuntimeException(
+									"Utilisateur id is required for UtilisateurBloque but was null. " +
+											"Firebase data must include 'id_utilisateur' field.");
+						}
+					};
+				}).dependsOn("utilisateurs"));
 
 		syncRegistry.register(new EntityTypeHandler<>(
 				"entreprises", entrepriseRepository,
+				entrepriseRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				Entreprise::new,
 				EntrepriseDTO::new));
 
 		syncRegistry.register(new EntityTypeHandler<>(
 				"parametres", parametreRepository,
+				parametreRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				Parametre::new,
-				ParametreDTO::new));
+				ParametreDTO::new)
+				// Paramètres d'administration : la valeur du backend fait foi
+				.withConflictPolicy(ConflictPolicy.BACKEND_WINS));
 
 		syncRegistry.register(new EntityTypeHandler<>(
 				"roles",
 				roleRepository,
+				roleRepository::findBySynchroFalseAndIdGreaterThanOrderByIdAsc,
 				Role::new,
 				RoleDTO::new));
 
 		logger.info("Registered {} entity handlers in sync registry", syncRegistry.getRegisteredTypes().size());
 	}
+
+	/**
+	 * Charge en une seule requête (findAllById) les entités référencées par une
+	 * page de DTOs, indexées par id
+	 */
+	private static <T extends SyncableEntity<?>, D> Map<Integer, T> loadReferenced(
+			JpaRepository<T, Integer> repository, List<D> dtos, Function<D, Integer> idGetter) {
+		Set<Integer> ids = dtos.stream()
+				.map(idGetter)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+		if (ids.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		return repository.findAllById(ids).stream()
+				.collect(Collectors.toMap(SyncableEntity::getId, Function.identity()));
+	}
 }
@@ -0,0 +1,103 @@
+package web.backend.project.features.sync.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO décrivant l'état d'un job de synchronisation asynchrone
+ */
+public class SyncJobResponse {
+
+    @JsonProperty("jobId")
+    private String jobId;
+
+    @JsonProperty("status")
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED
+
+    @JsonProperty("direction")
+    private SyncRequest.SyncDirection direction;
+
+    @JsonProperty("submittedAt")
+    private LocalDateTime submittedAt;
+
+    @JsonProperty("startedAt")
+    private LocalDateTime startedAt;
+
+    @JsonProperty("finishedAt")
+    private LocalDateTime finishedAt;
+
+    @JsonProperty("progress")
+    private Map<String, SyncResponse.EntitySyncResult> progress; // Compteurs courants par type d'entité
+
+    @JsonProperty("result")
+    private SyncResponse result; // Renseigné une fois le job terminé
+
+    public SyncJobResponse() {
+    }
+
+    // Getters et Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public SyncRequest.SyncDirection getDirection() {
+        return direction;
+    }
+
+    public void setDirection(SyncRequest.SyncDirection direction) {
+        this.direction = direction;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Map<String, SyncResponse.EntitySyncResult> getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Map<String, SyncResponse.EntitySyncResult> progress) {
+        this.progress = progress;
+    }
+
+    public SyncResponse getResult() {
+        return result;
+    }
+
+    public void setResult(SyncResponse result) {
+        this.result = result;
+    }
+}
@@ -54,8 +54,24 @@ public class SyncResponse {
         @JsonProperty("conflicts")
         private Integer conflicts = 0;
 
+        @JsonProperty("skipped")
+        private Integer skipped = 0; // Documents non réécrits (contenu identique dans Firebase)
+
+        @JsonProperty("deleted")
+        private Integer deleted = 0; // Documents supprimés de Firebase (suppressions locales)
+
         public EntitySyncResult() {}
 
+        // Copie instantanée des compteurs (suivi d'un job en cours)
+        public EntitySyncResult(EntitySyncResult other) {
+            this.pushed = other.pushed;
+            this.pulled = other.pulled;
+            this.failed = other.failed;
+            this.conflicts = other.conflicts;
+            this.skipped = other.skipped;
+            this.deleted = other.deleted;
+        }
+
         // Getters et Setters
         public Integer getPushed() {
             return pushed;
@@ -89,6 +105,22 @@ public class SyncResponse {
             this.conflicts = conflicts;
         }
 
+        public Integer getSkipped() {
+            return skipped;
+        }
+
+        public void setSkipped(Integer skipped) {
+            this.skipped = skipped;
+        }
+
+        public Integer getDeleted() {
+            return deleted;
+        }
+
+        public void setDeleted(Integer deleted) {
+            this.deleted = deleted;
+        }
+
         public void incrementPushed() {
             this.pushed++;
         }
@@ -0,0 +1,73 @@
+package web.backend.project.features.sync.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Source de changements temps réel d'une collection (mode ingest)
+ * Implémentée sur les snapshot listeners Firestore ; InMemoryChangeSource
+ * (sources de test) s'y substitue dans les tests de SyncIngestService
+ */
+public interface ChangeSource {
+
+    /**
+     * S'abonne aux changements d'une collection
+     *
+     * @param collectionName     Collection écoutée
+     * @param resumeLastModified last_modified de la marque haute (null : toute la
+     *                           collection, la vue du listener la contient alors
+     *                           entièrement ; SyncIngestService ne le fait que
+     *                           pour une collection vide après un pull complet)
+     * @param resumeDocumentId   ID de document de la marque haute
+     * @param listener           Reçoit les changements par lot, tels que livrés
+     *                           par la source
+     * @param onError            Appelé si l'abonnement est interrompu
+     */
+    Subscription subscribe(String collectionName, String resumeLastModified, String resumeDocumentId,
+            Consumer<List<Change>> listener, Consumer<Throwable> onError);
+
+    /**
+     * Abonnement en cours
+     */
+    interface Subscription {
+        void close();
+    }
+
+    /**
+     * Changement d'un document
+     */
+    class Change {
+        public enum Type {
+            // Document créé ou modifié
+            UPSERT,
+            // Document sorti de la requête écoutée (supprimé ou ne correspondant plus)
+            REMOVE
+        }
+
+        private final Type type;
+        private final String documentId;
+        private final Map<String, Object> data;
+
+        public Change(Type type, String documentId, Map<String, Object> data) {
+            this.type = type;
+            this.documentId = documentId;
+            this.data = data;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        /**
+         * Données du document (même forme qu'un document pullé)
+         */
+        public Map<String, Object> getData() {
+            return data;
+        }
+    }
+}
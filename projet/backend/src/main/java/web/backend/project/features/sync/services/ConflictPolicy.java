@@ -0,0 +1,34 @@
+package web.backend.project.features.sync.services;
+
+/**
+ * Politique de résolution d'un conflit de synchronisation
+ * Un conflit survient quand un document pullé a changé dans Firebase depuis le
+ * dernier échange alors que l'entité locale porte une modification non encore
+ * poussée (synchro = false)
+ */
+public enum ConflictPolicy {
+
+    /** La version modifiée le plus récemment (last_modified) l'emporte */
+    LAST_WRITER_WINS,
+
+    /** La modification locale l'emporte toujours */
+    BACKEND_WINS,
+
+    /**
+     * Fusion champ par champ : le ConflictMerger du type reporte sur l'entité
+     * locale les champs dont Firebase est la source
+     */
+    FIELD_MERGE;
+
+    /**
+     * Issue d'un conflit
+     */
+    public enum Resolution {
+        /** Le document Firebase remplace l'entité locale */
+        REMOTE,
+        /** L'entité locale est conservée (et sera repoussée) */
+        LOCAL,
+        /** L'entité locale reçoit une partie des champs Firebase */
+        MERGED
+    }
+}
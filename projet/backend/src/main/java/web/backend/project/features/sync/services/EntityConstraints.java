@@ -0,0 +1,252 @@
+package web.backend.project.features.sync.services;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.UniqueConstraint;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contraintes de colonnes d'une entité, lues sur ses annotations JPA
+ * (nullable, length, unique, @UniqueConstraint)
+ *
+ * Vérifiées en mémoire avant le flush d'un lot de pull : un document qui les
+ * enfreint est rejeté sans atteindre la base. Un flush en échec marque la
+ * transaction rollback-only (ExceptionConverter de Hibernate) et ferait perdre
+ * toute la page.
+ */
+final class EntityConstraints<E> {
+
+    private static final Map<Class<?>, EntityConstraints<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final String entityName;
+    private final Field idField;
+    private final boolean generatedId;
+    private final List<ColumnRule> columns = new ArrayList<>();
+    private final List<List<Field>> uniqueKeys = new ArrayList<>();
+
+    /**
+     * Règles d'une colonne : obligatoire, longueur maximale (chaînes)
+     */
+    private static final class ColumnRule {
+        private final Field field;
+        private final String column;
+        private final boolean required;
+        private final int maxLength;
+
+        private ColumnRule(Field field, String column, boolean required, int maxLength) {
+            this.field = field;
+            this.column = column;
+            this.required = required;
+            this.maxLength = maxLength;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> EntityConstraints<E> of(Class<E> entityClass) {
+        return (EntityConstraints<E>) CACHE.computeIfAbsent(entityClass, EntityConstraints::new);
+    }
+
+    private EntityConstraints(Class<?> entityClass) {
+        Entity entity = entityClass.getAnnotation(Entity.class);
+        this.entityName = entity != null && !entity.name().isEmpty() ? entity.name() : entityClass.getSimpleName();
+
+        Field id = null;
+        boolean generated = false;
+        Map<String, Field> fieldsByColumn = new HashMap<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(Transient.class)) {
+                continue;
+            }
+            field.setAccessible(true);
+            if (field.isAnnotationPresent(Id.class)) {
+                id = field;
+                generated = field.isAnnotationPresent(GeneratedValue.class);
+                continue;
+            }
+
+            Column column = field.getAnnotation(Column.class);
+            JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+            if (column != null) {
+                String name = column.name().isEmpty() ? field.getName() : column.name();
+                int maxLength = field.getType() == String.class && column.columnDefinition().isEmpty()
+                        ? column.length()
+                        : Integer.MAX_VALUE;
+                columns.add(new ColumnRule(field, name, !column.nullable(), maxLength));
+                fieldsByColumn.put(name, field);
+                if (column.unique()) {
+                    uniqueKeys.add(List.of(field));
+                }
+            } else if (joinColumn != null
+                    && (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class))) {
+                String name = joinColumn.name().isEmpty() ? field.getName() + "_id" : joinColumn.name();
+                columns.add(new ColumnRule(field, name, !joinColumn.nullable(), Integer.MAX_VALUE));
+                fieldsByColumn.put(name, field);
+                if (joinColumn.unique()) {
+                    uniqueKeys.add(List.of(field));
+                }
+            }
+        }
+        this.idField = id;
+        this.generatedId = generated;
+
+        Table table = entityClass.getAnnotation(Table.class);
+        if (table != null) {
+            for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                List<Field> key = Arrays.stream(constraint.columnNames())
+                        .map(fieldsByColumn::get)
+                        .toList();
+                if (!key.contains(null)) {
+                    uniqueKeys.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Première contrainte de colonne enfreinte par l'entité
+     *
+     * @return Le message de rejet, null si l'entité est valide
+     */
+    String violation(E entity) {
+        if (idField != null && !generatedId && read(idField, entity) == null) {
+            return idField.getName() + " is required";
+        }
+        for (ColumnRule rule : columns) {
+            Object value = read(rule.field, entity);
+            if (value == null) {
+                if (rule.required) {
+                    return rule.column + " is required";
+                }
+            } else if (value instanceof String && ((String) value).length() > rule.maxLength) {
+                return rule.column + " exceeds " + rule.maxLength + " characters";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Entités d'un lot qui enfreignent une contrainte d'unicité, entre elles ou
+     * avec les lignes déjà en base
+     * Entre entités du lot, la première dans l'ordre de la liste garde la valeur.
+     * Une requête par contrainte, sans flush automatique (les entités du lot ne
+     * sont pas encore écrites). Une valeur encore portée en base par une autre
+     * ligne est rejetée même si cette ligne la libère dans le même lot : l'ordre
+     * des écritures du flush ne le garantit pas, le document sera repris par la
+     * file des rejets.
+     *
+     * @return Entité → message de rejet
+     */
+    Map<E, String> uniqueViolations(List<E> entities, EntityManager entityManager) {
+        Map<E, String> violations = new IdentityHashMap<>();
+        if (uniqueKeys.isEmpty() || entities.isEmpty()) {
+            return violations;
+        }
+
+        for (List<Field> key : uniqueKeys) {
+            Map<List<Object>, E> claimed = new LinkedHashMap<>();
+            for (E entity : entities) {
+                if (violations.containsKey(entity)) {
+                    continue;
+                }
+                List<Object> value = valueOf(key, entity);
+                if (value == null) {
+                    // NULL n'entre pas en conflit en base
+                    continue;
+                }
+                E holder = claimed.putIfAbsent(value, entity);
+                if (holder != null && holder != entity) {
+                    violations.put(entity, describe(key, value) + " is duplicated in the page");
+                }
+            }
+
+            claimed.values().removeIf(violations::containsKey);
+            if (claimed.isEmpty()) {
+                continue;
+            }
+            for (Object[] row : findHolders(key, claimed.keySet(), entityManager)) {
+                List<Object> value = Arrays.asList(row).subList(1, row.length);
+                E claimant = claimed.get(value);
+                if (claimant != null && !Objects.equals(row[0], read(idField, claimant))) {
+                    violations.put(claimant, describe(key, value) + " already belongs to " + entityName + " "
+                            + row[0]);
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Lignes en base portant l'une des valeurs : [id, colonnes de la clé...]
+     * Sélection large (IN par colonne), affinée en mémoire
+     */
+    private List<Object[]> findHolders(List<Field> key, Set<List<Object>> values, EntityManager entityManager) {
+        StringBuilder jpql = new StringBuilder("SELECT e.").append(idField.getName());
+        key.forEach(field -> jpql.append(", e.").append(field.getName()));
+        jpql.append(" FROM ").append(entityName).append(" e WHERE ");
+        for (int i = 0; i < key.size(); i++) {
+            jpql.append(i > 0 ? " AND " : "").append("e.").append(key.get(i).getName()).append(" IN :p").append(i);
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setFlushMode(FlushModeType.COMMIT);
+        for (int i = 0; i < key.size(); i++) {
+            Set<Object> column = new HashSet<>();
+            for (List<Object> value : values) {
+                column.add(value.get(i));
+            }
+            query.setParameter("p" + i, column);
+        }
+        return query.getResultList();
+    }
+
+    private List<Object> valueOf(List<Field> key, E entity) {
+        List<Object> value = new ArrayList<>(key.size());
+        for (Field field : key) {
+            Object component = read(field, entity);
+            if (component == null) {
+                return null;
+            }
+            value.add(component);
+        }
+        return value;
+    }
+
+    private static String describe(List<Field> key, List<Object> value) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < key.size(); i++) {
+            description.append(i > 0 ? ", " : "").append(key.get(i).getName()).append("=").append(value.get(i));
+        }
+        return description.toString();
+    }
+
+    private static Object read(Field field, Object entity) {
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field, e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package web.backend.project.features.sync.services;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import web.backend.project.entities.SyncableEntity;
 import web.backend.project.entities.dto.FirebaseSerializable;
@@ -15,6 +17,8 @@ import java.util.stream.Collectors;
 @Service
 public class EntitySyncHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(EntitySyncHandler.class);
+
     private final EntitySyncRegistry syncRegistry;
 
     public EntitySyncHandler(EntitySyncRegistry syncRegistry) {
@@ -22,11 +26,11 @@ public class EntitySyncHandler {
     }
 
     /**
-     * Récupère les entités non synchronisées pour un type donné
+     * Récupère une page d'entités non synchronisées pour un type donné
      */
-    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<E> getUnsyncedEntities(
-            String entityType) {
-        return syncRegistry.getUnsyncedEntities(entityType);
+    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<E> getUnsyncedPage(
+            String entityType, Integer afterId, int pageSize) {
+        return syncRegistry.getUnsyncedPage(entityType, afterId, pageSize);
     }
 
     /**
@@ -34,7 +38,7 @@ public class EntitySyncHandler {
      */
     public <E extends SyncableEntity<D>, D extends FirebaseSerializable> void markAsSynced(
             String entityType, List<E> entities) {
-        System.out.println("Marking entities as synced for type " + entityType + ": " + entities);
+        logger.debug("Marking {} entities as synced for type {}", entities.size(), entityType);
         syncRegistry.markAsSynced(entityType, entities);
     }
 
@@ -59,7 +63,7 @@ public class EntitySyncHandler {
 
     /**
      * Met à jour ou crée une entité depuis les données Firebase (générique)
-     * Note: Transaction is managed by the calling SyncService.synchronize() method
+     * Note: Transaction is managed by the calling SyncService.synchronizeEntityType() method
      */
     public <E extends SyncableEntity<D>, D extends FirebaseSerializable> E updateOrCreateFromFirebase(
             String entityType, Map<String, Object> firebaseData) {
@@ -73,6 +77,17 @@ public class EntitySyncHandler {
         }
     }
 
+    /**
+     * Met à jour ou crée les entités d'une page de documents Firebase
+     * (relations préchargées pour toute la page, conflits résolus selon la
+     * politique du type)
+     */
+    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<EntityTypeHandler.RecordOutcome<E>> updateOrCreatePageFromFirebase(
+            String entityType, List<Map<String, Object>> page, SyncConflictContext conflicts) {
+        logger.debug("Updating or creating {} entities of type {} from Firebase data", page.size(), entityType);
+        return syncRegistry.updateOrCreatePageFromFirebase(entityType, page, conflicts);
+    }
+
     /**
      * Vérifie si un type d'entité est enregistré
      */
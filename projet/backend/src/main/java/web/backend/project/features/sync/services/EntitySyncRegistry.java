@@ -2,6 +2,8 @@ package web.backend.project.features.sync.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import web.backend.project.entities.SyncableEntity;
 import web.backend.project.entities.dto.FirebaseSerializable;
@@ -9,10 +11,12 @@ import web.backend.project.entities.dto.FirebaseSerializable;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +33,13 @@ public class EntitySyncRegistry {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private SyncMetrics metrics;
+
+    // Nombre de documents tirés écrits entre deux flush/clear
+    @Value("${sync.pull.flush-size:100}")
+    private int flushSize;
+
     /**
      * Enregistre un handler pour un type d'entité
      */
@@ -69,19 +80,55 @@ public class EntitySyncRegistry {
     }
 
     /**
-     * Récupère les entités non synchronisées pour un type donné
+     * Liste les types d'entités dont dépend un type (relations à résoudre)
+     */
+    public Set<String> getDependencies(String entityType) {
+        EntityTypeHandler<?, ?> handler = handlers.get(entityType);
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler registered for: " + entityType);
+        }
+        return handler.getDependencies();
+    }
+
+    /**
+     * Récupère une page d'entités non synchronisées pour un type donné
+     * Le filtre synchro = false et la pagination par clé (id > afterId) sont
+     * exécutés en base
      */
     @SuppressWarnings("unchecked")
-    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<E> getUnsyncedEntities(
-            String entityType) {
+    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<E> getUnsyncedPage(
+            String entityType, Integer afterId, int pageSize) {
         EntityTypeHandler<E, D> handler = (EntityTypeHandler<E, D>) handlers.get(entityType);
         if (handler == null) {
             throw new IllegalArgumentException("No handler registered for: " + entityType);
         }
 
-        return handler.getRepository().findAll().stream()
-                .filter(entity -> entity.getSynchro() != null && !entity.getSynchro())
-                .collect(Collectors.toList());
+        return handler.findUnsyncedPage(afterId, pageSize);
+    }
+
+    /**
+     * Nombre d'entités d'un type restant à pousser (synchro = false)
+     */
+    public long countUnsynced(String entityType) {
+        EntityTypeHandler<?, ?> handler = handlers.get(entityType);
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler registered for: " + entityType);
+        }
+        return handler.countUnsynced(entityManager);
+    }
+
+    /**
+     * Charge les entités d'un type par leurs ids (une requête)
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<E> findAllById(
+            String entityType, Collection<Integer> ids) {
+        EntityTypeHandler<E, D> handler = (EntityTypeHandler<E, D>) handlers.get(entityType);
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler registered for: " + entityType);
+        }
+
+        return handler.getRepository().findAllById(ids);
     }
 
     /**
@@ -93,6 +140,18 @@ public class EntitySyncRegistry {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Décode des données Firebase en DTO (sans toucher à la base)
+     */
+    public FirebaseSerializable decodeFirebaseData(String entityType, Map<String, Object> firebaseData) {
+        EntityTypeHandler<?, ?> handler = handlers.get(entityType);
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler registered for: " + entityType);
+        }
+
+        return handler.createDTOFromFirebase(firebaseData);
+    }
+
     /**
      * Marque les entités comme synchronisées
      */
@@ -108,9 +167,20 @@ public class EntitySyncRegistry {
         handler.getRepository().saveAll(entities);
     }
 
+    /**
+     * Écrit les modifications en attente puis vide le contexte de persistance
+     * Appelé entre deux pages pour que la mémoire reste bornée par la taille
+     * d'une page et non par celle de la table
+     */
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     /**
      * Met à jour ou crée une entité depuis les données Firebase
-     * Clears the persistence context on failure to prevent dirty session state
+     * L'entité est validée en mémoire avant d'être écrite : un document invalide
+     * est rejeté sans toucher la base ni vider le contexte de persistance
      */
     @SuppressWarnings("unchecked")
     public <E extends SyncableEntity<D>, D extends FirebaseSerializable> E updateOrCreateFromFirebase(
@@ -120,13 +190,24 @@ public class EntitySyncRegistry {
             throw new IllegalArgumentException("No handler registered for: " + entityType);
         }
 
-        try {
-            return handler.updateOrCreate(firebaseData, entityManager);
-        } catch (Exception e) {
-            // Clear the persistence context to prevent dirty session state
-            // This ensures subsequent operations aren't affected by this failure
-            entityManager.clear();
-            throw e;
+        return handler.updateOrCreate(firebaseData, entityManager);
+    }
+
+    /**
+     * Met à jour ou crée les entités d'une page de documents Firebase
+     * Les relations sont préchargées une fois pour toute la page, puis les
+     * entités sont écrites par lots de sync.pull.flush-size avec un flush/clear
+     * par lot. Les conflits avec des modifications locales non poussées sont
+     * résolus selon la politique du handler et consignés dans le contexte
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> List<EntityTypeHandler.RecordOutcome<E>> updateOrCreatePageFromFirebase(
+            String entityType, List<Map<String, Object>> page, SyncConflictContext conflicts) {
+        EntityTypeHandler<E, D> handler = (EntityTypeHandler<E, D>) handlers.get(entityType);
+        if (handler == null) {
+            throw new IllegalArgumentException("No handler registered for: " + entityType);
         }
+
+        return handler.updateOrCreatePage(page, entityManager, flushSize, metrics, conflicts);
     }
 }
@@ -2,14 +2,26 @@ package web.backend.project.features.sync.services;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import web.backend.project.entities.SyncableEntity;
 import web.backend.project.entities.dto.FirebaseSerializable;
 
 import jakarta.persistence.EntityManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Handler générique pour un type d'entité spécifique
@@ -24,9 +36,14 @@ public class EntityTypeHandler<E extends SyncableEntity<D>, D extends FirebaseSe
 
     private final String entityType;
     private final JpaRepository<E, Integer> repository;
+    private final UnsyncedPageQuery<E> unsyncedPageQuery;
     private final Supplier<E> entityFactory;
     private final Supplier<D> dtoFactory;
-    private final RelationResolver<E, D> relationResolver;
+    private final BatchRelationResolver<E, D> batchRelationResolver;
+    private final EntityConstraints<E> constraints;
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private ConflictPolicy conflictPolicy = ConflictPolicy.LAST_WRITER_WINS;
+    private ConflictMerger<E, D> conflictMerger;
 
     /**
      * Interface fonctionnelle pour résoudre les relations d'une entité
@@ -40,17 +57,137 @@ public class EntityTypeHandler<E extends SyncableEntity<D>, D extends FirebaseSe
         void resolveRelations(E entity, D dto);
     }
 
+    /**
+     * Variante par page du RelationResolver
+     * Reçoit tous les DTOs d'une page, charge chaque type référencé en une seule
+     * requête (findAllById) et retourne un resolver qui ne lit plus que des maps
+     * id → entité
+     */
+    @FunctionalInterface
+    public interface BatchRelationResolver<E, D> {
+        /**
+         * Précharge les relations de la page
+         *
+         * @param dtos DTOs de la page (non vide)
+         * @return Resolver appliqué ensuite à chaque entité de la page
+         */
+        RelationResolver<E, D> prepare(List<D> dtos);
+    }
+
+    /**
+     * Fusion champ par champ d'un conflit (ConflictPolicy.FIELD_MERGE)
+     */
+    @FunctionalInterface
+    public interface ConflictMerger<E, D> {
+        /**
+         * Reporte sur l'entité locale (modifiée, non poussée) les champs dont
+         * Firebase est la source ; les autres champs locaux sont conservés
+         */
+        void merge(E local, D remote);
+    }
+
+    /**
+     * Traitement décidé pour un document d'une page
+     */
+    private enum Action {
+        /** Le document Firebase est appliqué */
+        APPLY,
+        /** L'entité locale est conservée telle quelle */
+        KEEP,
+        /** Le ConflictMerger est appliqué à l'entité locale */
+        MERGE
+    }
+
+    /**
+     * Résultat de l'intégration d'un document Firebase d'une page
+     */
+    public static class RecordOutcome<E> {
+        private final Map<String, Object> data;
+        private final E entity;
+        private final Exception error;
+        private final boolean conflict;
+
+        private RecordOutcome(Map<String, Object> data, E entity, Exception error, boolean conflict) {
+            this.data = data;
+            this.entity = entity;
+            this.error = error;
+            this.conflict = conflict;
+        }
+
+        static <E> RecordOutcome<E> success(Map<String, Object> data, E entity) {
+            return success(data, entity, false);
+        }
+
+        static <E> RecordOutcome<E> success(Map<String, Object> data, E entity, boolean conflict) {
+            return new RecordOutcome<>(data, entity, null, conflict);
+        }
+
+        static <E> RecordOutcome<E> failure(Map<String, Object> data, Exception error) {
+            return new RecordOutcome<>(data, null, error, false);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * Le document était en conflit avec une modification locale non poussée
+         */
+        public boolean isConflict() {
+            return conflict;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+
+        public E getEntity() {
+            return entity;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Interface fonctionnelle pour récupérer une page d'entités non synchronisées
+     * Parcours par clé (keyset) : uniquement les ids strictement supérieurs à
+     * afterId, triés par id croissant
+     */
+    @FunctionalInterface
+    public interface UnsyncedPageQuery<E> {
+        List<E> findUnsyncedPage(Integer afterId, Pageable pageable);
+    }
+
     public EntityTypeHandler(
             String entityType,
             JpaRepository<E, Integer> repository,
+            UnsyncedPageQuery<E> unsyncedPageQuery,
             Supplier<E> entityFactory,
             Supplier<D> dtoFactory,
-            RelationResolver<E, D> relationResolver) {
+            BatchRelationResolver<E, D> batchRelationResolver) {
         this.entityType = entityType;
         this.repository = repository;
+        this.unsyncedPageQuery = unsyncedPageQuery;
         this.entityFactory = entityFactory;
         this.dtoFactory = dtoFactory;
-        this.relationResolver = relationResolver;
+        this.batchRelationResolver = batchRelationResolver;
+        this.constraints = EntityConstraints.of(getEntityClass());
+    }
+
+    /**
+     * Constructeur avec un resolver unitaire (une résolution par document)
+     */
+    public EntityTypeHandler(
+            String entityType,
+            JpaRepository<E, Integer> repository,
+            UnsyncedPageQuery<E> unsyncedPageQuery,
+            Supplier<E> entityFactory,
+            Supplier<D> dtoFactory,
+            RelationResolver<E, D> relationResolver) {
+        this(entityType, repository, unsyncedPageQuery, entityFactory, dtoFactory,
+                (BatchRelationResolver<E, D>) dtos -> relationResolver);
     }
 
     /**
@@ -59,20 +196,78 @@ public class EntityTypeHandler<E extends SyncableEntity<D>, D extends FirebaseSe
     public EntityTypeHandler(
             String entityType,
             JpaRepository<E, Integer> repository,
+            UnsyncedPageQuery<E> unsyncedPageQuery,
             Supplier<E> entityFactory,
             Supplier<D> dtoFactory) {
-        this(entityType, repository, entityFactory, dtoFactory, (e, d) -> {
-        });
+        this(entityType, repository, unsyncedPageQuery, entityFactory, dtoFactory,
+                (RelationResolver<E, D>) (e, d) -> {
+                });
+    }
+
+    /**
+     * Déclare les types d'entités à synchroniser avant celui-ci
+     * (ceux référencés par le RelationResolver)
+     */
+    public EntityTypeHandler<E, D> dependsOn(String... entityTypes) {
+        Collections.addAll(dependencies, entityTypes);
+        return this;
+    }
+
+    /**
+     * Politique appliquée quand un document pullé entre en conflit avec une
+     * modification locale non poussée (LAST_WRITER_WINS par défaut)
+     */
+    public EntityTypeHandler<E, D> withConflictPolicy(ConflictPolicy policy) {
+        this.conflictPolicy = Objects.requireNonNull(policy);
+        return this;
+    }
+
+    /**
+     * Résout les conflits par fusion champ par champ (ConflictPolicy.FIELD_MERGE)
+     */
+    public EntityTypeHandler<E, D> mergeWith(ConflictMerger<E, D> merger) {
+        this.conflictMerger = Objects.requireNonNull(merger);
+        this.conflictPolicy = ConflictPolicy.FIELD_MERGE;
+        return this;
+    }
+
+    public ConflictPolicy getConflictPolicy() {
+        return conflictPolicy;
     }
 
     public String getEntityType() {
         return entityType;
     }
 
+    public Set<String> getDependencies() {
+        return Collections.unmodifiableSet(dependencies);
+    }
+
     public JpaRepository<E, Integer> getRepository() {
         return repository;
     }
 
+    /**
+     * Récupère la page suivante d'entités non synchronisées (synchro = false)
+     * La sélection est faite en base, jamais en mémoire
+     *
+     * @param afterId  Dernier id traité (0 pour la première page)
+     * @param pageSize Taille maximale de la page
+     */
+    public List<E> findUnsyncedPage(Integer afterId, int pageSize) {
+        return unsyncedPageQuery.findUnsyncedPage(afterId, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Nombre d'entités non synchronisées (synchro = false), compté en base
+     */
+    public long countUnsynced(EntityManager entityManager) {
+        String entityName = entityManager.getMetamodel().entity(getEntityClass()).getName();
+        return entityManager.createQuery(
+                "SELECT COUNT(e) FROM " + entityName + " e WHERE e.synchro = false", Long.class)
+                .getSingleResult();
+    }
+
     /**
      * Crée une nouvelle instance de l'entité
      */
@@ -101,6 +296,264 @@ public class EntityTypeHandler<E extends SyncableEntity<D>, D extends FirebaseSe
      */
     public E updateOrCreate(Map<String, Object> firebaseData, EntityManager entityManager) {
         D dto = createDTOFromFirebase(firebaseData);
+        return updateOrCreate(dto, batchRelationResolver.prepare(List.of(dto)), entityManager);
+    }
+
+    /**
+     * Met à jour ou crée les entités d'une page de documents Firebase
+     * Les relations de toute la page sont chargées en une requête par type
+     * référencé avant l'intégration des documents. La page est ensuite écrite
+     * par lots de flushSize documents : une requête pour charger les entités
+     * existantes du lot, persist/mise à jour en mémoire, puis un seul flush et
+     * clear, ce qui laisse le batching JDBC (hibernate.jdbc.batch_size) opérer.
+     * Un document en échec n'interrompt pas la page : son erreur est rapportée
+     * dans le résultat. Les entités de chaque lot sont validées en mémoire
+     * (EntityConstraints) avant le flush : un document invalide n'atteint pas la
+     * base et n'invalide pas la transaction de la page.
+     * Une entité locale modifiée et non poussée (synchro = false) n'est pas
+     * écrasée sans examen : le conflit est résolu selon la ConflictPolicy du
+     * type et consigné dans le contexte.
+     *
+     * @return Un résultat par document de la page
+     */
+    public List<RecordOutcome<E>> updateOrCreatePage(List<Map<String, Object>> page,
+            EntityManager entityManager, int flushSize, SyncMetrics metrics, SyncConflictContext conflicts) {
+        List<RecordOutcome<E>> outcomes = new ArrayList<>(page.size());
+
+        // Décode toute la page avant de précharger les relations
+        List<Map<String, Object>> decodedData = new ArrayList<>(page.size());
+        List<D> dtos = new ArrayList<>(page.size());
+        metrics.time(entityType, "dto_conversion", () -> {
+            for (Map<String, Object> data : page) {
+                try {
+                    dtos.add(createDTOFromFirebase(data));
+                    decodedData.add(data);
+                } catch (Exception e) {
+                    outcomes.add(RecordOutcome.failure(data, e));
+                }
+            }
+        });
+        if (dtos.isEmpty()) {
+            return outcomes;
+        }
+
+        RelationResolver<E, D> pageResolver;
+        try {
+            pageResolver = metrics.time(entityType, "relation_resolution", () -> batchRelationResolver.prepare(dtos));
+        } catch (Exception e) {
+            RuntimeException failure = new RuntimeException(
+                    "Failed to prefetch relations for " + entityType + ": " + e.getMessage(), e);
+            decodedData.forEach(data -> outcomes.add(RecordOutcome.failure(data, failure)));
+            return outcomes;
+        }
+
+        int chunkSize = Math.max(1, flushSize);
+        for (int from = 0; from < dtos.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, dtos.size());
+            List<Map<String, Object>> chunkData = decodedData.subList(from, to);
+            List<D> chunkDtos = dtos.subList(from, to);
+            metrics.time(entityType, "persist_flush",
+                    () -> upsertChunk(chunkData, chunkDtos, pageResolver, entityManager, conflicts, outcomes));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Écrit un lot de documents avec un seul flush
+     * Les entités du lot sont préparées en mémoire puis validées avant toute
+     * écriture (colonnes obligatoires, longueurs, unicité) : un document
+     * invalide est rapporté en échec et ses modifications sont écartées du
+     * contexte de persistance. Un échec du flush malgré cette validation est
+     * propagé : la transaction de la page est alors perdue (rollback-only).
+     */
+    private void upsertChunk(List<Map<String, Object>> chunkData, List<D> chunkDtos,
+            RelationResolver<E, D> pageResolver, EntityManager entityManager, SyncConflictContext conflicts,
+            List<RecordOutcome<E>> outcomes) {
+
+        // Une seule requête pour savoir quels ids existent déjà (et charger ces entités)
+        Set<Integer> ids = chunkDtos.stream()
+                .map(FirebaseSerializable::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, E> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            repository.findAllById(ids).forEach(entity -> existing.put(entity.getId(), entity));
+        }
+        // Préparation en mémoire : rien n'est écrit avant la validation du lot
+        List<RecordOutcome<E>> pending = new ArrayList<>(chunkDtos.size());
+        Set<E> created = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Integer> failedIds = new HashSet<>();
+        for (int i = 0; i < chunkDtos.size(); i++) {
+            D dto = chunkDtos.get(i);
+            Map<String, Object> data = chunkData.get(i);
+            if (failedIds.contains(dto.getId())) {
+                outcomes.add(RecordOutcome.failure(data, new IllegalArgumentException(
+                        "Invalid " + entityType + ": an earlier document with the same id failed")));
+                continue;
+            }
+            E local = existing.get(dto.getId());
+            try {
+                int conflictsBefore = conflicts.conflictCount();
+                Action action = decide(dto, data, local, conflicts);
+                E entity = perform(action, dto, local, pageResolver, entityManager);
+                if (local == null) {
+                    created.add(entity);
+                    if (dto.getId() != null) {
+                        // Un même id répété dans le lot met à jour la même entité
+                        existing.put(dto.getId(), entity);
+                    }
+                }
+                pending.add(RecordOutcome.success(data, entity, conflicts.conflictCount() > conflictsBefore));
+            } catch (Exception e) {
+                outcomes.add(RecordOutcome.failure(data, e));
+                if (local != null) {
+                    // L'entité, peut-être partagée avec un document précédent du lot, a
+                    // pu être modifiée en partie : tous les documents de cet id sont rejetés
+                    failedIds.add(dto.getId());
+                    reject(local, "a later document with the same id failed", pending, entityManager);
+                }
+            }
+        }
+
+        // Validation de l'état final de chaque entité, puis de l'unicité sur tout le
+        // lot ; les candidats restent dans l'ordre des documents (le premier garde
+        // une valeur unique répétée)
+        Set<E> validated = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<E> candidates = new ArrayList<>(pending.size());
+        for (RecordOutcome<E> outcome : pending) {
+            if (outcome.isSuccess() && validated.add(outcome.getEntity())) {
+                String violation = constraints.violation(outcome.getEntity());
+                if (violation != null) {
+                    reject(outcome.getEntity(), violation, pending, entityManager);
+                } else {
+                    candidates.add(outcome.getEntity());
+                }
+            }
+        }
+        constraints.uniqueViolations(candidates, entityManager)
+                .forEach((entity, violation) -> reject(entity, violation, pending, entityManager));
+
+        Set<E> persisted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RecordOutcome<E> outcome : pending) {
+            E entity = outcome.getEntity();
+            if (outcome.isSuccess() && created.contains(entity) && persisted.add(entity)) {
+                entityManager.persist(entity);
+            }
+        }
+        entityManager.flush();
+        outcomes.addAll(pending);
+        entityManager.clear();
+    }
+
+    /**
+     * Rejette les documents du lot qui aboutissent à une entité invalide
+     * Tous les documents du lot portant cette entité (id répété) sont rejetés ;
+     * une entité gérée est détachée, ce qui annule ses modifications en mémoire
+     */
+    private void reject(E entity, String violation, List<RecordOutcome<E>> pending, EntityManager entityManager) {
+        IllegalArgumentException error = new IllegalArgumentException("Invalid " + entityType + ": " + violation);
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).getEntity() == entity) {
+                pending.set(i, RecordOutcome.failure(pending.get(i).getData(), error));
+            }
+        }
+        if (entityManager.contains(entity)) {
+            entityManager.detach(entity);
+        }
+    }
+
+    /**
+     * Décide du traitement d'un document selon l'état de l'entité locale
+     * - pas d'entité locale, ou entité synchronisée : le document est appliqué
+     * - entité modifiée localement mais document inchangé dans Firebase depuis le
+     * dernier échange : la modification locale est conservée (pas de conflit)
+     * - sinon conflit, résolu selon la politique du type et consigné
+     */
+    private Action decide(D dto, Map<String, Object> data, E local, SyncConflictContext conflicts) {
+        if (local == null || Boolean.TRUE.equals(local.getSynchro()) || !conflicts.isEnabled()) {
+            return Action.APPLY;
+        }
+        if (!conflicts.remoteChanged(dto)) {
+            return Action.KEEP;
+        }
+
+        ConflictPolicy.Resolution resolution;
+        switch (conflictPolicy) {
+            case BACKEND_WINS:
+                resolution = ConflictPolicy.Resolution.LOCAL;
+                break;
+            case FIELD_MERGE:
+                if (conflictMerger != null) {
+                    resolution = ConflictPolicy.Resolution.MERGED;
+                    break;
+                }
+                // Sans fusion déclarée : dernier écrivain
+            case LAST_WRITER_WINS:
+            default:
+                resolution = conflicts.isRemoteNewer(dto.getId(), data)
+                        ? ConflictPolicy.Resolution.REMOTE
+                        : ConflictPolicy.Resolution.LOCAL;
+                break;
+        }
+
+        logger.info("Conflict on {} {}: resolved as {} ({})", entityType, dto.getId(), resolution, conflictPolicy);
+        conflicts.record(dto.getId(), conflictPolicy, resolution, data);
+        switch (resolution) {
+            case REMOTE:
+                return Action.APPLY;
+            case MERGED:
+                return Action.MERGE;
+            case LOCAL:
+            default:
+                return Action.KEEP;
+        }
+    }
+
+    /**
+     * Exécute le traitement décidé en mémoire, sans persist ni flush
+     * KEEP et MERGE laissent l'entité à synchro = false : la version locale est
+     * repoussée vers Firebase
+     */
+    private E perform(Action action, D dto, E local, RelationResolver<E, D> relationResolver,
+            EntityManager entityManager) {
+        if (local == null || action == Action.APPLY) {
+            return applyToEntity(dto, local, relationResolver, entityManager);
+        }
+        if (action == Action.MERGE) {
+            conflictMerger.merge(local, dto);
+        }
+        return local;
+    }
+
+    /**
+     * Applique un DTO sur l'entité existante (gérée) ou sur une nouvelle entité,
+     * persistée par l'appelant après validation
+     */
+    private E applyToEntity(D dto, E existing, RelationResolver<E, D> relationResolver,
+            EntityManager entityManager) {
+        boolean isNewEntity = existing == null;
+        E entity = isNewEntity ? createEntity() : existing;
+        if (isNewEntity && dto.getId() != null) {
+            // Conserve l'id Firebase (intégrité référentielle entre entités liées)
+            entity.setId(dto.getId());
+        }
+
+        entity.updateFromDTO(dto);
+        entity.setSynchro(true);
+
+        try {
+            relationResolver.resolveRelations(entity, dto);
+        } catch (Exception e) {
+            if (!isNewEntity) {
+                // Annule les modifications en mémoire de l'entité gérée
+                entityManager.detach(entity);
+            }
+            throw new RuntimeException("Failed to resolve relations for " + entityType + ": " + e.getMessage(), e);
+        }
+        return entity;
+    }
+
+    private E updateOrCreate(D dto, RelationResolver<E, D> relationResolver, EntityManager entityManager) {
         Integer id = dto.getId();
 
         logger.debug("Processing {} with id: {}", entityType, id);
@@ -153,6 +606,18 @@ public class EntityTypeHandler<E extends SyncableEntity<D>, D extends FirebaseSe
             throw new RuntimeException("Failed to resolve relations for " + entityType + ": " + e.getMessage(), e);
         }
 
+        // Validation avant écriture : un flush en échec rendrait la transaction rollback-only
+        String violation = constraints.violation(entity);
+        if (violation == null) {
+            violation = constraints.uniqueViolations(List.of(entity), entityManager).get(entity);
+        }
+        if (violation != null) {
+            if (!isNewEntity) {
+                entityManager.detach(entity);
+            }
+            throw new IllegalArgumentException("Invalid " + entityType + ": " + violation);
+        }
+
         E savedEntity;
         try {
             if (isNewEntity) {
@@ -204,6 +669,6 @@ public class EntityTypeHandler<E extends SyncableEntity<D>, D extends FirebaseSe
      * Résout les relations de l'entité
      */
     public void resolveRelations(E entity, D dto) {
-        relationResolver.resolveRelations(entity, dto);
+        batchRelationResolver.prepare(List.of(dto)).resolveRelations(entity, dto);
     }
 }
@@ -5,12 +5,17 @@ import com.google.cloud.firestore.*;
 import web.backend.project.entities.dto.FirebaseSerializable;
 
 import com.google.api.core.ApiFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Service pour gérer les opérations Firebase/Firestore
@@ -18,39 +23,171 @@ import java.util.concurrent.ExecutionException;
 @Service
 public class FirebaseSyncService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseSyncService.class);
+
+    // Champ portant la date de dernière modification d'un document
+    public static final String LAST_MODIFIED_FIELD = "last_modified";
+
+    // Clé ajoutée aux données pullées pour conserver l'ID du document Firestore
+    public static final String FIREBASE_DOC_ID_FIELD = "_firebase_doc_id";
+
+    // Limite imposée par Firestore pour un WriteBatch
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final Firestore firestore;
+    private final SyncMetrics metrics;
+
+    // Nombre de documents par WriteBatch (<= 500)
+    @Value("${sync.push.batch-size:500}")
+    private int batchSize;
 
-    public FirebaseSyncService(Firestore firestore) {
+    // Nombre de commits de batch en vol simultanément
+    @Value("${sync.push.concurrency:4}")
+    private int concurrency;
+
+    // Nombre de nouvelles tentatives pour les documents en échec
+    @Value("${sync.push.max-retries:3}")
+    private int maxRetries;
+
+    // Attente entre deux tentatives (multipliée par le numéro de tentative)
+    @Value("${sync.push.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    public FirebaseSyncService(Firestore firestore, SyncMetrics metrics) {
         this.firestore = firestore;
+        this.metrics = metrics;
     }
 
     /**
      * Pousse une liste de DTOs vers Firebase
+     * Retourne le nombre de documents écrits, lève une exception si certains
+     * documents restent en échec après les nouvelles tentatives
      */
     public <T extends FirebaseSerializable> int pushToFirebase(String collectionName, List<T> dtos) {
-        int pushed = 0;
+        PushReport report = pushBatched(collectionName, dtos);
+        if (report.hasFailures()) {
+            throw new RuntimeException("Failed to push " + report.getFailed().size() + " documents to Firebase: "
+                    + report.getFailed());
+        }
+        return report.getSucceeded().size();
+    }
+
+    /**
+     * Pousse une liste de DTOs vers Firebase par WriteBatch
+     * Les documents sont découpés en batchs de batchSize opérations, dont au plus
+     * concurrency sont commités en parallèle. Seuls les documents des batchs en
+     * échec sont retentés.
+     *
+     * @return Le rapport de succès/échec par document
+     */
+    public <T extends FirebaseSerializable> PushReport pushBatched(String collectionName, List<T> dtos) {
+        PushReport report = new PushReport();
         CollectionReference collection = firestore.collection(collectionName);
 
-        for (T dto : dtos) {
+        List<T> pending = new ArrayList<>();
+        for (int index = 0; index < dtos.size(); index++) {
+            T dto = dtos.get(index);
+            if (dto.getId() != null) {
+                pending.add(dto);
+            } else {
+                // Un ID auto-généré par Firestore (20 caractères alphanumériques) ne
+                // peut pas devenir l'id entier de l'entité : le document serait
+                // orphelin, et recréé à chaque nouvelle tentative
+                report.getFailed().put(PushReport.failureKey(index),
+                        "Document without id: Firestore generated ids are not integer ids");
+            }
+        }
+
+        int attempt = 0;
+        while (!pending.isEmpty()) {
+            Map<Integer, String> errors = new HashMap<>();
+            pending = commitInChunks(collection, pending, report, errors);
+
+            if (pending.isEmpty()) {
+                break;
+            }
+            if (attempt >= maxRetries) {
+                report.getFailed().putAll(errors);
+                break;
+            }
+
+            attempt++;
+            logger.warn("Retrying {} failed documents in {} (attempt {}/{})",
+                    pending.size(), collectionName, attempt, maxRetries);
             try {
-                Map<String, Object> data = convertDtoToMap(dto);
-
-                if (dto.getId() != null) {
-                    // Update ou création avec ID spécifique
-                    collection.document(dto.getId().toString()).set(data).get();
-                } else {
-                    // Création avec ID auto-généré
-                    DocumentReference docRef = collection.add(data).get();
-                    dto.setId(Integer.parseInt(docRef.getId()));
-                }
+                Thread.sleep(retryBackoffMs * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.forEach(report.getFailed()::put);
+                break;
+            }
+        }
+
+        logger.debug("Batched push to {}: {} succeeded, {} failed",
+                collectionName, report.getSucceeded().size(), report.getFailed().size());
+        return report;
+    }
+
+    /**
+     * Commit les DTOs par batchs avec un nombre borné de commits en vol
+     *
+     * @return Les DTOs des batchs en échec (à retenter)
+     */
+    private <T extends FirebaseSerializable> List<T> commitInChunks(CollectionReference collection,
+            List<T> dtos, PushReport report, Map<Integer, String> errors) {
+        int chunkSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        int maxInFlight = Math.max(1, concurrency);
+
+        List<T> failed = new ArrayList<>();
+        Deque<PendingBatch<T>> inFlight = new ArrayDeque<>();
+
+        for (int start = 0; start < dtos.size(); start += chunkSize) {
+            List<T> chunk = dtos.subList(start, Math.min(start + chunkSize, dtos.size()));
+
+            WriteBatch batch = firestore.batch();
+            for (T dto : chunk) {
+                batch.set(collection.document(dto.getId().toString()), convertDtoToMap(dto));
+            }
+            long commitStart = System.nanoTime();
+            ApiFuture<List<WriteResult>> commit = batch.commit();
+            String collectionName = collection.getId();
+            commit.addListener(
+                    () -> metrics.recordRpc(collectionName, "batch_commit", commitStart, succeeded(commit)),
+                    Runnable::run);
+            inFlight.addLast(new PendingBatch<>(chunk, commit));
 
-                pushed++;
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Failed to push to Firebase: " + e.getMessage(), e);
+            if (inFlight.size() >= maxInFlight) {
+                awaitBatch(inFlight.removeFirst(), report, failed, errors);
             }
         }
 
-        return pushed;
+        while (!inFlight.isEmpty()) {
+            awaitBatch(inFlight.removeFirst(), report, failed, errors);
+        }
+
+        return failed;
+    }
+
+    /**
+     * Attend la fin d'un commit et reporte le résultat pour chaque document
+     */
+    private <T extends FirebaseSerializable> void awaitBatch(PendingBatch<T> pendingBatch, PushReport report,
+            List<T> failed, Map<Integer, String> errors) {
+        try {
+            pendingBatch.future.get();
+            for (T dto : pendingBatch.dtos) {
+                report.getSucceeded().add(dto.getId());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            for (T dto : pendingBatch.dtos) {
+                failed.add(dto);
+                errors.put(dto.getId(), message);
+            }
+        }
     }
 
     /**
@@ -61,19 +198,10 @@ public class FirebaseSyncService {
         CollectionReference collection = firestore.collection(collectionName);
 
         try {
-            ApiFuture<QuerySnapshot> future = collection.get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+            List<QueryDocumentSnapshot> documents = await(collectionName, "query", collection::get).getDocuments();
 
             for (QueryDocumentSnapshot document : documents) {
-                Map<String, Object> data = document.getData();
-                // Stocker l'ID du document Firestore séparément
-                data.put("_firebase_doc_id", document.getId());
-                // Ne mettre l'ID Firestore dans "id" que si le document n'a pas déjà un id
-                // entier valide
-                if (!data.containsKey("id") || data.get("id") == null) {
-                    data.put("id", document.getId());
-                }
-                results.add(data);
+                results.add(toDataMap(document));
             }
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to pull from Firebase: " + e.getMessage(), e);
@@ -82,14 +210,147 @@ public class FirebaseSyncService {
         return results;
     }
 
+    /**
+     * Parcourt toute la collection page par page (curseur sur l'id du document)
+     * Chaque page est transmise au consommateur avant que la suivante soit lue :
+     * seule une page est en mémoire à la fois
+     */
+    public void streamFromFirebase(String collectionName, int pageSize,
+            Consumer<List<Map<String, Object>>> pageConsumer) {
+        streamFromFirebase(collectionName, null, pageSize, pageConsumer);
+    }
+
+    /**
+     * Parcourt la collection page par page à partir d'un id de document
+     * (reprise d'un parcours complet interrompu)
+     *
+     * @param afterDocumentId Dernier document déjà traité, null pour partir du début
+     */
+    public void streamFromFirebase(String collectionName, String afterDocumentId, int pageSize,
+            Consumer<List<Map<String, Object>>> pageConsumer) {
+        Query query = firestore.collection(collectionName).orderBy(FieldPath.documentId());
+        if (afterDocumentId != null) {
+            query = query.startAfter(afterDocumentId);
+        }
+        streamQuery(collectionName, query, pageSize, null, pageConsumer);
+    }
+
+    /**
+     * Parcourt page par page les documents modifiés depuis la marque haute
+     * (pull incrémental)
+     *
+     * Deux requêtes sont parcourues successivement :
+     * - les documents dont (last_modified, id document) est strictement après
+     * la marque, triés sur ce couple
+     * - les documents synchro == false (créés côté mobile sans last_modified),
+     * hors ceux déjà transmis par la première requête
+     *
+     * Le push-back d'une page réécrit last_modified : les documents déjà traités
+     * réapparaissent en fin de parcours et sont ignorés grâce à seenIds.
+     */
+    public void streamChangedSince(String collectionName, String lastModified, String lastDocumentId,
+            int pageSize, Consumer<List<Map<String, Object>>> pageConsumer) {
+        CollectionReference collection = firestore.collection(collectionName);
+        Set<String> seenIds = new HashSet<>();
+
+        Query changedQuery = collection
+                .orderBy(LAST_MODIFIED_FIELD)
+                .orderBy(FieldPath.documentId())
+                .startAfter(lastModified, lastDocumentId);
+        streamQuery(collectionName, changedQuery, pageSize, seenIds, pageConsumer);
+
+        Query unsyncedQuery = collection
+                .whereEqualTo("synchro", false)
+                .orderBy(FieldPath.documentId());
+        streamQuery(collectionName, unsyncedQuery, pageSize, seenIds, pageConsumer);
+    }
+
+    /**
+     * Exécute une requête par pages de pageSize documents, chaque page
+     * reprenant après le dernier document de la précédente (startAfter)
+     *
+     * @param seenIds IDs déjà transmis, ignorés puis complétés (peut être null)
+     */
+    private void streamQuery(String collectionName, Query query, int pageSize, Set<String> seenIds,
+            Consumer<List<Map<String, Object>>> pageConsumer) {
+        QueryDocumentSnapshot lastDocument = null;
+
+        try {
+            while (true) {
+                Query pageQuery = lastDocument == null ? query : query.startAfter(lastDocument);
+                List<QueryDocumentSnapshot> documents = await(collectionName, "query",
+                        () -> pageQuery.limit(pageSize).get()).getDocuments();
+                if (documents.isEmpty()) {
+                    break;
+                }
+
+                List<Map<String, Object>> page = new ArrayList<>(documents.size());
+                for (QueryDocumentSnapshot document : documents) {
+                    if (seenIds == null || seenIds.add(document.getId())) {
+                        page.add(toDataMap(document));
+                    }
+                }
+                lastDocument = documents.get(documents.size() - 1);
+
+                if (!page.isEmpty()) {
+                    pageConsumer.accept(page);
+                }
+                if (documents.size() < pageSize) {
+                    break;
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Failed to pull from Firebase: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lance un appel Firestore et attend son résultat, en mesurant sa latence
+     */
+    private <R> R await(String collectionName, String operation, Supplier<ApiFuture<R>> call)
+            throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            R result = call.get().get();
+            success = true;
+            return result;
+        } finally {
+            metrics.recordRpc(collectionName, operation, start, success);
+        }
+    }
+
+    private static boolean succeeded(ApiFuture<?> future) {
+        try {
+            future.get();
+            return true;
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Convertit un document Firestore en Map de données
+     */
+    Map<String, Object> toDataMap(DocumentSnapshot document) {
+        Map<String, Object> data = document.getData();
+        // Stocker l'ID du document Firestore séparément
+        data.put(FIREBASE_DOC_ID_FIELD, document.getId());
+        // Ne mettre l'ID Firestore dans "id" que si le document n'a pas déjà un id
+        // entier valide
+        if (!data.containsKey("id") || data.get("id") == null) {
+            data.put("id", document.getId());
+        }
+        return data;
+    }
+
     /**
      * Récupère un document spécifique depuis Firebase
      */
     public Optional<Map<String, Object>> getDocument(String collectionName, Integer id) {
         try {
             DocumentReference docRef = firestore.collection(collectionName).document(id.toString());
-            ApiFuture<DocumentSnapshot> future = docRef.get();
-            DocumentSnapshot document = future.get();
+            DocumentSnapshot document = await(collectionName, "get", docRef::get);
 
             if (document.exists()) {
                 Map<String, Object> data = document.getData();
@@ -104,12 +365,94 @@ public class FirebaseSyncService {
         }
     }
 
+    /**
+     * Récupère plusieurs documents en un seul appel (getAll)
+     * Les documents inexistants sont absents du résultat
+     */
+    public List<Map<String, Object>> getDocuments(String collectionName, Collection<String> documentIds) {
+        if (documentIds.isEmpty()) {
+            return List.of();
+        }
+        CollectionReference collection = firestore.collection(collectionName);
+        DocumentReference[] references = documentIds.stream()
+                .map(collection::document)
+                .toArray(DocumentReference[]::new);
+        try {
+            List<Map<String, Object>> documents = new ArrayList<>(references.length);
+            for (DocumentSnapshot snapshot : await(collectionName, "get_all", () -> firestore.getAll(references))) {
+                if (snapshot.exists()) {
+                    documents.add(toDataMap(snapshot));
+                }
+            }
+            return documents;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Failed to get documents from Firebase: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Supprime des documents de Firebase par WriteBatch (propagation des
+     * suppressions locales)
+     * Même découpage et même nombre de commits en vol que pushBatched ; les
+     * documents d'un batch en échec sont rapportés sans nouvelle tentative (la
+     * suppression reste en attente et sera reprise)
+     *
+     * @return Le rapport de succès/échec par document
+     */
+    public PushReport deleteBatched(String collectionName, List<Integer> ids) {
+        PushReport report = new PushReport();
+        CollectionReference collection = firestore.collection(collectionName);
+        int chunkSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        int maxInFlight = Math.max(1, concurrency);
+
+        Deque<Map.Entry<List<Integer>, ApiFuture<List<WriteResult>>>> inFlight = new ArrayDeque<>();
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Integer> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+
+            WriteBatch batch = firestore.batch();
+            for (Integer id : chunk) {
+                batch.delete(collection.document(id.toString()));
+            }
+            long commitStart = System.nanoTime();
+            ApiFuture<List<WriteResult>> commit = batch.commit();
+            commit.addListener(
+                    () -> metrics.recordRpc(collectionName, "batch_delete", commitStart, succeeded(commit)),
+                    Runnable::run);
+            inFlight.addLast(Map.entry(chunk, commit));
+
+            if (inFlight.size() >= maxInFlight) {
+                awaitDeletes(inFlight.removeFirst(), report);
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            awaitDeletes(inFlight.removeFirst(), report);
+        }
+
+        logger.debug("Batched delete in {}: {} succeeded, {} failed",
+                collectionName, report.getSucceeded().size(), report.getFailed().size());
+        return report;
+    }
+
+    private void awaitDeletes(Map.Entry<List<Integer>, ApiFuture<List<WriteResult>>> pending, PushReport report) {
+        try {
+            pending.getValue().get();
+            report.getSucceeded().addAll(pending.getKey());
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            pending.getKey().forEach(id -> report.getFailed().put(id, message));
+        }
+    }
+
     /**
      * Supprime un document de Firebase
      */
     public void deleteDocument(String collectionName, Integer id) {
         try {
-            firestore.collection(collectionName).document(id.toString()).delete().get();
+            DocumentReference docRef = firestore.collection(collectionName).document(id.toString());
+            await(collectionName, "delete", docRef::delete);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Failed to delete from Firebase: " + e.getMessage(), e);
         }
@@ -118,42 +461,78 @@ public class FirebaseSyncService {
     /**
      * Convertit un DTO en Map pour Firebase
      * Utilise la méthode toFirebaseMap() du DTO pour respecter les conventions de
-     * nommage
+     * nommage. La Map du DTO est propre à l'appel : les LocalDateTime éventuels
+     * y sont convertis en place, sans recopie
      */
     private <T extends FirebaseSerializable> Map<String, Object> convertDtoToMap(T dto) {
         Map<String, Object> map = dto.toFirebaseMap();
 
         // Convertir les LocalDateTime en timestamp Firebase
-        Map<String, Object> result = new HashMap<>();
         for (Map.Entry<String, Object> entry : map.entrySet()) {
-            Object value = entry.getValue();
-            if (value instanceof LocalDateTime) {
-                value = Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+            if (entry.getValue() instanceof LocalDateTime) {
+                entry.setValue(Date.from(((LocalDateTime) entry.getValue()).atZone(ZoneId.systemDefault())
+                        .toInstant()));
             }
-            result.put(entry.getKey(), value);
         }
 
-        return result;
+        return map;
     }
 
     /**
      * Compare les timestamps pour résoudre les conflits
      * Retourne true si le DTO Firebase est plus récent
+     * last_modified est accepté sous forme textuelle (écrite par les DTOs),
+     * Date ou Timestamp Firestore
      */
     public boolean isFirebaseNewer(Map<String, Object> firebaseData, LocalDateTime backendTimestamp) {
         if (firebaseData == null || backendTimestamp == null) {
             return false;
         }
 
-        Object lastModifiedObj = firebaseData.get("last_modified");
-        if (lastModifiedObj instanceof Date) {
-            Date firebaseDate = (Date) lastModifiedObj;
-            LocalDateTime firebaseTimestamp = firebaseDate.toInstant()
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDateTime();
-            return firebaseTimestamp.isAfter(backendTimestamp);
+        LocalDateTime firebaseTimestamp = FirebaseSerializable.extractLocalDateTime(firebaseData,
+                LAST_MODIFIED_FIELD);
+        return firebaseTimestamp != null && firebaseTimestamp.isAfter(backendTimestamp);
+    }
+
+    /**
+     * Batch en cours de commit
+     */
+    private static class PendingBatch<T> {
+        private final List<T> dtos;
+        private final ApiFuture<List<WriteResult>> future;
+
+        PendingBatch(List<T> dtos, ApiFuture<List<WriteResult>> future) {
+            this.dtos = dtos;
+            this.future = future;
         }
+    }
 
-        return false;
+    /**
+     * Résultat d'un push par document
+     * Les échecs sont indexés par id ; ceux des documents sans id (rejetés sans
+     * écriture) par une clé négative, failureKey(rang du document)
+     */
+    public static class PushReport {
+        private final List<Integer> succeeded = new ArrayList<>();
+        private final Map<Integer, String> failed = new LinkedHashMap<>();
+
+        /**
+         * Clé d'échec d'un document sans id (les ids en base sont positifs)
+         */
+        public static int failureKey(int index) {
+            return -(index + 1);
+        }
+
+        public List<Integer> getSucceeded() {
+            return succeeded;
+        }
+
+        public Map<Integer, String> getFailed() {
+            return failed;
+        }
+
+        public boolean hasFailures() {
+            return !failed.isEmpty();
+        }
     }
 }
@@ -0,0 +1,78 @@
+package web.backend.project.features.sync.services;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ChangeSource sur les snapshot listeners Firestore
+ *
+ * Deux listeners par collection, comme le pull incrémental :
+ * - documents après la marque haute, triés sur (last_modified, id document)
+ * - documents synchro == false (créés côté mobile, sans last_modified)
+ * Le premier snapshot livre l'état courant de chaque requête, les suivants
+ * uniquement les documents modifiés.
+ */
+@Component
+public class FirestoreChangeSource implements ChangeSource {
+
+    private final Firestore firestore;
+    private final FirebaseSyncService firebaseSyncService;
+
+    public FirestoreChangeSource(Firestore firestore, FirebaseSyncService firebaseSyncService) {
+        this.firestore = firestore;
+        this.firebaseSyncService = firebaseSyncService;
+    }
+
+    @Override
+    public Subscription subscribe(String collectionName, String resumeLastModified, String resumeDocumentId,
+            Consumer<List<Change>> listener, Consumer<Throwable> onError) {
+        CollectionReference collection = firestore.collection(collectionName);
+
+        Query changedQuery = resumeLastModified == null
+                ? collection
+                : collection
+                        .orderBy(FirebaseSyncService.LAST_MODIFIED_FIELD)
+                        .orderBy(FieldPath.documentId())
+                        .startAfter(resumeLastModified, resumeDocumentId);
+        Query unsyncedQuery = collection.whereEqualTo("synchro", false);
+
+        ListenerRegistration changed = listen(changedQuery, listener, onError);
+        ListenerRegistration unsynced = listen(unsyncedQuery, listener, onError);
+
+        return () -> {
+            changed.remove();
+            unsynced.remove();
+        };
+    }
+
+    private ListenerRegistration listen(Query query, Consumer<List<Change>> listener, Consumer<Throwable> onError) {
+        return query.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onError.accept(error);
+                return;
+            }
+            if (snapshot == null || snapshot.getDocumentChanges().isEmpty()) {
+                return;
+            }
+
+            List<Change> changes = new ArrayList<>(snapshot.getDocumentChanges().size());
+            for (DocumentChange documentChange : snapshot.getDocumentChanges()) {
+                Change.Type type = documentChange.getType() == DocumentChange.Type.REMOVED
+                        ? Change.Type.REMOVE
+                        : Change.Type.UPSERT;
+                changes.add(new Change(type, documentChange.getDocument().getId(),
+                        firebaseSyncService.toDataMap(documentChange.getDocument())));
+            }
+            listener.accept(changes);
+        });
+    }
+}
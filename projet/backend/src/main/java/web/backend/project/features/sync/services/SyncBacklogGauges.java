@@ -0,0 +1,109 @@
+package web.backend.project.features.sync.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import web.backend.project.repositories.SyncDeadLetterRepository;
+import web.backend.project.repositories.SyncOutboxRepository;
+import web.backend.project.repositories.SyncTombstoneRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jauges Micrometer des files d'attente de la synchronisation
+ *
+ * - sync.backlog : entités synchro = false, par type d'entité
+ * - sync.outbox.size : lignes d'outbox en attente
+ * - sync.dead_letters.size : documents rejetés, en attente de reprise
+ * - sync.tombstones.pending : suppressions locales pas encore propagées
+ *
+ * Les comptages sont rafraîchis en arrière-plan (sync.metrics.backlog-refresh-ms)
+ * : un scrape Prometheus lit la dernière valeur sans interroger la base.
+ */
+@Component
+public class SyncBacklogGauges {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncBacklogGauges.class);
+
+    private final MeterRegistry meterRegistry;
+    private final EntitySyncRegistry syncRegistry;
+    private final SyncOutboxRepository outboxRepository;
+    private final SyncDeadLetterRepository deadLetterRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, AtomicLong> backlogs = new ConcurrentHashMap<>();
+    private final AtomicLong outboxSize = new AtomicLong();
+    private final AtomicLong deadLetters = new AtomicLong();
+    private final AtomicLong pendingTombstones = new AtomicLong();
+
+    @Value("${sync.metrics.backlog-refresh-ms:30000}")
+    private long refreshIntervalMs;
+
+    public SyncBacklogGauges(MeterRegistry meterRegistry,
+            EntitySyncRegistry syncRegistry,
+            SyncOutboxRepository outboxRepository,
+            SyncDeadLetterRepository deadLetterRepository,
+            SyncTombstoneRepository tombstoneRepository) {
+        this.meterRegistry = meterRegistry;
+        this.syncRegistry = syncRegistry;
+        this.outboxRepository = outboxRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sync-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (String entityType : syncRegistry.getRegisteredTypes()) {
+            AtomicLong backlog = backlogs.computeIfAbsent(entityType, t -> new AtomicLong());
+            Gauge.builder("sync.backlog", backlog, AtomicLong::get)
+                    .description("Entités restant à pousser vers Firebase (synchro = false)")
+                    .tag("entity_type", entityType)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("sync.outbox.size", outboxSize, AtomicLong::get)
+                .description("Lignes d'outbox en attente")
+                .register(meterRegistry);
+        Gauge.builder("sync.dead_letters.size", deadLetters, AtomicLong::get)
+                .description("Documents Firebase rejetés en attente de reprise")
+                .register(meterRegistry);
+        Gauge.builder("sync.tombstones.pending", pendingTombstones, AtomicLong::get)
+                .description("Suppressions locales pas encore propagées vers Firebase")
+                .register(meterRegistry);
+
+        executor.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void refresh() {
+        try {
+            backlogs.forEach((entityType, backlog) -> backlog.set(syncRegistry.countUnsynced(entityType)));
+            outboxSize.set(outboxRepository.count());
+            deadLetters.set(deadLetterRepository.count());
+            pendingTombstones.set(tombstoneRepository.countPending());
+        } catch (Exception e) {
+            logger.warn("Failed to refresh sync backlog gauges: {}", e.getMessage());
+        }
+    }
+}
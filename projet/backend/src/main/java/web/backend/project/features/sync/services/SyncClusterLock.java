@@ -0,0 +1,204 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verrou de synchronisation entre instances du backend
+ *
+ * Bail par type d'entité dans la table sync_locks : une ligne (type,
+ * propriétaire, expiration), prise par INSERT ... ON CONFLICT si elle n'existe
+ * pas ou a expiré. Chaque opération emprunte une connexion du pool le temps
+ * d'une requête : aucune connexion n'est gardée pendant le run. Les baux
+ * détenus sont prolongés toutes les ttl/3 ; si l'instance meurt, son bail
+ * expire après ttl-ms et le type redevient disponible.
+ *
+ * Un bail repris par une autre instance, ou resté sans prolongation réussie
+ * au-delà de ttl-ms, est perdu : le run qui le détient s'arrête à la page
+ * suivante (Lease.ensureHeld).
+ */
+@Component
+public class SyncClusterLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncClusterLock.class);
+
+    private static final String ACQUIRE_SQL = "INSERT INTO sync_locks(entity_type, owner, acquired_at, expires_at) "
+            + "VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond') "
+            + "ON CONFLICT (entity_type) DO UPDATE SET owner = EXCLUDED.owner, "
+            + "acquired_at = EXCLUDED.acquired_at, expires_at = EXCLUDED.expires_at "
+            + "WHERE sync_locks.expires_at < CURRENT_TIMESTAMP";
+    private static final String RENEW_SQL = "UPDATE sync_locks "
+            + "SET expires_at = CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond' "
+            + "WHERE entity_type = ? AND owner = ?";
+    private static final String RELEASE_SQL = "DELETE FROM sync_locks WHERE entity_type = ? AND owner = ?";
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final long ttlMs;
+
+    // Baux détenus par cette instance : type → bail
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewal;
+
+    public SyncClusterLock(DataSource dataSource,
+            @Value("${sync.lock.enabled:true}") boolean enabled,
+            @Value("${sync.lock.ttl-ms:60000}") long ttlMs) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.renewal = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sync-lock-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long interval = Math.max(1, ttlMs / 3);
+            renewal.scheduleWithFixedDelay(this::renewAll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Tente de prendre le bail d'un type sans attendre
+     *
+     * @return Le bail à fermer en fin de run, vide si une autre instance
+     *         synchronise déjà ce type
+     */
+    public Optional<Lease> tryAcquire(String entityType) {
+        if (!enabled) {
+            return Optional.of(new Lease(entityType, null));
+        }
+
+        String owner = UUID.randomUUID().toString();
+        long requestedAt = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(ACQUIRE_SQL)) {
+            statement.setString(1, entityType);
+            statement.setString(2, owner);
+            statement.setLong(3, ttlMs);
+            if (statement.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to acquire sync lock for " + entityType, e);
+        }
+
+        Lease lease = new Lease(entityType, owner);
+        lease.extendFrom(requestedAt);
+        held.put(entityType, lease);
+        return Optional.of(lease);
+    }
+
+    private void release(Lease lease) {
+        held.remove(lease.entityType, lease);
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(RELEASE_SQL)) {
+            statement.setString(1, lease.entityType);
+            statement.setString(2, lease.owner);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            // Le bail expirera de lui-même après ttl-ms
+            logger.warn("Failed to release sync lock for {}: {}", lease.entityType, e.getMessage());
+        }
+    }
+
+    /**
+     * Prolonge les baux détenus ; un bail qui n'est plus à cette instance (repris
+     * après expiration) est oublié
+     */
+    void renewAll() {
+        for (Lease lease : held.values()) {
+            long requestedAt = System.nanoTime();
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement = connection.prepareStatement(RENEW_SQL)) {
+                statement.setLong(1, ttlMs);
+                statement.setString(2, lease.entityType);
+                statement.setString(3, lease.owner);
+                if (statement.executeUpdate() > 0) {
+                    lease.extendFrom(requestedAt);
+                } else if (held.remove(lease.entityType, lease)) {
+                    logger.warn("Sync lock for {} expired and was taken over by another instance",
+                            lease.entityType);
+                }
+            } catch (SQLException e) {
+                // Le bail reste valable jusqu'à sa dernière échéance connue
+                logger.warn("Failed to renew sync lock for {}: {}", lease.entityType, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewal.shutdownNow();
+        held.values().forEach(this::release);
+    }
+
+    /**
+     * Bail détenu, libéré par close()
+     */
+    public final class Lease implements AutoCloseable {
+        private final String entityType;
+        // null si le verrou est désactivé : le bail est alors toujours détenu
+        private final String owner;
+        // Échéance locale (System.nanoTime), comptée depuis l'envoi de la
+        // dernière prise ou prolongation réussie : jamais après celle de la base
+        private volatile long expiresAt;
+
+        private Lease(String entityType, String owner) {
+            this.entityType = entityType;
+            this.owner = owner;
+        }
+
+        private void extendFrom(long requestedAt) {
+            expiresAt = requestedAt + TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        }
+
+        /**
+         * Le bail est encore à cette instance : ni repris, ni expiré faute de
+         * prolongation
+         */
+        public boolean isHeld() {
+            return owner == null || (held.get(entityType) == this && System.nanoTime() - expiresAt < 0);
+        }
+
+        /**
+         * @throws LeaseLostException si le bail n'est plus détenu
+         */
+        public void ensureHeld() {
+            if (!isHeld()) {
+                throw new LeaseLostException(entityType);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (owner != null) {
+                release(this);
+            }
+        }
+    }
+
+    /**
+     * Bail perdu en cours de run : une autre instance peut synchroniser le type
+     */
+    public static class LeaseLostException extends IllegalStateException {
+        public LeaseLostException(String entityType) {
+            super("Sync lock for " + entityType + " was lost, run stopped");
+        }
+    }
+}
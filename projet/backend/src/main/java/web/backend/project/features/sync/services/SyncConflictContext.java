@@ -0,0 +1,102 @@
+package web.backend.project.features.sync.services;
+
+import web.backend.project.entities.SyncConflict;
+import web.backend.project.entities.dto.FirebaseSerializable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Contexte de détection des conflits pour une page de documents pullés
+ *
+ * Les empreintes connues et les dates de modification locales ne sont
+ * chargées (une requête chacune pour toute la page) qu'au premier document
+ * dont l'entité locale porte une modification non poussée. Les conflits
+ * détectés sont accumulés puis enregistrés par SyncConflictService.
+ */
+public class SyncConflictContext {
+
+    /** Aucune détection : le document Firebase est toujours appliqué */
+    public static final SyncConflictContext NONE = new SyncConflictContext(null, null, null, null);
+
+    private final String entityType;
+    private final Supplier<Map<Integer, String>> fingerprintLoader;
+    private final Supplier<Map<Integer, LocalDateTime>> versionLoader;
+    private final FirebaseSyncService firebaseSyncService;
+
+    private final List<SyncConflict> conflicts = new ArrayList<>();
+    private Map<Integer, String> knownFingerprints;
+    private Map<Integer, LocalDateTime> localVersions;
+
+    SyncConflictContext(String entityType,
+            Supplier<Map<Integer, String>> fingerprintLoader,
+            Supplier<Map<Integer, LocalDateTime>> versionLoader,
+            FirebaseSyncService firebaseSyncService) {
+        this.entityType = entityType;
+        this.fingerprintLoader = fingerprintLoader;
+        this.versionLoader = versionLoader;
+        this.firebaseSyncService = firebaseSyncService;
+    }
+
+    public boolean isEnabled() {
+        return this != NONE;
+    }
+
+    /**
+     * Le document a-t-il changé dans Firebase depuis le dernier échange ?
+     * Sans empreinte connue, le document est considéré comme modifié
+     */
+    public boolean remoteChanged(FirebaseSerializable remote) {
+        if (knownFingerprints == null) {
+            knownFingerprints = fingerprintLoader.get();
+        }
+        String known = knownFingerprints.get(remote.getId());
+        return known == null || !known.equals(SyncFingerprintService.fingerprint(remote));
+    }
+
+    /**
+     * Date de la dernière modification locale d'une entité (null si inconnue)
+     */
+    public LocalDateTime localModifiedAt(Integer id) {
+        if (localVersions == null) {
+            localVersions = versionLoader.get();
+        }
+        return localVersions.get(id);
+    }
+
+    /**
+     * Le document Firebase est-il plus récent que la modification locale ?
+     * Une date locale inconnue laisse gagner Firebase
+     */
+    public boolean isRemoteNewer(Integer id, Map<String, Object> remoteData) {
+        LocalDateTime localModifiedAt = localModifiedAt(id);
+        return localModifiedAt == null || firebaseSyncService.isFirebaseNewer(remoteData, localModifiedAt);
+    }
+
+    /**
+     * Enregistre un conflit résolu
+     */
+    public void record(Integer id, ConflictPolicy policy, ConflictPolicy.Resolution resolution,
+            Map<String, Object> remoteData) {
+        SyncConflict conflict = new SyncConflict();
+        conflict.setEntityType(entityType);
+        conflict.setEntityId(id);
+        conflict.setPolicy(policy.name());
+        conflict.setResolution(resolution.name());
+        conflict.setLocalModifiedAt(localModifiedAt(id));
+        conflict.setRemoteModifiedAt(FirebaseSerializable.extractLocalDateTime(remoteData,
+                FirebaseSyncService.LAST_MODIFIED_FIELD));
+        conflicts.add(conflict);
+    }
+
+    int conflictCount() {
+        return conflicts.size();
+    }
+
+    List<SyncConflict> getConflicts() {
+        return conflicts;
+    }
+}
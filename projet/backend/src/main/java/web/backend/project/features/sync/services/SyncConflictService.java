@@ -0,0 +1,100 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import web.backend.project.entities.SyncConflict;
+import web.backend.project.entities.dto.FirebaseSerializable;
+import web.backend.project.repositories.SyncConflictRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Détection et journal des conflits de synchronisation
+ *
+ * Un document pullé est en conflit quand l'entité locale porte une
+ * modification non poussée (synchro = false) et que son contenu Firebase
+ * diffère de la dernière empreinte échangée. La résolution dépend de la
+ * ConflictPolicy du type (EntityTypeHandler) ; chaque conflit est conservé
+ * dans sync_conflicts.
+ */
+@Service
+public class SyncConflictService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncConflictService.class);
+
+    private final SyncConflictRepository conflictRepository;
+    private final SyncFingerprintService fingerprintService;
+    private final FirebaseSyncService firebaseSyncService;
+
+    public SyncConflictService(SyncConflictRepository conflictRepository,
+            SyncFingerprintService fingerprintService,
+            FirebaseSyncService firebaseSyncService) {
+        this.conflictRepository = conflictRepository;
+        this.fingerprintService = fingerprintService;
+        this.firebaseSyncService = firebaseSyncService;
+    }
+
+    /**
+     * Ouvre le contexte de détection d'une page de documents Firebase
+     * Empreintes et dates locales ne sont chargées qu'au premier besoin
+     */
+    public SyncConflictContext open(String entityType, List<Map<String, Object>> page) {
+        List<Integer> ids = page.stream()
+                .map(data -> FirebaseSerializable.extractInteger(data, "id"))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return SyncConflictContext.NONE;
+        }
+
+        return new SyncConflictContext(entityType,
+                () -> fingerprintService.findFingerprints(entityType, ids),
+                () -> findLocalVersions(entityType, ids),
+                firebaseSyncService);
+    }
+
+    /**
+     * Enregistre les conflits détectés sur la page (transaction de la page)
+     *
+     * @return Nombre de conflits
+     */
+    public int save(SyncConflictContext context) {
+        if (!context.isEnabled() || context.getConflicts().isEmpty()) {
+            return 0;
+        }
+        conflictRepository.saveAll(context.getConflicts());
+        logger.info("{} sync conflicts resolved", context.getConflicts().size());
+        return context.getConflicts().size();
+    }
+
+    /**
+     * Derniers conflits enregistrés, d'un type ou de tous (entityType null)
+     */
+    public List<SyncConflict> find(String entityType, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, limit));
+        return entityType != null
+                ? conflictRepository.findByEntityTypeOrderByIdDesc(entityType, page)
+                : conflictRepository.findAllByOrderByIdDesc(page);
+    }
+
+    private Map<Integer, LocalDateTime> findLocalVersions(String entityType, List<Integer> ids) {
+        Map<Integer, LocalDateTime> versions = new HashMap<>();
+        for (Object[] row : conflictRepository.findLocalVersions(entityType, ids)) {
+            Object modifiedAt = row[1];
+            versions.put(((Number) row[0]).intValue(), modifiedAt instanceof Timestamp
+                    ? ((Timestamp) modifiedAt).toLocalDateTime()
+                    : (LocalDateTime) modifiedAt);
+        }
+        return versions;
+    }
+}
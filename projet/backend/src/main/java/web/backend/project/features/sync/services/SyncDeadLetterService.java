@@ -0,0 +1,90 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import web.backend.project.entities.SyncDeadLetter;
+import web.backend.project.repositories.SyncDeadLetterRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * File des documents Firebase rejetés par la synchronisation
+ * Chaque échec est enregistré avec sa raison (dans la transaction de la page) ;
+ * un document intégré plus tard, par un pull ou une reprise, quitte la file.
+ */
+@Service
+public class SyncDeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncDeadLetterService.class);
+
+    private final SyncDeadLetterRepository deadLetterRepository;
+
+    public SyncDeadLetterService(SyncDeadLetterRepository deadLetterRepository) {
+        this.deadLetterRepository = deadLetterRepository;
+    }
+
+    /**
+     * ID du document Firestore d'une donnée pullée
+     */
+    public static String documentId(Map<String, Object> data) {
+        Object documentId = data.get(FirebaseSyncService.FIREBASE_DOC_ID_FIELD);
+        if (documentId == null) {
+            documentId = data.get("id");
+        }
+        return documentId != null ? documentId.toString() : null;
+    }
+
+    /**
+     * Enregistre le rejet d'un document
+     */
+    public void record(String entityType, Map<String, Object> data, Exception error) {
+        String documentId = documentId(data);
+        if (documentId == null) {
+            logger.warn("Rejected {} document has no id, not recorded: {}", entityType, error.getMessage());
+            return;
+        }
+        String reason = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        deadLetterRepository.upsert(entityType, documentId, reason);
+    }
+
+    /**
+     * Retire de la file les documents intégrés
+     */
+    public void resolve(String entityType, Collection<Map<String, Object>> integrated) {
+        List<String> documentIds = integrated.stream()
+                .map(SyncDeadLetterService::documentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (!documentIds.isEmpty()) {
+            deadLetterRepository.deleteByDocumentIds(entityType, documentIds);
+        }
+    }
+
+    /**
+     * Retire des documents de la file par ID (documents supprimés de Firebase)
+     */
+    public void discard(String entityType, Collection<String> documentIds) {
+        if (!documentIds.isEmpty()) {
+            deadLetterRepository.deleteByDocumentIds(entityType, documentIds);
+        }
+    }
+
+    /**
+     * Documents rejetés, les plus anciens d'abord
+     *
+     * @param entityType Type d'entité (null : tous les types)
+     */
+    public List<SyncDeadLetter> find(String entityType, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, limit));
+        return entityType != null
+                ? deadLetterRepository.findByEntityTypeOrderByIdAsc(entityType, page)
+                : deadLetterRepository.findAllByOrderByIdAsc(page);
+    }
+}
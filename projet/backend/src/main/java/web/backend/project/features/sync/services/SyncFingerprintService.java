@@ -0,0 +1,211 @@
+package web.backend.project.features.sync.services;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.GeoPoint;
+import org.springframework.stereotype.Service;
+
+import web.backend.project.entities.SyncFingerprint;
+import web.backend.project.entities.dto.FirebaseSerializable;
+import web.backend.project.repositories.SyncFingerprintRepository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Empreintes de contenu des documents Firebase
+ * Permet de ne pas réécrire un document dont le contenu est identique à celui
+ * que Firestore détient déjà (push-back après pull, push des entités
+ * modifiées)
+ */
+@Service
+public class SyncFingerprintService {
+
+    // Métadonnées de synchronisation, exclues de l'empreinte : elles changent à
+    // chaque écriture sans que le contenu du document change
+    private static final Set<String> EXCLUDED_FIELDS = Set.of(
+            "synchro",
+            FirebaseSyncService.LAST_MODIFIED_FIELD,
+            FirebaseSyncService.FIREBASE_DOC_ID_FIELD);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final SyncFingerprintRepository fingerprintRepository;
+
+    public SyncFingerprintService(SyncFingerprintRepository fingerprintRepository) {
+        this.fingerprintRepository = fingerprintRepository;
+    }
+
+    /**
+     * Empreinte d'un DTO : SHA-256 de sa représentation Firebase canonique
+     */
+    public static String fingerprint(FirebaseSerializable dto) {
+        return fingerprint(dto.toFirebaseMap());
+    }
+
+    /**
+     * Empreinte d'une Map Firebase
+     * Les clés sont triées et les valeurs normalisées (nombres, dates, GeoPoint)
+     * pour que deux contenus égaux donnent la même empreinte quel que soit le
+     * type Java qui les porte
+     */
+    public static String fingerprint(Map<String, Object> firebaseMap) {
+        StringBuilder canonical = new StringBuilder();
+        appendMap(canonical, firebaseMap, true);
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Empreintes enregistrées pour une page de documents (une requête)
+     *
+     * @return id du document → empreinte, pour les documents connus
+     */
+    public Map<Integer, String> findFingerprints(String collectionName, Collection<Integer> ids) {
+        List<String> documentIds = ids.stream()
+                .filter(id -> id != null)
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+        if (documentIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Integer, String> fingerprints = new HashMap<>();
+        for (SyncFingerprint fingerprint : fingerprintRepository
+                .findByCollectionNameAndDocumentIdIn(collectionName, documentIds)) {
+            fingerprints.put(Integer.valueOf(fingerprint.getDocumentId()), fingerprint.getContentHash());
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Enregistre les empreintes du contenu désormais détenu par Firestore
+     * Une requête pour les empreintes existantes, puis insertions/mises à jour
+     * groupées
+     */
+    public void save(String collectionName, Map<Integer, String> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> byDocumentId = new HashMap<>();
+        fingerprints.forEach((id, hash) -> byDocumentId.put(String.valueOf(id), hash));
+
+        List<SyncFingerprint> toSave = new ArrayList<>(byDocumentId.size());
+        for (SyncFingerprint existing : fingerprintRepository
+                .findByCollectionNameAndDocumentIdIn(collectionName, byDocumentId.keySet())) {
+            String hash = byDocumentId.remove(existing.getDocumentId());
+            if (!hash.equals(existing.getContentHash())) {
+                existing.setContentHash(hash);
+                existing.setUpdatedAt(LocalDateTime.now());
+                toSave.add(existing);
+            }
+        }
+        byDocumentId.forEach((documentId, hash) -> toSave
+                .add(new SyncFingerprint(collectionName, documentId, hash)));
+
+        fingerprintRepository.saveAll(toSave);
+    }
+
+    /**
+     * Oublie les empreintes de documents supprimés de Firestore
+     */
+    public void forget(String collectionName, Collection<Integer> ids) {
+        List<String> documentIds = ids.stream().map(String::valueOf).collect(Collectors.toList());
+        if (!documentIds.isEmpty()) {
+            fingerprintRepository.deleteByDocumentIds(collectionName, documentIds);
+        }
+    }
+
+    // ========== Forme canonique ==========
+
+    private static void appendMap(StringBuilder out, Map<?, ?> map, boolean topLevel) {
+        // TreeMap : ordre des clés indépendant de l'implémentation de la Map
+        Map<String, Object> sorted = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (!topLevel || !EXCLUDED_FIELDS.contains(key)) {
+                sorted.put(key, entry.getValue());
+            }
+        }
+
+        out.append('{');
+        for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+            appendString(out, entry.getKey());
+            out.append(':');
+            appendValue(out, entry.getValue());
+            out.append(',');
+        }
+        out.append('}');
+    }
+
+    private static void appendValue(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Number) {
+            appendNumber(out, (Number) value);
+        } else if (value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof GeoPoint) {
+            GeoPoint geoPoint = (GeoPoint) value;
+            out.append("geo(");
+            appendNumber(out, geoPoint.getLatitude());
+            out.append(',');
+            appendNumber(out, geoPoint.getLongitude());
+            out.append(')');
+        } else if (value instanceof Timestamp) {
+            out.append("ts(").append(((Timestamp) value).toDate().getTime()).append(')');
+        } else if (value instanceof Date) {
+            out.append("ts(").append(((Date) value).getTime()).append(')');
+        } else if (value instanceof Map) {
+            appendMap(out, (Map<?, ?>) value, false);
+        } else if (value instanceof Collection) {
+            out.append('[');
+            for (Object item : (Collection<?>) value) {
+                appendValue(out, item);
+                out.append(',');
+            }
+            out.append(']');
+        } else {
+            appendString(out, value.toString());
+        }
+    }
+
+    /**
+     * 12, 12L et 12.0 ont la même forme (Firestore renvoie des Long/Double)
+     */
+    private static void appendNumber(StringBuilder out, Number number) {
+        if ((number instanceof Double && !Double.isFinite(number.doubleValue()))
+                || (number instanceof Float && !Float.isFinite(number.floatValue()))) {
+            out.append(number);
+            return;
+        }
+        out.append(new BigDecimal(number.toString()).stripTrailingZeros().toPlainString());
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+    }
+}
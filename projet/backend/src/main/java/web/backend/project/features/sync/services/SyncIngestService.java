@@ -0,0 +1,324 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import web.backend.project.entities.SyncWatermark;
+import web.backend.project.features.sync.dto.SyncRequest;
+import web.backend.project.features.sync.dto.SyncResponse;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mode ingest : intégration en continu des changements Firestore
+ *
+ * Un abonnement ChangeSource par collection enregistrée, repris à la marque
+ * haute du pull incrémental. Une collection sans marque haute est d'abord
+ * tirée par un pull complet (page par page) : l'abonnement part de la marque
+ * obtenue plutôt que de charger toute la collection dans la vue du listener.
+ * Cette vue grossit avec les documents modifiés : après
+ * resubscribe-after-documents changements reçus, l'abonnement est refait à
+ * partir de la marque haute courante. Les changements reçus sont regroupés par
+ * collection (la dernière version d'un document remplace la précédente) puis
+ * intégrés par micro-lots, collection après collection dans l'ordre des
+ * dépendances, via SyncService.ingest (même traitement qu'une page de pull).
+ *
+ * Activé par sync.ingest.enabled=true
+ */
+@Service
+@ConditionalOnProperty(name = "sync.ingest.enabled", havingValue = "true")
+public class SyncIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncIngestService.class);
+
+    private final ChangeSource changeSource;
+    private final SyncService syncService;
+    private final EntitySyncRegistry syncRegistry;
+    private final SyncScheduler syncScheduler;
+    private final SyncWatermarkService watermarkService;
+    private final ScheduledExecutorService executor;
+
+    // Documents en attente par collection, indexés par id de document
+    private final Map<String, Map<String, PendingDocument>> buffers = new ConcurrentHashMap<>();
+    private final Map<String, ChangeSource.Subscription> subscriptions = new ConcurrentHashMap<>();
+    // Changements reçus par l'abonnement courant, et marque haute de départ
+    private final Map<String, AtomicInteger> receivedCounts = new ConcurrentHashMap<>();
+    private final Map<String, Optional<SyncWatermark>> subscribedFrom = new ConcurrentHashMap<>();
+    private final Set<String> resubscribing = ConcurrentHashMap.newKeySet();
+    private volatile List<String> order = List.of();
+
+    // Intervalle entre deux intégrations de micro-lots
+    @Value("${sync.ingest.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    // Taille maximale d'un micro-lot (une transaction)
+    @Value("${sync.ingest.max-batch-size:200}")
+    private int maxBatchSize;
+
+    // Nombre de tentatives pour un document en échec (relation pas encore arrivée, ...)
+    @Value("${sync.ingest.max-attempts:3}")
+    private int maxAttempts;
+
+    // Attente avant de se réabonner après une interruption d'un listener
+    @Value("${sync.ingest.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    // Changements reçus par un abonnement avant de le refaire depuis la marque haute
+    @Value("${sync.ingest.resubscribe-after-documents:10000}")
+    private int resubscribeAfterDocuments;
+
+    public SyncIngestService(ChangeSource changeSource,
+            SyncService syncService,
+            EntitySyncRegistry syncRegistry,
+            SyncScheduler syncScheduler,
+            SyncWatermarkService watermarkService) {
+        this.changeSource = changeSource;
+        this.syncService = syncService;
+        this.syncRegistry = syncRegistry;
+        this.syncScheduler = syncScheduler;
+        this.watermarkService = watermarkService;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sync-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Démarre les abonnements une fois les handlers enregistrés
+     * Les pulls initiaux et les abonnements se font sur le thread d'ingest, dans
+     * l'ordre des dépendances, sans bloquer le démarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        order = syncScheduler.dependencyOrder(syncRegistry.getRegisteredTypes());
+        for (String entityType : order) {
+            buffers.put(entityType, new LinkedHashMap<>());
+        }
+        executor.execute(() -> order.forEach(this::subscribe));
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Firestore ingest mode started for {}", order);
+    }
+
+    /**
+     * S'abonne à une collection à partir de sa marque haute courante (après un
+     * pull complet si elle n'en a pas)
+     */
+    private void subscribe(String entityType) {
+        try {
+            Optional<SyncWatermark> watermark = watermarkService.find(entityType);
+            if (watermark.isEmpty()) {
+                watermark = pullCollection(entityType);
+            }
+            Optional<SyncWatermark> from = watermark;
+            receivedCounts.put(entityType, new AtomicInteger());
+            subscribedFrom.put(entityType, from);
+            ChangeSource.Subscription subscription = changeSource.subscribe(entityType,
+                    from.map(SyncWatermark::getLastModified).orElse(null),
+                    from.map(SyncWatermark::getLastDocumentId).orElse(null),
+                    changes -> enqueue(entityType, changes),
+                    error -> onSubscriptionError(entityType, error));
+            subscriptions.put(entityType, subscription);
+            logger.info("Listening to {} from {}", entityType,
+                    watermark.map(w -> "(" + w.getLastModified() + ", " + w.getLastDocumentId() + ")")
+                            .orElse("the beginning"));
+        } catch (Exception e) {
+            onSubscriptionError(entityType, e);
+        }
+    }
+
+    /**
+     * Pull complet d'une collection sans marque haute, en streaming page par page
+     * Sans marque haute à l'issue (collection vide), l'abonnement porte sur toute
+     * la collection et sera refait dès que la marque existe.
+     *
+     * @return La marque haute laissée par le pull
+     * @throws IllegalStateException si le pull a échoué ou a été écarté (type en
+     *                               cours de synchronisation ailleurs)
+     */
+    private Optional<SyncWatermark> pullCollection(String entityType) {
+        logger.info("No watermark for {}, pulling the collection before listening", entityType);
+        SyncResponse response = syncService.synchronize(
+                new SyncRequest(List.of(entityType), SyncRequest.SyncDirection.PULL));
+        Optional<SyncWatermark> watermark = watermarkService.find(entityType);
+        boolean failed = !Boolean.TRUE.equals(response.getSuccess())
+                || (response.getErrors() != null && !response.getErrors().isEmpty());
+        if (failed && watermark.isEmpty()) {
+            throw new IllegalStateException("Initial pull of " + entityType + " failed: "
+                    + (response.getErrors() != null && !response.getErrors().isEmpty()
+                            ? response.getErrors()
+                            : response.getMessage()));
+        }
+        return watermark;
+    }
+
+    /**
+     * Refait l'abonnement d'une collection à partir de la marque haute courante,
+     * après intégration des documents en attente (la vue du listener repart de
+     * cette marque)
+     * Sans avancée de la marque depuis l'abonnement, celui-ci est conservé.
+     */
+    private void resubscribe(String entityType) {
+        try {
+            flush();
+            Optional<SyncWatermark> current = watermarkService.find(entityType);
+            if (sameWatermark(current, subscribedFrom.getOrDefault(entityType, Optional.empty()))) {
+                receivedCounts.put(entityType, new AtomicInteger());
+                return;
+            }
+            ChangeSource.Subscription subscription = subscriptions.remove(entityType);
+            if (subscription != null) {
+                subscription.close();
+            }
+            logger.info("Resubscribing to {} to narrow its listener", entityType);
+            subscribe(entityType);
+        } finally {
+            resubscribing.remove(entityType);
+        }
+    }
+
+    private static boolean sameWatermark(Optional<SyncWatermark> a, Optional<SyncWatermark> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return a.isEmpty() && b.isEmpty();
+        }
+        return Objects.equals(a.get().getLastModified(), b.get().getLastModified())
+                && Objects.equals(a.get().getLastDocumentId(), b.get().getLastDocumentId());
+    }
+
+    private void onSubscriptionError(String entityType, Throwable error) {
+        logger.error("Ingest listener for {} interrupted, resubscribing in {} ms: {}",
+                entityType, reconnectDelayMs, error.getMessage());
+        ChangeSource.Subscription subscription = subscriptions.remove(entityType);
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (!executor.isShutdown()) {
+            executor.schedule(() -> subscribe(entityType), reconnectDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Met en attente les changements reçus (appelé par le thread du listener)
+     */
+    private void enqueue(String entityType, List<ChangeSource.Change> changes) {
+        Map<String, PendingDocument> buffer = buffers.get(entityType);
+        int size;
+        synchronized (buffer) {
+            for (ChangeSource.Change change : changes) {
+                if (change.getType() == ChangeSource.Change.Type.UPSERT) {
+                    buffer.put(change.getDocumentId(), new PendingDocument(change.getData(), 0));
+                }
+            }
+            size = buffer.size();
+        }
+        if (size >= maxBatchSize && !executor.isShutdown()) {
+            executor.execute(this::flush);
+        }
+
+        AtomicInteger received = receivedCounts.get(entityType);
+        if (received != null && received.addAndGet(changes.size()) >= resubscribeAfterDocuments
+                && resubscribing.add(entityType) && !executor.isShutdown()) {
+            executor.execute(() -> resubscribe(entityType));
+        }
+    }
+
+    /**
+     * Intègre les documents en attente, collection après collection dans l'ordre
+     * des dépendances, par micro-lots de maxBatchSize documents
+     * Les documents remis en attente pendant le passage sont traités au suivant
+     */
+    void flush() {
+        for (String entityType : order) {
+            Map<String, PendingDocument> buffer = buffers.get(entityType);
+            List<PendingDocument> pending = drain(buffer);
+            for (int from = 0; from < pending.size(); from += maxBatchSize) {
+                ingestBatch(entityType, buffer, pending.subList(from, Math.min(from + maxBatchSize, pending.size())));
+            }
+        }
+    }
+
+    private List<PendingDocument> drain(Map<String, PendingDocument> buffer) {
+        synchronized (buffer) {
+            List<PendingDocument> pending = new ArrayList<>(buffer.values());
+            buffer.clear();
+            return pending;
+        }
+    }
+
+    private void ingestBatch(String entityType, Map<String, PendingDocument> buffer, List<PendingDocument> batch) {
+        List<Map<String, Object>> documents = new ArrayList<>(batch.size());
+        Map<Map<String, Object>, PendingDocument> byData = new IdentityHashMap<>();
+        for (PendingDocument pending : batch) {
+            documents.add(pending.data);
+            byData.put(pending.data, pending);
+        }
+
+        List<Map<String, Object>> failed;
+        try {
+            failed = syncService.ingest(entityType, documents);
+        } catch (Exception e) {
+            logger.error("Ingest of {} documents of type {} failed: {}", documents.size(), entityType,
+                    e.getMessage());
+            failed = documents;
+        }
+
+        // Les documents en échec sont retentés au prochain passage (leur relation
+        // peut arriver entre-temps), sauf si une version plus récente est arrivée
+        for (Map<String, Object> data : failed) {
+            PendingDocument pending = byData.get(data);
+            if (pending == null) {
+                continue;
+            }
+            if (pending.attempts + 1 < maxAttempts) {
+                synchronized (buffer) {
+                    buffer.putIfAbsent(documentIdOf(data), new PendingDocument(data, pending.attempts + 1));
+                }
+            } else {
+                logger.error("Giving up ingest of {} document {} after {} attempts", entityType,
+                        documentIdOf(data), maxAttempts);
+            }
+        }
+    }
+
+    private static String documentIdOf(Map<String, Object> data) {
+        return String.valueOf(data.get(FirebaseSyncService.FIREBASE_DOC_ID_FIELD));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        subscriptions.values().forEach(ChangeSource.Subscription::close);
+        subscriptions.clear();
+    }
+
+    /**
+     * Document en attente d'intégration
+     */
+    private static class PendingDocument {
+        private final Map<String, Object> data;
+        private final int attempts;
+
+        PendingDocument(Map<String, Object> data, int attempts) {
+            this.data = data;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import web.backend.project.features.sync.dto.SyncJobResponse;
+import web.backend.project.features.sync.dto.SyncRequest;
+import web.backend.project.features.sync.dto.SyncResponse;
+import web.backend.project.features.sync.dto.SyncResponse.EntitySyncResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécution asynchrone des synchronisations
+ *
+ * Chaque demande devient un job exécuté sur un pool borné dédié (file
+ * d'attente limitée) : le thread HTTP est libéré immédiatement et l'avancement
+ * se consulte par polling ou via un flux SSE. Une file pleine est signalée par
+ * une RejectedExecutionException plutôt que d'empiler les syncs sans limite.
+ */
+@Service
+public class SyncJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncJobService.class);
+
+    private final SyncService syncService;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final long sseTimeoutMs;
+
+    private final Map<String, SyncJob> jobs = new ConcurrentHashMap<>();
+
+    public SyncJobService(SyncService syncService,
+            @Value("${sync.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${sync.jobs.queue-capacity:10}") int queueCapacity,
+            @Value("${sync.jobs.retention-minutes:60}") long retentionMinutes,
+            @Value("${sync.jobs.sse-timeout-ms:1800000}") long sseTimeoutMs) {
+        this.syncService = syncService;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.sseTimeoutMs = sseTimeoutMs;
+
+        int threads = Math.max(1, maxConcurrent);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "sync-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Soumet une synchronisation
+     *
+     * @return Le job créé, ou le job en cours pour une demande identique
+     * @throws java.util.concurrent.RejectedExecutionException si la file
+     *                                                         d'attente est
+     *                                                         pleine
+     */
+    public synchronized SyncJob submit(SyncRequest request) {
+        purgeExpired();
+
+        // Demande identique déjà en attente ou en cours : on renvoie ce job
+        Optional<SyncJob> running = jobs.values().stream()
+                .filter(job -> !job.isFinished() && job.isEquivalentTo(request))
+                .findFirst();
+        if (running.isPresent()) {
+            logger.info("Sync request coalesced into running job {}", running.get().getId());
+            return running.get();
+        }
+
+        SyncJob job = new SyncJob(UUID.randomUUID().toString(), request);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+
+        logger.info("Sync job {} submitted: direction={}, entities={}",
+                job.getId(), request.getDirection(), request.getEntityTypes());
+        return job;
+    }
+
+    public Optional<SyncJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Ouvre un flux SSE sur l'avancement d'un job
+     * Événements "progress" (compteurs d'un type) puis "completed" (état final)
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        SyncJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(error -> job.emitters.remove(emitter));
+
+        synchronized (job) {
+            // État courant envoyé à l'abonnement ; un job déjà terminé ferme le flux
+            if (job.isFinished()) {
+                send(job, emitter, "completed", job.toResponse());
+                emitter.complete();
+            } else {
+                job.emitters.add(emitter);
+                send(job, emitter, "progress", job.toResponse());
+            }
+        }
+        return Optional.of(emitter);
+    }
+
+    private void run(SyncJob job) {
+        job.status = Status.RUNNING;
+        job.startedAt = LocalDateTime.now();
+
+        SyncResponse response;
+        try {
+            response = syncService.synchronize(job.request, (entityType, result) -> {
+                job.progress.put(entityType, result);
+                broadcast(job, "progress", Map.of(entityType, new EntitySyncResult(result)));
+            });
+        } catch (Exception e) {
+            logger.error("Sync job {} failed", job.getId(), e);
+            response = new SyncResponse(false, "Synchronization error: " + e.getMessage());
+            response.addError(e.getMessage());
+        }
+
+        synchronized (job) {
+            job.result = response;
+            job.finishedAt = LocalDateTime.now();
+            job.status = Boolean.TRUE.equals(response.getSuccess()) ? Status.COMPLETED : Status.FAILED;
+
+            SyncJobResponse finalState = job.toResponse();
+            for (SseEmitter emitter : job.emitters) {
+                send(job, emitter, "completed", finalState);
+                emitter.complete();
+            }
+            job.emitters.clear();
+        }
+
+        logger.info("Sync job {} finished with status {}", job.getId(), job.status);
+    }
+
+    private void broadcast(SyncJob job, String event, Object data) {
+        for (SseEmitter emitter : job.emitters) {
+            send(job, emitter, event, data);
+        }
+    }
+
+    private void send(SyncJob job, SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté : l'avancement reste consultable par polling
+            job.emitters.remove(emitter);
+        }
+    }
+
+    /**
+     * Oublie les jobs terminés depuis plus que la durée de rétention
+     */
+    private void purgeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * État d'un job de synchronisation
+     * Les compteurs de progression sont les instances mises à jour en place par
+     * SyncService ; toResponse() en renvoie une copie
+     */
+    public static class SyncJob {
+        private final String id;
+        private final SyncRequest request;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final Map<String, EntitySyncResult> progress = new ConcurrentHashMap<>();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private volatile Status status = Status.PENDING;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile SyncResponse result;
+
+        SyncJob(String id, SyncRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        boolean isEquivalentTo(SyncRequest other) {
+            return request.getDirection() == other.getDirection()
+                    && Boolean.TRUE.equals(request.getForceSync()) == Boolean.TRUE.equals(other.getForceSync())
+                    && new HashSet<>(request.getEntityTypes()).equals(new HashSet<>(other.getEntityTypes()));
+        }
+
+        public boolean isFinished() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+
+        public SyncJobResponse toResponse() {
+            SyncJobResponse response = new SyncJobResponse();
+            response.setJobId(id);
+            response.setStatus(status.name());
+            response.setDirection(request.getDirection());
+            response.setSubmittedAt(submittedAt);
+            response.setStartedAt(startedAt);
+            response.setFinishedAt(finishedAt);
+
+            Map<String, EntitySyncResult> snapshot = new LinkedHashMap<>();
+            progress.forEach((entityType, counters) -> snapshot.put(entityType, new EntitySyncResult(counters)));
+            response.setProgress(snapshot);
+            response.setResult(result);
+            return response;
+        }
+    }
+}
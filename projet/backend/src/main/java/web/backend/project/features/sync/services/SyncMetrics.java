@@ -0,0 +1,119 @@
+package web.backend.project.features.sync.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import web.backend.project.features.sync.dto.SyncResponse.EntitySyncResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métriques Micrometer du pipeline de synchronisation
+ *
+ * - sync.phase (timer) : durée de chaque phase, par type d'entité
+ * (unsynced_fetch, dto_conversion, fingerprint, firestore_write, mark_synced,
+ * relation_resolution, persist_flush, push_back)
+ * - sync.firestore.rpc (timer) : latence de chaque appel Firestore, par
+ * collection, opération et issue
+ * - sync.documents (counter) : documents poussés, tirés, écartés, en échec ou
+ * en conflit, par type d'entité et source (sync, ingest, outbox, dead_letter)
+ * - sync.entity.duration (timer) : durée totale d'un type dans un run
+ *
+ * Les backlogs sont exposés par SyncBacklogGauges.
+ */
+@Component
+public class SyncMetrics {
+
+    private final MeterRegistry registry;
+
+    public SyncMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Chronomètre une phase et retourne son résultat
+     */
+    public <T> T time(String entityType, String phase, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            phaseTimer(entityType, phase).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Chronomètre une phase sans résultat
+     */
+    public void time(String entityType, String phase, Runnable task) {
+        time(entityType, phase, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Enregistre la latence d'un appel Firestore
+     *
+     * @param startNanos Valeur de System.nanoTime() au lancement de l'appel
+     */
+    public void recordRpc(String collectionName, String operation, long startNanos, boolean success) {
+        Timer.builder("sync.firestore.rpc")
+                .description("Latence des appels Firestore")
+                .tag("collection", collectionName)
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "error")
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Enregistre la durée totale de synchronisation d'un type
+     */
+    public void recordEntityRun(String entityType, String direction, long startNanos) {
+        Timer.builder("sync.entity.duration")
+                .description("Durée de synchronisation d'un type d'entité")
+                .tag("entity_type", entityType)
+                .tag("direction", direction)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Ajoute les compteurs d'un résultat aux compteurs de documents
+     *
+     * @param source sync, ingest, outbox ou dead_letter
+     */
+    public void recordResult(String entityType, String source, EntitySyncResult result) {
+        count(entityType, source, "pushed", result.getPushed());
+        count(entityType, source, "pulled", result.getPulled());
+        count(entityType, source, "skipped", result.getSkipped());
+        count(entityType, source, "failed", result.getFailed());
+        count(entityType, source, "conflict", result.getConflicts());
+        count(entityType, source, "deleted", result.getDeleted());
+    }
+
+    private void count(String entityType, String source, String outcome, Integer amount) {
+        if (amount == null || amount == 0) {
+            return;
+        }
+        Counter.builder("sync.documents")
+                .description("Documents traités par la synchronisation")
+                .tag("entity_type", entityType)
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(amount);
+    }
+
+    private Timer phaseTimer(String entityType, String phase) {
+        return Timer.builder("sync.phase")
+                .description("Durée des phases de synchronisation")
+                .tag("entity_type", entityType)
+                .tag("phase", phase)
+                .register(registry);
+    }
+}
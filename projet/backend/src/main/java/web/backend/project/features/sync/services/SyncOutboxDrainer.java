@@ -0,0 +1,193 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import web.backend.project.entities.SyncOutboxEntry;
+import web.backend.project.repositories.SyncOutboxRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drainer de l'outbox transactionnelle (Backend → Firebase)
+ *
+ * À chaque passage, réserve un lot de lignes (SELECT ... FOR UPDATE SKIP
+ * LOCKED, plusieurs instances peuvent drainer en parallèle), fusionne les
+ * modifications répétées d'une même entité, pousse les entités type par type
+ * dans l'ordre des dépendances puis supprime les lignes traitées, le tout dans
+ * une seule transaction. Les lignes en échec sont reportées avec un délai
+ * croissant ; au-delà de max-attempts elles sont abandonnées (l'entité reste à
+ * synchro = false et sera reprise par un push manuel).
+ *
+ * Activé par sync.outbox.enabled=true
+ */
+@Component
+@ConditionalOnProperty(name = "sync.outbox.enabled", havingValue = "true")
+public class SyncOutboxDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncOutboxDrainer.class);
+
+    private final SyncOutboxRepository outboxRepository;
+    private final SyncService syncService;
+    private final EntitySyncRegistry syncRegistry;
+    private final SyncScheduler syncScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService executor;
+
+    // Intervalle entre deux passages quand l'outbox est vide
+    @Value("${sync.outbox.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    // Nombre de lignes réservées par passage
+    @Value("${sync.outbox.batch-size:200}")
+    private int batchSize;
+
+    // Nombre de tentatives avant abandon d'une ligne
+    @Value("${sync.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    // Délai avant la première nouvelle tentative (doublé à chaque échec)
+    @Value("${sync.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    public SyncOutboxDrainer(SyncOutboxRepository outboxRepository,
+            SyncService syncService,
+            EntitySyncRegistry syncRegistry,
+            SyncScheduler syncScheduler,
+            PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.syncService = syncService;
+        this.syncRegistry = syncRegistry;
+        this.syncScheduler = syncScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sync-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.schedule(this::drainLoop, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Sync outbox drainer started (poll every {} ms)", pollIntervalMs);
+    }
+
+    /**
+     * Draine tant que des lots pleins sont réservés, puis attend le prochain
+     * passage
+     */
+    private void drainLoop() {
+        try {
+            int claimed;
+            do {
+                claimed = drainOnce();
+            } while (claimed >= batchSize && !executor.isShutdown());
+        } catch (Exception e) {
+            logger.error("Outbox drain failed: {}", e.getMessage(), e);
+        } finally {
+            if (!executor.isShutdown()) {
+                executor.schedule(this::drainLoop, pollIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Traite un lot de lignes d'outbox dans une transaction
+     *
+     * @return Le nombre de lignes réservées
+     */
+    public int drainOnce() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<SyncOutboxEntry> entries = outboxRepository.claimBatch(batchSize);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            // Fusionne les lignes par type puis par entité : une entité modifiée
+            // plusieurs fois n'est poussée qu'une fois
+            Map<String, Map<Integer, List<SyncOutboxEntry>>> byType = new LinkedHashMap<>();
+            for (SyncOutboxEntry entry : entries) {
+                byType.computeIfAbsent(entry.getEntityType(), t -> new LinkedHashMap<>())
+                        .computeIfAbsent(entry.getEntityId(), id -> new ArrayList<>())
+                        .add(entry);
+            }
+
+            List<Long> done = new ArrayList<>();
+            for (String entityType : syncScheduler.dependencyOrder(new ArrayList<>(byType.keySet()))) {
+                Map<Integer, List<SyncOutboxEntry>> byEntity = byType.get(entityType);
+                if (!syncRegistry.isRegistered(entityType)) {
+                    logger.warn("Dropping {} outbox rows for unregistered entity type {}", byEntity.size(),
+                            entityType);
+                    byEntity.values().forEach(rows -> rows.forEach(row -> done.add(row.getId())));
+                    continue;
+                }
+
+                Map<Integer, String> failed;
+                try {
+                    failed = syncService.pushByIds(entityType, byEntity.keySet());
+                } catch (Exception e) {
+                    logger.error("Outbox push failed for {}: {}", entityType, e.getMessage());
+                    failed = byEntity.keySet().stream()
+                            .collect(Collectors.toMap(id -> id, id -> String.valueOf(e.getMessage())));
+                }
+
+                for (Map.Entry<Integer, List<SyncOutboxEntry>> entity : byEntity.entrySet()) {
+                    String error = failed.get(entity.getKey());
+                    if (error == null) {
+                        entity.getValue().forEach(row -> done.add(row.getId()));
+                    } else {
+                        retryOrDrop(entityType, entity.getKey(), entity.getValue(), error, done);
+                    }
+                }
+            }
+
+            if (!done.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(done);
+            }
+            logger.debug("Outbox drained: {} rows claimed, {} done", entries.size(), done.size());
+            return entries.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    /**
+     * Reporte les lignes d'une entité en échec, ou les abandonne après
+     * maxAttempts tentatives
+     */
+    private void retryOrDrop(String entityType, Integer entityId, List<SyncOutboxEntry> rows, String error,
+            List<Long> done) {
+        int attempts = rows.stream().mapToInt(SyncOutboxEntry::getAttempts).max().orElse(0) + 1;
+        List<Long> ids = rows.stream().map(SyncOutboxEntry::getId).collect(Collectors.toList());
+
+        if (attempts >= maxAttempts) {
+            logger.error("Giving up outbox push of {} {} after {} attempts: {}", entityType, entityId, attempts,
+                    error);
+            done.addAll(ids);
+            return;
+        }
+
+        double delaySeconds = retryBackoffMs * Math.pow(2, attempts - 1) / 1000.0;
+        outboxRepository.reschedule(ids, error, delaySeconds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
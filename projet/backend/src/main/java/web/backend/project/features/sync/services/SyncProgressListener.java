@@ -0,0 +1,21 @@
+package web.backend.project.features.sync.services;
+
+import web.backend.project.features.sync.dto.SyncResponse.EntitySyncResult;
+
+/**
+ * Suivi de la progression d'une synchronisation
+ * Appelé depuis les threads de SyncScheduler : les implémentations doivent
+ * être thread-safe
+ */
+@FunctionalInterface
+public interface SyncProgressListener {
+
+    SyncProgressListener NONE = (entityType, result) -> {
+    };
+
+    /**
+     * @param entityType Type d'entité concerné
+     * @param result     Compteurs cumulés du type (instance mise à jour en place)
+     */
+    void onProgress(String entityType, EntitySyncResult result);
+}
@@ -0,0 +1,198 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import web.backend.project.entities.SyncCheckpoint;
+import web.backend.project.entities.SyncRun;
+import web.backend.project.features.sync.dto.SyncRequest;
+import web.backend.project.repositories.SyncCheckpointRepository;
+import web.backend.project.repositories.SyncRunRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Exécutions de synchronisation et points de reprise
+ *
+ * Chaque synchronisation ouvre un sync_run ; chaque phase (PUSH, PULL) d'un
+ * type y tient un sync_checkpoint dont le curseur avance dans la transaction
+ * de chaque page committée. Une phase interrompue (arrêt du backend, échec)
+ * laisse son point de reprise IN_PROGRESS : la phase suivante du même type le
+ * reprend s'il a moins de sync.checkpoints.max-age-hours heures, au lieu de
+ * tout reparcourir. Le verrou du type (SyncClusterLock) étant tenu, aucune
+ * autre exécution ne peut encore avancer ce point de reprise.
+ */
+@Service
+public class SyncRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncRunService.class);
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String RESUMED = "RESUMED";
+    private static final String ABANDONED = "ABANDONED";
+
+    /**
+     * Phase d'un type dans une exécution
+     */
+    public enum Phase {
+        PUSH, PULL
+    }
+
+    private final SyncRunRepository runRepository;
+    private final SyncCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Au-delà, un point de reprise est abandonné : le parcours repart du début
+    @Value("${sync.checkpoints.max-age-hours:24}")
+    private long maxAgeHours;
+
+    // Durée de conservation des exécutions terminées
+    @Value("${sync.runs.retention-days:30}")
+    private long retentionDays;
+
+    public SyncRunService(SyncRunRepository runRepository,
+            SyncCheckpointRepository checkpointRepository,
+            PlatformTransactionManager transactionManager) {
+        this.runRepository = runRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Enregistre le début d'une exécution et oublie les exécutions expirées
+     */
+    public SyncRun start(SyncRequest request) {
+        return transactionTemplate.execute(status -> {
+            runRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+
+            SyncRun run = new SyncRun();
+            run.setDirection(request.getDirection().name());
+            run.setForceSync(Boolean.TRUE.equals(request.getForceSync()));
+            run.setStatus(RUNNING);
+            return runRepository.save(run);
+        });
+    }
+
+    /**
+     * Enregistre la fin d'une exécution
+     *
+     * @param error Message d'échec, null si l'exécution a réussi
+     */
+    public void finish(SyncRun run, String error) {
+        run.setStatus(error == null ? COMPLETED : FAILED);
+        run.setError(error);
+        run.setFinishedAt(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> runRepository.save(run));
+    }
+
+    /**
+     * Ouvre le point de reprise d'une phase
+     * Le dernier point de reprise resté en cours pour ce type et cette phase est
+     * repris (curseur, nombre de pages, début du parcours) si resumable et s'il
+     * n'a pas expiré ; sinon il est abandonné et le parcours repart du début.
+     *
+     * @param resumable false quand le parcours ne peut pas repartir d'un curseur
+     *                  (pull incrémental : la marque haute sert de reprise)
+     */
+    public SyncCheckpoint open(SyncRun run, String entityType, Phase phase, boolean resumable) {
+        return transactionTemplate.execute(status -> {
+            SyncCheckpoint checkpoint = new SyncCheckpoint(run.getId(), entityType, phase.name());
+            checkpoint.setStatus(IN_PROGRESS);
+
+            Optional<SyncCheckpoint> pending = checkpointRepository
+                    .findFirstByEntityTypeAndPhaseAndStatusOrderByIdDesc(entityType, phase.name(), IN_PROGRESS);
+            if (pending.isPresent() && !pending.get().getRunId().equals(run.getId())) {
+                SyncCheckpoint previous = pending.get();
+                boolean fresh = previous.getUpdatedAt().isAfter(LocalDateTime.now().minusHours(maxAgeHours));
+                if (resumable && fresh && previous.getCursorValue() != null) {
+                    checkpoint.setCursorValue(previous.getCursorValue());
+                    checkpoint.setPages(previous.getPages());
+                    checkpoint.setStartedAt(previous.getStartedAt());
+                    previous.setStatus(RESUMED);
+                    logger.info("Resuming {} of {} from run {} after {} pages (cursor {})", phase, entityType,
+                            previous.getRunId(), previous.getPages(), previous.getCursorValue());
+                } else {
+                    previous.setStatus(ABANDONED);
+                }
+                previous.setUpdatedAt(LocalDateTime.now());
+                checkpointRepository.save(previous);
+                runRepository.markInterrupted(previous.getRunId());
+            }
+
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Avance le curseur après une page (dans la transaction de la page)
+     *
+     * @param cursor Curseur de la dernière page, null pour ne compter que la page
+     */
+    public void advance(SyncCheckpoint checkpoint, String cursor) {
+        if (cursor != null) {
+            checkpoint.setCursorValue(cursor);
+        }
+        checkpoint.setPages(checkpoint.getPages() + 1);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    /**
+     * Marque la phase terminée : son point de reprise ne sera plus repris
+     */
+    public void complete(SyncCheckpoint checkpoint) {
+        checkpoint.setStatus(COMPLETED);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.save(checkpoint));
+    }
+
+    /**
+     * Dernières exécutions et leurs points de reprise
+     */
+    public List<RunSummary> findRecent(int limit) {
+        List<SyncRun> runs = runRepository.findAllByOrderByIdDesc(PageRequest.of(0, Math.max(1, limit)));
+        if (runs.isEmpty()) {
+            return List.of();
+        }
+        List<SyncCheckpoint> checkpoints = checkpointRepository.findByRunIdInOrderByIdAsc(
+                runs.stream().map(SyncRun::getId).collect(Collectors.toList()));
+        return runs.stream()
+                .map(run -> new RunSummary(run, checkpoints.stream()
+                        .filter(checkpoint -> checkpoint.getRunId().equals(run.getId()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Exécution et ses points de reprise
+     */
+    public static class RunSummary {
+        private final SyncRun run;
+        private final List<SyncCheckpoint> checkpoints;
+
+        RunSummary(SyncRun run, List<SyncCheckpoint> checkpoints) {
+            this.run = run;
+            this.checkpoints = checkpoints;
+        }
+
+        public SyncRun getRun() {
+            return run;
+        }
+
+        public List<SyncCheckpoint> getCheckpoints() {
+            return checkpoints;
+        }
+    }
+}
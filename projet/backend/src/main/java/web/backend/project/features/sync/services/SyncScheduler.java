@@ -0,0 +1,160 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Ordonnanceur de synchronisation tenant compte des dépendances entre types
+ * d'entités
+ *
+ * Construit un graphe orienté acyclique à partir des dépendances déclarées
+ * sur les EntityTypeHandler (roles → utilisateurs → signalements →
+ * avancements_signalement, ...). Un type n'est lancé qu'une fois tous ses
+ * prédécesseurs terminés ; les branches indépendantes s'exécutent en
+ * parallèle sur un pool de threads borné.
+ */
+@Component
+public class SyncScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncScheduler.class);
+
+    private final EntitySyncRegistry syncRegistry;
+    private final ExecutorService executor;
+
+    public SyncScheduler(EntitySyncRegistry syncRegistry,
+            @Value("${sync.scheduler.threads:3}") int threads) {
+        this.syncRegistry = syncRegistry;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "sync-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Exécute la tâche pour chaque type demandé dans l'ordre des dépendances
+     *
+     * @param entityTypes Types d'entités à synchroniser (ordre indifférent)
+     * @param task        Traitement d'un type, exécuté sur le pool
+     * @return Les résultats par type, dans l'ordre topologique
+     */
+    public <R> Map<String, R> run(List<String> entityTypes, Function<String, R> task) {
+        Map<String, Set<String>> graph = buildGraph(entityTypes);
+        List<String> order = topologicalOrder(graph);
+        logger.info("Sync execution order: {}", order);
+
+        Map<String, CompletableFuture<R>> futures = new LinkedHashMap<>();
+        for (String entityType : order) {
+            CompletableFuture<?>[] predecessors = graph.get(entityType).stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+
+            // Un prédécesseur en échec ne bloque pas ses successeurs : les relations
+            // peuvent déjà exister en base
+            CompletableFuture<R> future = CompletableFuture.allOf(predecessors)
+                    .handle((ignored, error) -> null)
+                    .thenApplyAsync(ignored -> task.apply(entityType), executor);
+            futures.put(entityType, future);
+        }
+
+        Map<String, R> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<R>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().join());
+        }
+        return results;
+    }
+
+    /**
+     * Ordre de traitement des types demandés respectant leurs dépendances
+     */
+    public List<String> dependencyOrder(List<String> entityTypes) {
+        return topologicalOrder(buildGraph(entityTypes));
+    }
+
+    /**
+     * Construit le graphe des dépendances restreint aux types demandés
+     * Les dépendances transitives via un type non demandé sont conservées
+     */
+    private Map<String, Set<String>> buildGraph(List<String> entityTypes) {
+        Set<String> requested = new LinkedHashSet<>(entityTypes);
+        Map<String, Set<String>> graph = new LinkedHashMap<>();
+
+        for (String entityType : requested) {
+            Set<String> predecessors = new LinkedHashSet<>();
+            Set<String> visited = new HashSet<>();
+            Deque<String> toVisit = new ArrayDeque<>(dependenciesOf(entityType));
+            while (!toVisit.isEmpty()) {
+                String dependency = toVisit.pop();
+                if (!visited.add(dependency)) {
+                    continue;
+                }
+                if (requested.contains(dependency)) {
+                    predecessors.add(dependency);
+                }
+                toVisit.addAll(dependenciesOf(dependency));
+            }
+            predecessors.remove(entityType);
+            graph.put(entityType, predecessors);
+        }
+
+        return graph;
+    }
+
+    private Set<String> dependenciesOf(String entityType) {
+        return syncRegistry.isRegistered(entityType) ? syncRegistry.getDependencies(entityType) : Set.of();
+    }
+
+    /**
+     * Tri topologique (Kahn), en conservant l'ordre de la requête entre types
+     * indépendants
+     *
+     * @throws IllegalStateException si les dépendances forment un cycle
+     */
+    private List<String> topologicalOrder(Map<String, Set<String>> graph) {
+        List<String> order = new ArrayList<>();
+        Set<String> done = new HashSet<>();
+
+        while (order.size() < graph.size()) {
+            boolean progressed = false;
+            for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+                if (!done.contains(entry.getKey()) && done.containsAll(entry.getValue())) {
+                    order.add(entry.getKey());
+                    done.add(entry.getKey());
+                    progressed = true;
+                }
+            }
+            if (!progressed) {
+                Set<String> remaining = new LinkedHashSet<>(graph.keySet());
+                remaining.removeAll(done);
+                throw new IllegalStateException("Cyclic sync dependencies between: " + remaining);
+            }
+        }
+
+        return order;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
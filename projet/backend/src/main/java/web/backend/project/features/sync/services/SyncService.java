@@ -5,12 +5,20 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import web.backend.project.entities.SyncCheckpoint;
+import web.backend.project.entities.SyncRun;
+import web.backend.project.entities.SyncWatermark;
 import web.backend.project.entities.SyncableEntity;
 import web.backend.project.entities.dto.FirebaseSerializable;
 import web.backend.project.features.sync.dto.SyncRequest;
@@ -18,9 +26,15 @@ import web.backend.project.features.sync.dto.SyncResponse;
 import web.backend.project.features.sync.dto.SyncResponse.EntitySyncResult;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -37,19 +51,56 @@ public class SyncService {
     private final FirebaseSyncService firebaseSyncService;
     private final EntitySyncHandler entitySyncHandler;
     private final EntitySyncRegistry syncRegistry;
+    private final SyncWatermarkService watermarkService;
+    private final SyncScheduler syncScheduler;
+    private final SyncFingerprintService fingerprintService;
+    private final SyncSingleFlight singleFlight;
+    private final SyncClusterLock clusterLock;
+    private final SyncDeadLetterService deadLetterService;
+    private final SyncConflictService conflictService;
+    private final SyncTombstoneService tombstoneService;
+    private final SyncRunService runService;
+    private final SyncMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Nombre d'entités chargées, poussées et marquées à la fois
+    @Value("${sync.page-size:500}")
+    private int pageSize;
+
     // Ancien système pour rétro-compatibilité
     private final Map<String, JpaRepository<?, Integer>> repositories;
 
     public SyncService(FirebaseSyncService firebaseSyncService,
             EntitySyncHandler entitySyncHandler,
-            EntitySyncRegistry syncRegistry) {
+            EntitySyncRegistry syncRegistry,
+            SyncWatermarkService watermarkService,
+            SyncScheduler syncScheduler,
+            SyncFingerprintService fingerprintService,
+            SyncSingleFlight singleFlight,
+            SyncClusterLock clusterLock,
+            SyncDeadLetterService deadLetterService,
+            SyncConflictService conflictService,
+            SyncTombstoneService tombstoneService,
+            SyncRunService runService,
+            SyncMetrics metrics,
+            PlatformTransactionManager transactionManager) {
         this.firebaseSyncService = firebaseSyncService;
         this.entitySyncHandler = entitySyncHandler;
         this.syncRegistry = syncRegistry;
+        this.watermarkService = watermarkService;
+        this.syncScheduler = syncScheduler;
+        this.fingerprintService = fingerprintService;
+        this.singleFlight = singleFlight;
+        this.clusterLock = clusterLock;
+        this.deadLetterService = deadLetterService;
+        this.conflictService = conflictService;
+        this.tombstoneService = tombstoneService;
+        this.runService = runService;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.repositories = new HashMap<>();
     }
 
@@ -63,36 +114,33 @@ public class SyncService {
 
     /**
      * Point d'entrée principal pour la synchronisation
+     * Les types sont ordonnés selon leurs dépendances par SyncScheduler ; les
+     * types indépendants sont synchronisés en parallèle, chacun dans sa propre
+     * transaction
      */
-    @Transactional
     public SyncResponse synchronize(SyncRequest request) {
+        return synchronize(request, SyncProgressListener.NONE);
+    }
+
+    /**
+     * Synchronisation avec suivi de progression
+     * Le listener reçoit, pour chaque type, les compteurs cumulés au démarrage
+     * puis après chaque page poussée ou tirée
+     * L'exécution est tracée dans sync_runs ; ses phases reprennent les points
+     * de reprise laissés par une exécution interrompue (SyncRunService)
+     */
+    public SyncResponse synchronize(SyncRequest request, SyncProgressListener listener) {
         System.out.println("Starting synchronization with request: " + request);
         SyncResponse response = new SyncResponse(true, "Synchronization completed");
+        SyncRun run = null;
 
         try {
-            for (String entityType : request.getEntityTypes()) {
-                logger.info("Starting sync for entity type: {}", entityType);
-
-                SyncResponse.EntitySyncResult result = new SyncResponse.EntitySyncResult();
-
-                switch (request.getDirection()) {
-                    case PUSH:
-                        result = performPush(entityType, request.getForceSync());
-                        break;
-                    case PULL:
-                        result = performPull(entityType);
-                        break;
-                    case BIDIRECTIONAL:
-                        SyncResponse.EntitySyncResult pushResult = performPush(entityType, request.getForceSync());
-                        SyncResponse.EntitySyncResult pullResult = performPull(entityType);
-                        result = mergeSyncResults(pushResult, pullResult);
-                        break;
-                }
+            run = runService.start(request);
+            SyncRun current = run;
+            Map<String, EntitySyncResult> results = syncScheduler.run(request.getEntityTypes(),
+                    entityType -> synchronizeEntityType(entityType, request, current, response, listener));
 
-                response.getResults().put(entityType, result);
-                logger.info("Sync completed for {}: pushed={}, pulled={}, failed={}",
-                        entityType, result.getPushed(), result.getPulled(), result.getFailed());
-            }
+            response.getResults().putAll(results);
         } catch (Exception e) {
             logger.error("Synchronization failed", e);
             response.setSuccess(false);
@@ -100,17 +148,103 @@ public class SyncService {
             response.addError(e.getMessage());
         }
 
+        if (run != null) {
+            try {
+                runService.finish(run, Boolean.TRUE.equals(response.getSuccess()) ? null : response.getMessage());
+            } catch (Exception e) {
+                logger.warn("Failed to record the end of sync run {}", run.getId(), e);
+            }
+        }
         return response;
     }
 
+    /**
+     * Synchronise un type d'entité, sauf si un run équivalent est déjà en cours
+     * Dans l'instance, la demande se rattache au run en cours (SyncSingleFlight) ;
+     * entre instances, le verrou du type (SyncClusterLock) écarte la demande si
+     * une autre instance synchronise déjà ce type. Un type écarté, ou dont le
+     * bail est perdu en cours de run, rend la réponse non réussie
+     */
+    private EntitySyncResult synchronizeEntityType(String entityType, SyncRequest request, SyncRun run,
+            SyncResponse response, SyncProgressListener listener) {
+        EntitySyncResult result = singleFlight.run(entityType, request.getDirection(),
+                Boolean.TRUE.equals(request.getForceSync()), () -> {
+                    Optional<SyncClusterLock.Lease> lease = clusterLock.tryAcquire(entityType);
+                    if (lease.isEmpty()) {
+                        logger.info("Sync of {} already running on another instance, skipped", entityType);
+                        synchronized (response) {
+                            response.setSuccess(false);
+                            response.setMessage("Synchronization incomplete: " + entityType
+                                    + " skipped, already running on another instance");
+                            response.addError(entityType + ": sync already running on another instance");
+                        }
+                        return new EntitySyncResult();
+                    }
+                    try (SyncClusterLock.Lease held = lease.get()) {
+                        return runEntityType(entityType, request, run, response, listener, held);
+                    }
+                });
+
+        listener.onProgress(entityType, result);
+        return result;
+    }
+
+    /**
+     * Synchronise un type d'entité
+     * Exécuté sur un thread de SyncScheduler ; push et pull cumulent leurs
+     * compteurs dans le même résultat. Le bail est vérifié avant chaque page
+     */
+    private EntitySyncResult runEntityType(String entityType, SyncRequest request, SyncRun run,
+            SyncResponse response, SyncProgressListener listener, SyncClusterLock.Lease lease) {
+        logger.info("Starting sync for entity type: {}", entityType);
+        long start = System.nanoTime();
+        EntitySyncResult result = new EntitySyncResult();
+        listener.onProgress(entityType, result);
+
+        try {
+            // Pas de transaction englobante : chaque page est committée dans sa propre
+            // transaction courte (voir performPush / performPull)
+            switch (request.getDirection()) {
+                case PUSH:
+                    performPush(entityType, run, result, listener, lease);
+                    break;
+                case PULL:
+                    performPull(entityType, request.getForceSync(), run, result, listener, lease);
+                    break;
+                case BIDIRECTIONAL:
+                default:
+                    // Pull d'abord : les modifications Firebase sont confrontées aux
+                    // modifications locales (ConflictPolicy) avant que le push ne les
+                    // écrase
+                    performPull(entityType, request.getForceSync(), run, result, listener, lease);
+                    performPush(entityType, run, result, listener, lease);
+                    break;
+            }
+
+            logger.info("Sync completed for {}: pushed={}, pulled={}, failed={}",
+                    entityType, result.getPushed(), result.getPulled(), result.getFailed());
+        } catch (Exception e) {
+            logger.error("Sync failed for entity type: {}", entityType, e);
+            synchronized (response) {
+                response.setSuccess(false);
+                response.setMessage("Synchronization failed: " + e.getMessage());
+                response.addError(entityType + ": " + e.getMessage());
+            }
+            result.incrementFailed();
+        }
+
+        metrics.recordEntityRun(entityType, request.getDirection().name(), start);
+        metrics.recordResult(entityType, "sync", result);
+        return result;
+    }
+
     /**
      * Effectue un push Backend → Firebase
      * Utilise le système générique via EntitySyncRegistry
      */
-    @SuppressWarnings("unchecked")
     private <E extends SyncableEntity<D>, D extends FirebaseSerializable> EntitySyncResult performPush(
-            String entityType, Boolean forceSync) {
-        EntitySyncResult result = new EntitySyncResult();
+            String entityType, SyncRun run, EntitySyncResult result, SyncProgressListener listener,
+            SyncClusterLock.Lease lease) {
 
         try {
             // Vérifie si le handler est enregistré
@@ -120,29 +254,44 @@ public class SyncService {
                 return result;
             }
 
-            // Récupère les entités non synchronisées via le nouveau système
-            List<E> unsyncedEntities = entitySyncHandler.getUnsyncedEntities(entityType);
+            // Parcourt les entités non synchronisées page par page (keyset sur id) :
+            // chaque page est chargée, poussée et marquée dans sa propre transaction.
+            // Une exécution interrompue repart du premier id : les pages committées
+            // sont synchro = true et ne sont plus relues (idx_*_non_synchro), alors
+            // qu'une entité d'id inférieur au curseur a pu repasser synchro = false
+            // entre-temps. Le curseur, committé avec chaque page, ne sert qu'au suivi
+            SyncCheckpoint checkpoint = runService.open(run, entityType, SyncRunService.Phase.PUSH, true);
+            Integer lastId = 0;
+            while (lastId != null) {
+                lease.ensureHeld();
+                Integer from = lastId;
+                lastId = transactionTemplate.execute(status -> {
+                    List<E> page = metrics.time(entityType, "unsynced_fetch",
+                            () -> entitySyncHandler.<E, D>getUnsyncedPage(entityType, from, pageSize));
+                    if (page.isEmpty()) {
+                        return null;
+                    }
+                    pushPage(entityType, page, result);
+                    Integer pageLastId = page.get(page.size() - 1).getId();
+                    runService.advance(checkpoint, pageLastId.toString());
+                    return page.size() < pageSize ? null : pageLastId;
+                });
+                listener.onProgress(entityType, result);
+            }
+            runService.complete(checkpoint);
+
+            pushTombstones(entityType, result, listener, lease);
 
-            if (unsyncedEntities.isEmpty()) {
+            if (result.getPushed() == 0 && result.getSkipped() == 0 && result.getDeleted() == 0) {
                 logger.info("No unsynced entities found for {}", entityType);
                 return result;
             }
 
-            // Conversion directe via l'interface SyncableEntity
-            List<D> dtos = entitySyncHandler.convertEntitiesToDTOs(unsyncedEntities);
-
-            // Convertit en FirebaseSerializable pour Firebase
-            List<FirebaseSerializable> syncableDTOs = (List<FirebaseSerializable>) (List<?>) dtos;
-
-            // Pousse vers Firebase (entityType est déjà en snake_case)
-            int pushed = firebaseSyncService.pushToFirebase(entityType, syncableDTOs);
-
-            // Marque comme synchronisé via le nouveau système
-            entitySyncHandler.markAsSynced(entityType, unsyncedEntities);
-
-            result.setPushed(pushed);
-            logger.info("Pushed {} entities of type {} to Firebase", pushed, entityType);
+            logger.info("Pushed {} entities of type {} to Firebase ({} deleted)", result.getPushed(), entityType,
+                    result.getDeleted());
 
+        } catch (SyncClusterLock.LeaseLostException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Push failed for entity type: {}", entityType, e);
             result.incrementFailed();
@@ -151,13 +300,135 @@ public class SyncService {
         return result;
     }
 
+    /**
+     * Propage les suppressions locales en attente, page par page (une
+     * transaction par page), puis oublie les tombstones expirés
+     */
+    private void pushTombstones(String entityType, EntitySyncResult result, SyncProgressListener listener,
+            SyncClusterLock.Lease lease) {
+        Integer lastId = 0;
+        while (lastId != null) {
+            lease.ensureHeld();
+            Integer from = lastId;
+            lastId = transactionTemplate.execute(status -> {
+                List<Integer> ids = tombstoneService.findPending(entityType, from, pageSize);
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                FirebaseSyncService.PushReport report = metrics.time(entityType, "firestore_delete",
+                        () -> tombstoneService.propagate(entityType, ids));
+                result.setDeleted(result.getDeleted() + report.getSucceeded().size());
+                result.setFailed(result.getFailed() + report.getFailed().size());
+                return ids.size() < pageSize ? null : ids.get(ids.size() - 1);
+            });
+            listener.onProgress(entityType, result);
+        }
+        transactionTemplate.executeWithoutResult(status -> tombstoneService.purgeExpired());
+    }
+
+    /**
+     * Pousse les entités désignées par des lignes d'outbox (dans la transaction de
+     * l'appelant)
+     * Les entités déjà synchronisées entre-temps (push manuel, pull) n'ont rien à
+     * propager ; celles supprimées localement sont supprimées de Firebase.
+     *
+     * @return Les entités en échec (id → erreur), à retenter
+     */
+    public <E extends SyncableEntity<D>, D extends FirebaseSerializable> Map<Integer, String> pushByIds(
+            String entityType, Collection<Integer> ids) {
+        List<E> found = syncRegistry.<E, D>findAllById(entityType, ids);
+        Set<Integer> missing = new HashSet<>(ids);
+        found.forEach(entity -> missing.remove(entity.getId()));
+        List<E> unsynced = found.stream()
+                .filter(entity -> !Boolean.TRUE.equals(entity.getSynchro()))
+                .collect(Collectors.toList());
+
+        EntitySyncResult result = new EntitySyncResult();
+        Map<Integer, String> failed = new HashMap<>();
+        if (!unsynced.isEmpty()) {
+            failed.putAll(pushPage(entityType, unsynced, result));
+        }
+        if (!missing.isEmpty()) {
+            List<Integer> deleted = new ArrayList<>(tombstoneService.findDeleted(entityType, missing));
+            FirebaseSyncService.PushReport report = tombstoneService.propagate(entityType, deleted);
+            result.setDeleted(report.getSucceeded().size());
+            failed.putAll(report.getFailed());
+        }
+
+        metrics.recordResult(entityType, "outbox", result);
+        logger.debug("Outbox push for {}: pushed={}, skipped={}, deleted={}, failed={}", entityType,
+                result.getPushed(), result.getSkipped(), result.getDeleted(), failed.size());
+        return failed;
+    }
+
+    /**
+     * Pousse une page d'entités vers Firebase et marque synchronisées celles qui
+     * y sont écrites
+     *
+     * @return Les entités en échec (id → erreur)
+     */
+    private <E extends SyncableEntity<D>, D extends FirebaseSerializable> Map<Integer, String> pushPage(
+            String entityType, List<E> page, EntitySyncResult result) {
+        // Conversion directe via l'interface SyncableEntity
+        List<D> dtos = metrics.time(entityType, "dto_conversion",
+                () -> entitySyncHandler.<E, D>convertEntitiesToDTOs(page));
+
+        // Écarte les documents dont le contenu est celui que Firebase détient déjà
+        // L'empreinte de chaque document n'est calculée qu'une fois : elle sert à la
+        // comparaison puis est enregistrée pour les documents écrits
+        List<FirebaseSerializable> syncableDTOs = new ArrayList<>(dtos.size());
+        Set<Integer> unchangedIds = new HashSet<>();
+        Map<Integer, String> fingerprints = new HashMap<>();
+        metrics.time(entityType, "fingerprint", () -> {
+            Map<Integer, String> knownFingerprints = fingerprintService.findFingerprints(entityType,
+                    dtos.stream().map(FirebaseSerializable::getId).collect(Collectors.toList()));
+            for (D dto : dtos) {
+                String fingerprint = dto.getId() != null ? SyncFingerprintService.fingerprint(dto) : null;
+                if (fingerprint != null && fingerprint.equals(knownFingerprints.get(dto.getId()))) {
+                    unchangedIds.add(dto.getId());
+                } else {
+                    syncableDTOs.add(dto);
+                    if (fingerprint != null) {
+                        fingerprints.put(dto.getId(), fingerprint);
+                    }
+                }
+            }
+        });
+        result.setSkipped(result.getSkipped() + unchangedIds.size());
+
+        // Pousse vers Firebase par batchs (entityType est déjà en snake_case)
+        FirebaseSyncService.PushReport report = metrics.time(entityType, "firestore_write",
+                () -> firebaseSyncService.pushBatched(entityType, syncableDTOs));
+        result.setPushed(result.getPushed() + report.getSucceeded().size());
+        fingerprintService.save(entityType, fingerprintsOf(syncableDTOs, fingerprints, report.getSucceeded()));
+
+        // Marque comme synchronisées uniquement les entités écrites dans Firebase
+        // (ou déjà identiques), les autres restent synchro=false pour la prochaine
+        // synchronisation
+        Set<Integer> succeededIds = new HashSet<>(report.getSucceeded());
+        succeededIds.addAll(unchangedIds);
+        List<E> syncedEntities = page.stream()
+                .filter(entity -> succeededIds.contains(entity.getId()))
+                .collect(Collectors.toList());
+        metrics.time(entityType, "mark_synced", () -> entitySyncHandler.markAsSynced(entityType, syncedEntities));
+
+        if (report.hasFailures()) {
+            logger.warn("Failed to push {} entities of type {}: {}",
+                    report.getFailed().size(), entityType, report.getFailed());
+            result.setFailed(result.getFailed() + report.getFailed().size());
+        }
+        return report.getFailed();
+    }
+
     /**
      * Effectue un pull Firebase → Backend
-     * Après traitement, repousse les entités vers Firebase avec synchro=true
+     * La collection est parcourue page par page ; chaque page est intégrée,
+     * repoussée puis libérée avant la lecture de la suivante.
+     * Incrémental dès qu'une marque haute existe pour la collection (sauf
+     * forceSync) : seuls les documents modifiés depuis la marque sont lus.
      */
-    @SuppressWarnings("unchecked")
-    private EntitySyncResult performPull(String entityType) {
-        SyncResponse.EntitySyncResult result = new SyncResponse.EntitySyncResult();
+    private EntitySyncResult performPull(String entityType, Boolean forceSync, SyncRun run,
+            EntitySyncResult result, SyncProgressListener listener, SyncClusterLock.Lease lease) {
 
         try {
             // Vérifie si le handler est enregistré
@@ -168,87 +439,371 @@ public class SyncService {
             }
 
             // Récupère depuis Firebase (entityType est déjà en snake_case)
-            List<Map<String, Object>> firebaseData = firebaseSyncService.pullFromFirebase(entityType);
+            Optional<SyncWatermark> watermark = Boolean.TRUE.equals(forceSync)
+                    ? Optional.empty()
+                    : watermarkService.find(entityType);
+            SyncWatermarkService.Tracker tracker = watermarkService.startTracking(entityType);
+
+            // Une transaction par page. En incrémental, les documents arrivent dans
+            // l'ordre (last_modified, id) : la marque des documents lus est un point
+            // de reprise valable, committé avec la page. En lecture complète (ordre des
+            // id), seule la fin du parcours fait avancer la marque ; le point de reprise
+            // est l'id du dernier document de la page
+            boolean incremental = watermark.isPresent();
+            SyncCheckpoint checkpoint = runService.open(run, entityType, SyncRunService.Phase.PULL, !incremental);
+            String resumeAfter = incremental ? null : checkpoint.getCursorValue();
+            if (resumeAfter != null) {
+                // Les pages déjà traitées ont pu changer depuis le début du parcours
+                tracker.limitTo(checkpoint.getStartedAt().toString());
+            }
 
-            // Log détaillé de la réponse Firebase (JSON prettifié) pour debug
-            if (logger.isDebugEnabled()) {
+            Consumer<List<Map<String, Object>>> advance = page -> {
+                if (incremental) {
+                    watermarkService.checkpoint(tracker);
+                    runService.advance(checkpoint, null);
+                } else {
+                    Object lastDocumentId = page.get(page.size() - 1)
+                            .get(FirebaseSyncService.FIREBASE_DOC_ID_FIELD);
+                    runService.advance(checkpoint, lastDocumentId != null ? lastDocumentId.toString() : null);
+                }
+            };
+            Consumer<List<Map<String, Object>>> pageConsumer = page -> {
+                lease.ensureHeld();
+                int deletedBefore = result.getDeleted();
                 try {
-                    String pretty = OBJECT_MAPPER.writeValueAsString(firebaseData);
-                    logger.debug("Full Firebase response for {} ({} items):\n{}", entityType, firebaseData.size(),
-                            pretty);
-                } catch (JsonProcessingException e) {
-                    logger.debug("Firebase response for {}: size={} data={}", entityType, firebaseData.size(),
-                            firebaseData);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        processPulledPage(entityType, page, result, tracker);
+                        advance.accept(page);
+                    });
+                } catch (PersistenceException | DataAccessException | UnexpectedRollbackException e) {
+                    // Échec en base malgré la validation en mémoire : la page est reprise
+                    // document par document pour isoler le fautif
+                    logger.warn("Page of {} rolled back ({}), integrating its {} documents one by one",
+                            entityType, e.getMessage(), page.size());
+                    result.setDeleted(deletedBefore);
+                    processPageIsolated(entityType, page, result, tracker);
+                    transactionTemplate.executeWithoutResult(status -> advance.accept(page));
                 }
+                listener.onProgress(entityType, result);
+            };
+
+            if (incremental) {
+                firebaseSyncService.streamChangedSince(entityType, watermark.get().getLastModified(),
+                        watermark.get().getLastDocumentId(), pageSize, pageConsumer);
+            } else {
+                firebaseSyncService.streamFromFirebase(entityType, resumeAfter, pageSize, pageConsumer);
             }
 
-            if (firebaseData.isEmpty()) {
+            // Marque finale, y compris au-delà des documents repoussés
+            transactionTemplate.executeWithoutResult(status -> watermarkService.save(tracker));
+            runService.complete(checkpoint);
+
+            if (result.getPulled() == 0) {
                 logger.info("No data found in Firebase for {}", entityType);
-                return result;
+            } else {
+                logger.info("Pulled {} entities of type {} from Firebase ({})", result.getPulled(), entityType,
+                        watermark.isPresent() ? "incremental" : "full");
             }
 
-            // Met à jour ou crée les entités via le système générique
-            // Collecte les entités traitées pour les repousser vers Firebase
-            List<SyncableEntity<?>> processedEntities = new ArrayList<>();
+        } catch (SyncClusterLock.LeaseLostException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Pull failed for entity type: {}", entityType, e);
+            result.incrementFailed();
+        }
 
-            for (Map<String, Object> data : firebaseData) {
-                try {
-                    SyncableEntity<?> savedEntity = entitySyncHandler.updateOrCreateFromFirebase(entityType, data);
-                    processedEntities.add(savedEntity);
-                    result.incrementPulled();
-                } catch (Exception e) {
-                    logger.error("Failed to pull entity of type {} for data {}: {}", entityType, data, e.getMessage());
-                    logger.debug("Stacktrace for failed entity update:", e);
-                    result.incrementFailed();
-                }
-            }
+        return result;
+    }
 
-            logger.info("Pulled {} entities of type {} from Firebase", result.getPulled(), entityType);
+    /**
+     * Intègre une page de pull document par document, une transaction chacun
+     * Repli d'une page dont la transaction a échoué en base : les documents
+     * valides sont intégrés, un document dont la transaction échoue est consigné
+     * dans la file des rejets (dans sa propre transaction) et la marque s'arrête
+     * avant lui. Le parcours n'est pas bloqué par ce document.
+     */
+    private void processPageIsolated(String entityType, List<Map<String, Object>> page, EntitySyncResult result,
+            SyncWatermarkService.Tracker tracker) {
+        for (Map<String, Object> data : page) {
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> processPulledPage(entityType, List.of(data), result, tracker));
+            } catch (PersistenceException | DataAccessException | UnexpectedRollbackException e) {
+                logger.error("Failed to pull entity of type {} for data {}: {}", entityType, data, e.getMessage());
+                tracker.record(data, false);
+                result.incrementFailed();
+                transactionTemplate.executeWithoutResult(status -> deadLetterService.record(entityType, data, e));
+            }
+        }
+    }
 
-            // Après traitement, repousse les entités vers Firebase avec synchro=true
-            if (!processedEntities.isEmpty()) {
-                try {
-                    List<FirebaseSerializable> dtos = processedEntities.stream()
-                            .map(entity -> {
-                                FirebaseSerializable dto = ((SyncableEntity<FirebaseSerializable>) entity).toDTO();
-                                dto.setSynchro(true);
-                                return dto;
-                            })
-                            .collect(Collectors.toList());
-
-                    int pushed = firebaseSyncService.pushToFirebase(entityType, dtos);
-                    result.setPushed(pushed);
-                    logger.info("Pushed back {} entities of type {} to Firebase after pull (synchro=true)",
-                            pushed, entityType);
-                } catch (Exception e) {
-                    logger.error("Failed to push back entities to Firebase after pull for type {}: {}",
-                            entityType, e.getMessage());
-                    logger.debug("Push-back stacktrace:", e);
-                }
+    /**
+     * Intègre un micro-lot de documents reçus par les listeners Firestore (mode
+     * ingest)
+     * Même traitement qu'une page de pull, dans sa propre transaction. La marque
+     * haute avance comme pour un pull : c'est le point de reprise des listeners
+     * après un redémarrage. Les documents dont le contenu est déjà connu (écho de
+     * nos propres écritures) sont ignorés.
+     *
+     * @return Les documents en échec
+     */
+    public List<Map<String, Object>> ingest(String entityType, List<Map<String, Object>> documents) {
+        return transactionTemplate.execute(status -> {
+            List<Map<String, Object>> changed = withoutKnownContent(entityType, documents);
+            if (changed.isEmpty()) {
+                return List.<Map<String, Object>>of();
             }
 
-        } catch (Exception e) {
-            logger.error("Pull failed for entity type: {}", entityType, e);
-            result.incrementFailed();
+            EntitySyncResult result = new EntitySyncResult();
+            SyncWatermarkService.Tracker tracker = watermarkService.startTracking(entityType);
+            List<Map<String, Object>> failed = processPulledPage(entityType, changed, result, tracker);
+            watermarkService.save(tracker);
+
+            metrics.recordResult(entityType, "ingest", result);
+            logger.info("Ingested {} documents of type {}: pulled={}, pushed={}, skipped={}, failed={}",
+                    changed.size(), entityType, result.getPulled(), result.getPushed(), result.getSkipped(),
+                    result.getFailed());
+            return failed;
+        });
+    }
+
+    /**
+     * Reprend les documents rejetés d'un type (file sync_dead_letters)
+     * Les documents sont relus depuis Firebase en un appel (état courant) puis
+     * intégrés comme une page de pull, dans une transaction. Les documents
+     * supprimés de Firebase entre-temps quittent la file ; la marque haute
+     * n'est pas modifiée.
+     */
+    public EntitySyncResult retryDeadLetters(String entityType, int limit) {
+        EntitySyncResult result = new EntitySyncResult();
+        List<String> documentIds = deadLetterService.find(entityType, limit).stream()
+                .map(deadLetter -> deadLetter.getDocumentId())
+                .collect(Collectors.toList());
+        if (documentIds.isEmpty()) {
+            return result;
         }
 
+        List<Map<String, Object>> documents = firebaseSyncService.getDocuments(entityType, documentIds);
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> missing = new HashSet<>(documentIds);
+            documents.forEach(data -> missing.remove(SyncDeadLetterService.documentId(data)));
+            deadLetterService.discard(entityType, missing);
+
+            if (!documents.isEmpty()) {
+                processPulledPage(entityType, documents, result, watermarkService.startTracking(entityType));
+            }
+        });
+
+        metrics.recordResult(entityType, "dead_letter", result);
+        logger.info("Retried {} dead letters of type {}: pulled={}, failed={}", documentIds.size(), entityType,
+                result.getPulled(), result.getFailed());
         return result;
     }
 
     /**
-     * Fusionne les résultats de push et pull
+     * Écarte les documents synchro=true dont l'empreinte est celle enregistrée
+     * (une requête pour toute la page)
+     */
+    private List<Map<String, Object>> withoutKnownContent(String entityType, List<Map<String, Object>> documents) {
+        Map<Map<String, Object>, Integer> ids = new IdentityHashMap<>();
+        for (Map<String, Object> data : documents) {
+            Integer id = FirebaseSerializable.extractInteger(data, "id");
+            if (id != null && Boolean.TRUE.equals(FirebaseSerializable.extractBoolean(data, "synchro"))) {
+                ids.put(data, id);
+            }
+        }
+        Map<Integer, String> known = fingerprintService.findFingerprints(entityType, ids.values());
+
+        List<Map<String, Object>> changed = new ArrayList<>(documents.size());
+        for (Map<String, Object> data : documents) {
+            String knownFingerprint = known.get(ids.get(data));
+            if (knownFingerprint == null || !knownFingerprint.equals(firebaseFingerprint(entityType, data))) {
+                changed.add(data);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Intègre une page de documents Firebase puis la repousse avec synchro=true
+     * Le contexte de persistance est vidé à la fin de la page
+     *
+     * @return Les documents de la page en échec
+     */
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> processPulledPage(String entityType, List<Map<String, Object>> firebaseData,
+            EntitySyncResult result, SyncWatermarkService.Tracker tracker) {
+
+        // Log détaillé de la réponse Firebase (JSON prettifié) pour debug
+        if (logger.isDebugEnabled()) {
+            try {
+                String pretty = OBJECT_MAPPER.writeValueAsString(firebaseData);
+                logger.debug("Firebase page for {} ({} items):\n{}", entityType, firebaseData.size(), pretty);
+            } catch (JsonProcessingException e) {
+                logger.debug("Firebase page for {}: size={} data={}", entityType, firebaseData.size(),
+                        firebaseData);
+            }
+        }
+
+        // Met à jour ou crée les entités via le système générique
+        // Collecte les entités traitées pour les repousser vers Firebase
+        List<SyncableEntity<?>> processedEntities = new ArrayList<>(firebaseData.size());
+        List<Map<String, Object>> processedData = new ArrayList<>(firebaseData.size());
+        List<Map<String, Object>> failedData = new ArrayList<>();
+
+        // Les documents d'entités supprimées localement ne sont pas recréés : ils
+        // sont supprimés à nouveau de Firebase
+        firebaseData = withoutDeleted(entityType, firebaseData, result, tracker);
+        if (firebaseData.isEmpty()) {
+            return failedData;
+        }
+
+        // Les relations de la page sont préchargées en une requête par type référencé ;
+        // les entités modifiées localement et non poussées passent par la
+        // résolution de conflits
+        SyncConflictContext conflicts = conflictService.open(entityType, firebaseData);
+        List<EntityTypeHandler.RecordOutcome<SyncableEntity<FirebaseSerializable>>> outcomes = entitySyncHandler
+                .updateOrCreatePageFromFirebase(entityType, firebaseData, conflicts);
+
+        for (EntityTypeHandler.RecordOutcome<SyncableEntity<FirebaseSerializable>> outcome : outcomes) {
+            Map<String, Object> data = outcome.getData();
+            if (outcome.isSuccess()) {
+                processedEntities.add(outcome.getEntity());
+                processedData.add(data);
+                tracker.record(data, true);
+                result.incrementPulled();
+                if (outcome.isConflict()) {
+                    result.incrementConflicts();
+                }
+            } else {
+                Exception e = outcome.getError();
+                logger.error("Failed to pull entity of type {} for data {}: {}", entityType, data, e.getMessage());
+                logger.debug("Stacktrace for failed entity update:", e);
+                tracker.record(data, false);
+                failedData.add(data);
+                result.incrementFailed();
+                deadLetterService.record(entityType, data, e);
+            }
+        }
+        deadLetterService.resolve(entityType, processedData);
+        conflictService.save(conflicts);
+
+        // Après traitement, repousse vers Firebase avec synchro=true les entités dont
+        // le document diffère (contenu modifié ou synchro=false côté Firebase)
+        List<FirebaseSerializable> dtos = new ArrayList<>(processedEntities.size());
+        Map<Integer, String> unchangedFingerprints = new HashMap<>();
+        Map<Integer, String> pushedFingerprints = new HashMap<>();
+        for (int i = 0; i < processedEntities.size(); i++) {
+            FirebaseSerializable dto = ((SyncableEntity<FirebaseSerializable>) processedEntities.get(i)).toDTO();
+            dto.setSynchro(true);
+            String fingerprint = SyncFingerprintService.fingerprint(dto);
+            Map<String, Object> data = processedData.get(i);
+
+            if (dto.getId() != null && Boolean.TRUE.equals(FirebaseSerializable.extractBoolean(data, "synchro"))
+                    && fingerprint.equals(firebaseFingerprint(entityType, data))) {
+                unchangedFingerprints.put(dto.getId(), fingerprint);
+            } else {
+                dtos.add(dto);
+                if (dto.getId() != null) {
+                    pushedFingerprints.put(dto.getId(), fingerprint);
+                }
+            }
+        }
+        fingerprintService.save(entityType, unchangedFingerprints);
+        result.setSkipped(result.getSkipped() + unchangedFingerprints.size());
+
+        if (!dtos.isEmpty()) {
+            try {
+                int pushed = metrics.time(entityType, "push_back",
+                        () -> firebaseSyncService.pushToFirebase(entityType, dtos));
+                result.setPushed(result.getPushed() + pushed);
+                fingerprintService.save(entityType, fingerprintsOf(dtos, pushedFingerprints, null));
+
+                // Le push-back réécrit last_modified : la marque peut passer au-delà de
+                // ces écritures pour qu'elles ne soient pas relues au prochain pull
+                // (jamais au-delà d'un document en échec)
+                if (failedData.isEmpty()) {
+                    tracker.recordWritten(dtos);
+                }
+                logger.debug("Pushed back {} entities of type {} to Firebase after pull (synchro=true)",
+                        pushed, entityType);
+            } catch (Exception e) {
+                logger.error("Failed to push back entities to Firebase after pull for type {}: {}",
+                        entityType, e.getMessage());
+                logger.debug("Push-back stacktrace:", e);
+            }
+        }
+
+        // Libère la page
+        syncRegistry.flushAndClear();
+        return failedData;
+    }
+
+    /**
+     * Écarte d'une page pullée les documents d'entités supprimées localement
+     * (tombstone) et les supprime de Firebase
      */
-    private EntitySyncResult mergeSyncResults(
-            SyncResponse.EntitySyncResult pushResult,
-            SyncResponse.EntitySyncResult pullResult) {
+    private List<Map<String, Object>> withoutDeleted(String entityType, List<Map<String, Object>> documents,
+            EntitySyncResult result, SyncWatermarkService.Tracker tracker) {
+        Map<Map<String, Object>, Integer> ids = new IdentityHashMap<>();
+        for (Map<String, Object> data : documents) {
+            Integer id = FirebaseSerializable.extractInteger(data, "id");
+            if (id != null) {
+                ids.put(data, id);
+            }
+        }
+        Set<Integer> deleted = tombstoneService.findDeleted(entityType, ids.values());
+        if (deleted.isEmpty()) {
+            return documents;
+        }
 
-        SyncResponse.EntitySyncResult merged = new SyncResponse.EntitySyncResult();
-        merged.setPushed(pushResult.getPushed() + pullResult.getPushed());
-        merged.setPulled(pushResult.getPulled() + pullResult.getPulled());
-        merged.setFailed(pushResult.getFailed() + pullResult.getFailed());
-        merged.setConflicts(pushResult.getConflicts() + pullResult.getConflicts());
+        List<Map<String, Object>> kept = new ArrayList<>(documents.size());
+        for (Map<String, Object> data : documents) {
+            if (deleted.contains(ids.get(data))) {
+                tracker.record(data, true);
+            } else {
+                kept.add(data);
+            }
+        }
+        logger.info("Ignoring {} {} documents deleted locally, deleting them from Firebase", deleted.size(),
+                entityType);
+        FirebaseSyncService.PushReport report = tombstoneService.propagate(entityType, new ArrayList<>(deleted));
+        result.setDeleted(result.getDeleted() + report.getSucceeded().size());
+        return kept;
+    }
+
+    /**
+     * Empreinte du document tel que Firebase le détient, normalisé par le DTO
+     * (même forme que l'empreinte d'un DTO issu d'une entité)
+     */
+    private String firebaseFingerprint(String entityType, Map<String, Object> data) {
+        try {
+            return SyncFingerprintService.fingerprint(syncRegistry.decodeFirebaseData(entityType, data));
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-        return merged;
+    /**
+     * Empreintes des DTOs écrits dans Firebase
+     * Les empreintes déjà calculées avant l'écriture sont reprises ; une
+     * empreinte manquante est calculée ici
+     *
+     * @param computed   Empreintes calculées avant l'écriture, par id
+     * @param writtenIds IDs effectivement écrits (null : tous)
+     */
+    private Map<Integer, String> fingerprintsOf(List<FirebaseSerializable> dtos, Map<Integer, String> computed,
+            List<Integer> writtenIds) {
+        Set<Integer> written = writtenIds != null ? new HashSet<>(writtenIds) : null;
+        Map<Integer, String> fingerprints = new HashMap<>();
+        for (FirebaseSerializable dto : dtos) {
+            if (dto.getId() != null && (written == null || written.contains(dto.getId()))) {
+                String fingerprint = computed.get(dto.getId());
+                fingerprints.put(dto.getId(),
+                        fingerprint != null ? fingerprint : SyncFingerprintService.fingerprint(dto));
+            }
+        }
+        return fingerprints;
     }
 
     /**
@@ -258,6 +813,13 @@ public class SyncService {
         return syncRegistry.isRegistered(entityType);
     }
 
+    /**
+     * Ordonne des types d'entités selon leurs dépendances
+     */
+    public List<String> dependencyOrder(List<String> entityTypes) {
+        return syncScheduler.dependencyOrder(entityTypes);
+    }
+
     /**
      * Liste tous les types d'entités enregistrés
      */
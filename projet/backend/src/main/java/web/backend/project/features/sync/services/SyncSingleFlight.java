@@ -0,0 +1,96 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import web.backend.project.features.sync.dto.SyncRequest.SyncDirection;
+import web.backend.project.features.sync.dto.SyncResponse.EntitySyncResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Exclusion mutuelle des synchronisations par type d'entité (single-flight)
+ *
+ * Un seul run par type à la fois dans l'instance. Une demande arrivant pendant
+ * un run équivalent (même direction ou run BIDIRECTIONAL, forceSync au moins
+ * aussi large) se rattache à son résultat au lieu de relancer push et pull ;
+ * une demande non couverte attend la fin du run en cours puis s'exécute.
+ */
+@Component
+public class SyncSingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncSingleFlight.class);
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Exécute la synchronisation d'un type ou se rattache au run en cours
+     *
+     * @param task Synchronisation du type, exécutée si aucun run équivalent
+     *             n'est en cours
+     * @return Le résultat du run (copie si rattaché à un autre run)
+     */
+    public EntitySyncResult run(String entityType, SyncDirection direction, boolean forceSync,
+            Supplier<EntitySyncResult> task) {
+        while (true) {
+            Flight candidate = new Flight(direction, forceSync);
+            Flight current = inFlight.putIfAbsent(entityType, candidate);
+
+            if (current == null) {
+                return lead(entityType, candidate, task);
+            }
+
+            if (current.covers(direction, forceSync)) {
+                logger.info("Sync of {} already running ({}), attaching to its result", entityType,
+                        current.direction);
+                try {
+                    return new EntitySyncResult(current.future.join());
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+
+            // Run non équivalent : on attend sa fin avant de lancer le nôtre
+            logger.info("Sync of {} waiting for running {} sync", entityType, current.direction);
+            current.future.handle((result, error) -> null).join();
+        }
+    }
+
+    private EntitySyncResult lead(String entityType, Flight flight, Supplier<EntitySyncResult> task) {
+        EntitySyncResult result;
+        try {
+            result = task.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(entityType, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+
+        // Retrait avant complétion : une demande arrivant après la fin lance un
+        // nouveau run plutôt que de récupérer un résultat déjà périmé
+        inFlight.remove(entityType, flight);
+        flight.future.complete(result);
+        return result;
+    }
+
+    private static class Flight {
+        private final SyncDirection direction;
+        private final boolean forceSync;
+        private final CompletableFuture<EntitySyncResult> future = new CompletableFuture<>();
+
+        Flight(SyncDirection direction, boolean forceSync) {
+            this.direction = direction;
+            this.forceSync = forceSync;
+        }
+
+        boolean covers(SyncDirection requested, boolean requestedForce) {
+            boolean directionCovered = direction == requested || direction == SyncDirection.BIDIRECTIONAL;
+            return directionCovered && (forceSync || !requestedForce);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import web.backend.project.repositories.SyncTombstoneRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Propagation des suppressions locales vers Firebase
+ *
+ * Chaque DELETE d'une entité synchronisable pose un tombstone (trigger, même
+ * transaction que la suppression). Les tombstones en attente sont propagés par
+ * WriteBatch de suppressions (push, outbox), puis conservés
+ * sync.tombstones.retention-days jours : tant qu'il existe, un document encore
+ * présent dans Firestore (client hors ligne, suppression pas encore propagée)
+ * n'est pas recréé par un pull mais supprimé à nouveau.
+ */
+@Service
+public class SyncTombstoneService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncTombstoneService.class);
+
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final FirebaseSyncService firebaseSyncService;
+    private final SyncFingerprintService fingerprintService;
+
+    // Durée de conservation d'un tombstone après propagation
+    @Value("${sync.tombstones.retention-days:30}")
+    private long retentionDays;
+
+    public SyncTombstoneService(SyncTombstoneRepository tombstoneRepository,
+            FirebaseSyncService firebaseSyncService,
+            SyncFingerprintService fingerprintService) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.firebaseSyncService = firebaseSyncService;
+        this.fingerprintService = fingerprintService;
+    }
+
+    /**
+     * Page suivante d'ids supprimés localement et pas encore propagés
+     *
+     * @param afterId Dernier id traité (0 pour la première page)
+     */
+    public List<Integer> findPending(String entityType, Integer afterId, int limit) {
+        return tombstoneRepository.findPendingIds(entityType, afterId, limit);
+    }
+
+    /**
+     * Parmi des ids, ceux supprimés localement (une requête)
+     */
+    public Set<Integer> findDeleted(String entityType, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(tombstoneRepository.findEntityIds(entityType, ids));
+    }
+
+    /**
+     * Supprime les documents de Firestore et marque leurs tombstones propagés
+     * (dans la transaction de l'appelant)
+     *
+     * @return Le rapport de suppression par document
+     */
+    public FirebaseSyncService.PushReport propagate(String entityType, List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new FirebaseSyncService.PushReport();
+        }
+
+        FirebaseSyncService.PushReport report = firebaseSyncService.deleteBatched(entityType, ids);
+        if (!report.getSucceeded().isEmpty()) {
+            tombstoneRepository.markPushed(entityType, report.getSucceeded());
+            fingerprintService.forget(entityType, report.getSucceeded());
+        }
+        if (report.hasFailures()) {
+            logger.warn("Failed to delete {} documents of type {} from Firebase: {}", report.getFailed().size(),
+                    entityType, report.getFailed());
+        }
+        return report;
+    }
+
+    /**
+     * Oublie les tombstones propagés depuis plus que la durée de rétention
+     */
+    public int purgeExpired() {
+        int purged = tombstoneRepository.deletePushedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            logger.info("Purged {} propagated tombstones older than {} days", purged, retentionDays);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,207 @@
+package web.backend.project.features.sync.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import web.backend.project.entities.SyncWatermark;
+import web.backend.project.entities.dto.FirebaseSerializable;
+import web.backend.project.repositories.SyncWatermarkRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Gestion des marques hautes du pull incrémental
+ * La marque est enregistrée dans la même transaction que les entités pullées :
+ * elle n'avance donc que si la page est effectivement committée en base
+ */
+@Service
+public class SyncWatermarkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncWatermarkService.class);
+
+    private static final Comparator<Position> POSITION_ORDER = Comparator
+            .comparing((Position p) -> p.lastModified)
+            .thenComparing(p -> p.documentId);
+
+    private final SyncWatermarkRepository watermarkRepository;
+
+    public SyncWatermarkService(SyncWatermarkRepository watermarkRepository) {
+        this.watermarkRepository = watermarkRepository;
+    }
+
+    /**
+     * Récupère la marque haute d'une collection (vide au premier pull)
+     */
+    public Optional<SyncWatermark> find(String collectionName) {
+        return watermarkRepository.findById(collectionName);
+    }
+
+    /**
+     * Démarre le suivi des documents traités pour une collection
+     */
+    public Tracker startTracking(String collectionName) {
+        return new Tracker(collectionName);
+    }
+
+    /**
+     * Fait avancer la marque haute jusqu'à la position calculée par le tracker
+     * La marque ne recule jamais
+     */
+    public void save(Tracker tracker) {
+        advance(tracker.collectionName, tracker.capped(tracker.all.getMark()));
+    }
+
+    /**
+     * Point de reprise en cours de pull incrémental : fait avancer la marque
+     * jusqu'aux seuls documents lus (les réécritures du push-back, postérieures
+     * aux documents restant à lire, ne sont prises en compte que par save)
+     */
+    public void checkpoint(Tracker tracker) {
+        advance(tracker.collectionName, tracker.capped(tracker.read.getMark()));
+    }
+
+    private void advance(String collectionName, Position newMark) {
+        if (newMark == null) {
+            return;
+        }
+
+        Optional<SyncWatermark> existing = watermarkRepository.findById(collectionName);
+        if (existing.isPresent()) {
+            Position current = new Position(existing.get().getLastModified(), existing.get().getLastDocumentId());
+            if (POSITION_ORDER.compare(newMark, current) <= 0) {
+                return;
+            }
+        }
+
+        SyncWatermark watermark = existing.orElseGet(SyncWatermark::new);
+        watermark.setCollectionName(collectionName);
+        watermark.setLastModified(newMark.lastModified);
+        watermark.setLastDocumentId(newMark.documentId);
+        watermark.setUpdatedAt(LocalDateTime.now());
+        watermarkRepository.save(watermark);
+        logger.debug("Watermark for {} advanced to ({}, {})", collectionName, newMark.lastModified,
+                newMark.documentId);
+    }
+
+    /**
+     * Suit les documents traités pendant un pull, page après page, en mémoire
+     * constante
+     *
+     * Dans l'ordre (last_modified, id document), la marque s'arrête juste avant
+     * le premier document en échec pour qu'il soit repris au prochain pull :
+     * c'est la plus grande position réussie strictement inférieure à la plus
+     * petite position en échec. Seules trois positions sont conservées ; quand
+     * un échec plus ancien invalide la position retenue, la marque reste en
+     * place (estimation prudente, les documents seront relus).
+     */
+    public static class Tracker {
+        private final String collectionName;
+        // Documents lus uniquement (points de reprise) / lus et repoussés (marque finale)
+        private final MarkState read = new MarkState();
+        private final MarkState all = new MarkState();
+        // Position que la marque ne dépasse pas (null : aucune limite)
+        private Position ceiling;
+
+        private Tracker(String collectionName) {
+            this.collectionName = collectionName;
+        }
+
+        /**
+         * Borne la marque juste avant les documents modifiés à partir de
+         * lastModified : ils seront relus au prochain pull incrémental
+         * (parcours complet repris après une interruption, dont les pages déjà
+         * traitées ont pu être modifiées entre-temps)
+         */
+        public void limitTo(String lastModified) {
+            ceiling = new Position(lastModified, "");
+        }
+
+        private Position capped(Position mark) {
+            if (mark == null || ceiling == null) {
+                return mark;
+            }
+            return POSITION_ORDER.compare(mark, ceiling) > 0 ? ceiling : mark;
+        }
+
+        /**
+         * Enregistre le résultat du traitement d'un document pullé
+         */
+        public void record(Map<String, Object> data, boolean success) {
+            Object lastModified = data.get(FirebaseSyncService.LAST_MODIFIED_FIELD);
+            Object documentId = data.get(FirebaseSyncService.FIREBASE_DOC_ID_FIELD);
+            // Seuls les documents portant un last_modified textuel participent à la marque
+            if (lastModified instanceof String && documentId != null) {
+                Position position = new Position((String) lastModified, documentId.toString());
+                read.record(position, success);
+                all.record(position, success);
+            }
+        }
+
+        /**
+         * Enregistre les DTOs réécrits dans Firebase (push-back) : la marque peut
+         * passer au-delà de ces écritures pour qu'elles ne soient pas relues
+         */
+        public void recordWritten(List<? extends FirebaseSerializable> dtos) {
+            for (FirebaseSerializable dto : dtos) {
+                if (dto.getId() != null && dto.getLastModified() != null) {
+                    all.record(new Position(dto.getLastModified().toString(), dto.getId().toString()), true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plus grande position réussie strictement inférieure au plus petit échec
+     */
+    private static class MarkState {
+        private Position lowestFailure;
+        private Position highestSuccess;
+        private Position highestSuccessBeforeFailure;
+
+        private void record(Position position, boolean success) {
+            if (success) {
+                if (highestSuccess == null || POSITION_ORDER.compare(position, highestSuccess) > 0) {
+                    highestSuccess = position;
+                }
+                if (lowestFailure != null && POSITION_ORDER.compare(position, lowestFailure) < 0
+                        && (highestSuccessBeforeFailure == null
+                                || POSITION_ORDER.compare(position, highestSuccessBeforeFailure) > 0)) {
+                    highestSuccessBeforeFailure = position;
+                }
+            } else if (lowestFailure == null || POSITION_ORDER.compare(position, lowestFailure) < 0) {
+                lowestFailure = position;
+                // Les succès déjà vus au-delà de ce nouvel échec ne comptent plus
+                if (highestSuccessBeforeFailure != null
+                        && POSITION_ORDER.compare(highestSuccessBeforeFailure, position) >= 0) {
+                    highestSuccessBeforeFailure = null;
+                }
+                if (highestSuccessBeforeFailure == null && highestSuccess != null
+                        && POSITION_ORDER.compare(highestSuccess, position) < 0) {
+                    highestSuccessBeforeFailure = highestSuccess;
+                }
+            }
+        }
+
+        private Position getMark() {
+            return lowestFailure == null ? highestSuccess : highestSuccessBeforeFailure;
+        }
+    }
+
+    /**
+     * Position d'un document dans l'ordre (last_modified, id document)
+     */
+    private static class Position {
+        private final String lastModified;
+        private final String documentId;
+
+        Position(String lastModified, String documentId) {
+            this.lastModified = lastModified;
+            this.documentId = documentId;
+        }
+    }
+}
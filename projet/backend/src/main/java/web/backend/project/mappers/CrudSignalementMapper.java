@@ -2,7 +2,9 @@ package web.backend.project.mappers;
 
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.io.ParseException;
@@ -22,6 +24,10 @@ import web.backend.project.repositories.AvancementSignalementRepo;
 @Component
 public class CrudSignalementMapper {
     
+    // Signalements par requête d'avancements (reste sous la limite de paramètres
+    // liés de PostgreSQL)
+    private static final int AVANCEMENT_BATCH_SIZE = 10_000;
+
     private final WKTReader wktReader = new WKTReader();
     private final WKTWriter wktWriter = new WKTWriter();
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -79,6 +85,36 @@ public class CrudSignalementMapper {
      * Convertit une entité Signalement en SignalementResponseDTO
      */
     public SignalementResponseDTO toResponseDTO(Signalement signalement) {
+        return toResponseDTOs(List.of(signalement)).get(0);
+    }
+
+    /**
+     * Convertit une liste de signalements en SignalementResponseDTO
+     * Les avancements de toute la liste sont chargés avec leur utilisateur et leur
+     * statut en une requête (par tranche de AVANCEMENT_BATCH_SIZE signalements) ;
+     * créateur et entreprise doivent être chargés avec les signalements
+     * (EntityGraph de SignalementRepository) pour éviter une requête par ligne
+     */
+    public List<SignalementResponseDTO> toResponseDTOs(List<Signalement> signalements) {
+        if (signalements.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, List<AvancementResponseDTO>> avancementsBySignalement = findAvancements(signalements);
+
+        List<SignalementResponseDTO> dtos = new ArrayList<>(signalements.size());
+        for (Signalement signalement : signalements) {
+            SignalementResponseDTO dto = toBaseDTO(signalement);
+            dto.setAvancements(avancementsBySignalement.getOrDefault(signalement.getId(), new ArrayList<>()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    /**
+     * Champs propres du signalement, créateur et entreprise
+     */
+    private SignalementResponseDTO toBaseDTO(Signalement signalement) {
         SignalementResponseDTO dto = new SignalementResponseDTO();
         dto.setId(signalement.getId());
         dto.setDateCreation(signalement.getDateCreation());
@@ -103,32 +139,51 @@ public class CrudSignalementMapper {
             dto.setNomEntreprise(signalement.getEntreprise().getNom());
         }
         
-        // Récupérer et convertir les avancements
-        List<AvancementSignalement> avancements = avancementSignalementRepo
-            .findBySignalement_IdOrderByDateModificationDesc(signalement.getId());
-        
-        List<AvancementResponseDTO> avancementDTOs = new ArrayList<>();
-        for (AvancementSignalement avancement : avancements) {
-            AvancementResponseDTO avancementDTO = new AvancementResponseDTO();
-            avancementDTO.setId(avancement.getId());
-            avancementDTO.setDateModification(avancement.getDateModification().format(dateFormatter));
-            
-            if (avancement.getUtilisateur() != null) {
-                avancementDTO.setIdUtilisateur(avancement.getUtilisateur().getId());
-                avancementDTO.setEmailUtilisateur(avancement.getUtilisateur().getEmail());
+        return dto;
+    }
+
+    /**
+     * Avancements des signalements, par id de signalement (ordre de date de
+     * modification décroissante conservé)
+     */
+    private Map<Integer, List<AvancementResponseDTO>> findAvancements(List<Signalement> signalements) {
+        List<Integer> ids = new ArrayList<>(signalements.size());
+        for (Signalement signalement : signalements) {
+            if (signalement.getId() != null) {
+                ids.add(signalement.getId());
             }
-            
-            if (avancement.getStatutAvancement() != null) {
-                avancementDTO.setIdStatutAvancement(avancement.getStatutAvancement().getId());
-                avancementDTO.setNomStatutAvancement(avancement.getStatutAvancement().getNom());
-                avancementDTO.setValeurStatutAvancement(avancement.getStatutAvancement().getValeur());
+        }
+
+        Map<Integer, List<AvancementResponseDTO>> avancementsBySignalement = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += AVANCEMENT_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(from + AVANCEMENT_BATCH_SIZE, ids.size()));
+            List<AvancementSignalement> avancements = avancementSignalementRepo
+                    .findWithRelationsBySignalementIds(batch);
+            for (AvancementSignalement avancement : avancements) {
+                avancementsBySignalement
+                        .computeIfAbsent(avancement.getSignalement().getId(), id -> new ArrayList<>())
+                        .add(toAvancementDTO(avancement));
             }
-            
-            avancementDTOs.add(avancementDTO);
+        }
+        return avancementsBySignalement;
+    }
+
+    private AvancementResponseDTO toAvancementDTO(AvancementSignalement avancement) {
+        AvancementResponseDTO avancementDTO = new AvancementResponseDTO();
+        avancementDTO.setId(avancement.getId());
+        avancementDTO.setDateModification(avancement.getDateModification().format(dateFormatter));
+        
+        if (avancement.getUtilisateur() != null) {
+            avancementDTO.setIdUtilisateur(avancement.getUtilisateur().getId());
+            avancementDTO.setEmailUtilisateur(avancement.getUtilisateur().getEmail());
         }
         
-        dto.setAvancements(avancementDTOs);
+        if (avancement.getStatutAvancement() != null) {
+            avancementDTO.setIdStatutAvancement(avancement.getStatutAvancement().getId());
+            avancementDTO.setNomStatutAvancement(avancement.getStatutAvancement().getNom());
+            avancementDTO.setValeurStatutAvancement(avancement.getStatutAvancement().getValeur());
+        }
         
-        return dto;
+        return avancementDTO;
     }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package web.backend.project.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import web.backend.project.entities.AvancementSignalement;
@@ -20,4 +24,18 @@ public interface AvancementSignalementRepo extends JpaRepository<AvancementSigna
      * Récupère tous les avancements d'un signalement par ID, triés par date de modification décroissante
      */
     List<AvancementSignalement> findBySignalement_IdOrderByDateModificationDesc(Integer signalementId);
+
+    /**
+     * Avancements d'un lot de signalements avec leur utilisateur et leur statut,
+     * en une requête, triés par date de modification décroissante
+     */
+    @Query("SELECT a FROM AvancementSignalement a LEFT JOIN FETCH a.utilisateur LEFT JOIN FETCH a.statutAvancement "
+            + "WHERE a.signalement.id IN :signalementIds ORDER BY a.dateModification DESC, a.id DESC")
+    List<AvancementSignalement> findWithRelationsBySignalementIds(
+            @Param("signalementIds") Collection<Integer> signalementIds);
+
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<AvancementSignalement> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
 }
@@ -1,5 +1,8 @@
 package web.backend.project.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,4 +11,8 @@ import web.backend.project.entities.Entreprise;
 @Repository
 public interface EntrepriseRepository extends JpaRepository<Entreprise, Integer> {
 
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<Entreprise> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
 }
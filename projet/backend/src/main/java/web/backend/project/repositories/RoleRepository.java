@@ -1,9 +1,17 @@
 package web.backend.project.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import web.backend.project.entities.Role;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<Role> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
 }
@@ -1,42 +1,155 @@
 package web.backend.project.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import web.backend.project.entities.Signalement;
 
+import org.locationtech.jts.geom.Geometry;
+
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SignalementRepository extends JpaRepository<Signalement, Integer> {
+public interface SignalementRepository extends JpaRepository<Signalement, Integer>, SignalementRepositoryCustom {
+
+    // Les recherches ci-dessous chargent le créateur et l'entreprise dans la même
+    // requête (lecture des listes sans requête par signalement)
+
+    // Tous les signalements
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
+    @Query("SELECT s FROM Signalement s")
+    List<Signalement> findAllWithRelations();
 
     // Recherche par entreprise
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     List<Signalement> findByEntrepriseId(Integer entrepriseId);
 
     // Recherche par utilisateur créateur
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     List<Signalement> findByUtilisateurCreateurId(Integer utilisateurId);
 
     // Recherche par statut de synchronisation
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     List<Signalement> findBySynchro(Boolean synchro);
 
     // Recherche par budget minimum
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     List<Signalement> findByBudgetGreaterThanEqual(Integer budgetMin);
 
     // Recherche par surface minimum
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     List<Signalement> findBySurfaceGreaterThanEqual(Double surfaceMin);
 
     // Recherche par entreprise et synchro
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     List<Signalement> findByEntrepriseIdAndSynchro(Integer entrepriseId, Boolean synchro);
 
     // Recherche avec budget entre deux valeurs
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     @Query("SELECT s FROM Signalement s WHERE s.budget BETWEEN :minBudget AND :maxBudget")
     List<Signalement> findByBudgetBetween(@Param("minBudget") Integer minBudget,
             @Param("maxBudget") Integer maxBudget);
 
     // Recherche avec surface entre deux valeurs
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
     @Query("SELECT s FROM Signalement s WHERE s.surface BETWEEN :minSurface AND :maxSurface")
     List<Signalement> findBySurfaceBetween(@Param("minSurface") Double minSurface,
             @Param("maxSurface") Double maxSurface);
-}
\ No newline at end of file
+
+    /**
+     * Ids des signalements dont la localisation intersecte l'emprise (WGS 84),
+     * par id croissant
+     * Le filtre && sur la colonne geography utilise l'index GIST
+     * idx_signalement_localisation ; ST_Intersects affine sur les candidats en
+     * géométrie (degrés) : l'emprise garde ses bords méridiens et parallèles,
+     * alors qu'en geography ses côtés deviendraient des arcs de grand cercle.
+     * statutId filtre sur le statut du dernier avancement.
+     */
+    @Query(value = "SELECT s.id FROM signalements s "
+            + "WHERE s.localisation && CAST(ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326) AS geography) "
+            + "AND ST_Intersects(CAST(s.localisation AS geometry), "
+            + "ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326)) "
+            + "AND (CAST(:entrepriseId AS INTEGER) IS NULL OR s.id_entreprise = :entrepriseId) "
+            + "AND (CAST(:statutId AS INTEGER) IS NULL OR (SELECT a.id_statut_avancement "
+            + "FROM avancements_signalement a WHERE a.id_signalement = s.id "
+            + "ORDER BY a.date_modification DESC, a.id DESC LIMIT 1) = :statutId) "
+            + "ORDER BY s.id LIMIT :limit", nativeQuery = true)
+    List<Integer> findIdsInBbox(@Param("minLon") double minLon, @Param("minLat") double minLat,
+            @Param("maxLon") double maxLon, @Param("maxLat") double maxLat,
+            @Param("entrepriseId") Integer entrepriseId, @Param("statutId") Integer statutId,
+            @Param("limit") int limit);
+
+    /**
+     * Regroupement sur grille des signalements d'une emprise (tuile de carte)
+     * Chaque cellule de cellWidth x cellHeight degrés, alignée sur le coin sud-ouest,
+     * donne une ligne [nombre, longitude moyenne, latitude moyenne, budget total,
+     * surface totale, plus petit id]. Bornes ouest et nord incluses, est et sud
+     * exclues (comme WebMercatorTiles) : un signalement n'appartient qu'à une
+     * tuile. Le filtre && est planaire (index idx_signalement_localisation_geom) :
+     * l'emprise d'une tuile de zoom 0 ou 1 (180° et plus) dégénère en geography.
+     */
+    @Query(value = "SELECT COUNT(*), AVG(ST_X(t.g)), AVG(ST_Y(t.g)), SUM(t.budget), SUM(t.surface), MIN(t.id) "
+            + "FROM (SELECT s.id, s.budget, s.surface, ST_Centroid(CAST(s.localisation AS geometry)) AS g "
+            + "FROM signalements s "
+            + "WHERE CAST(s.localisation AS geometry) && ST_MakeEnvelope(:west, :south, :east, :north, 4326)) t "
+            + "WHERE ST_X(t.g) >= :west AND ST_X(t.g) < :east AND ST_Y(t.g) > :south AND ST_Y(t.g) <= :north "
+            + "GROUP BY FLOOR((ST_X(t.g) - :west) / :cellWidth), FLOOR((ST_Y(t.g) - :south) / :cellHeight)",
+            nativeQuery = true)
+    List<Object[]> findGridClusters(@Param("west") double west, @Param("south") double south,
+            @Param("east") double east, @Param("north") double north,
+            @Param("cellWidth") double cellWidth, @Param("cellHeight") double cellHeight);
+
+    /**
+     * Signalements d'une emprise, un par ligne, au même format que
+     * findGridClusters (nombre 1, id du signalement)
+     */
+    @Query(value = "SELECT 1, ST_X(t.g), ST_Y(t.g), t.budget, t.surface, t.id "
+            + "FROM (SELECT s.id, s.budget, s.surface, ST_Centroid(CAST(s.localisation AS geometry)) AS g "
+            + "FROM signalements s "
+            + "WHERE CAST(s.localisation AS geometry) && ST_MakeEnvelope(:west, :south, :east, :north, 4326)) t "
+            + "WHERE ST_X(t.g) >= :west AND ST_X(t.g) < :east AND ST_Y(t.g) > :south AND ST_Y(t.g) <= :north "
+            + "ORDER BY t.id", nativeQuery = true)
+    List<Object[]> findPoints(@Param("west") double west, @Param("south") double south,
+            @Param("east") double east, @Param("north") double north);
+
+    /**
+     * Tuile vectorielle (Mapbox Vector Tile) de la couche "signalements"
+     * Une entité par signalement dont la localisation intersecte l'emprise
+     * [west, south, east, north] (tuile élargie de sa marge, WGS 84) ; géométrie
+     * en coordonnées de tuile (extent 4096, marge de buffer), identifiant id,
+     * attributs statut (dernier avancement), budget et entreprise. Filtre &&
+     * planaire comme findGridClusters (tuile monde du zoom 0 comprise).
+     * Renvoie une tuile vide (ou null) si aucun signalement n'est dans la tuile.
+     */
+    @Query(value = "SELECT ST_AsMVT(t, 'signalements', 4096, 'geom', 'id') FROM ("
+            + "SELECT s.id, s.budget, e.nom AS entreprise, "
+            + "(SELECT st.nom FROM avancements_signalement a "
+            + "JOIN statuts_avancement st ON st.id = a.id_statut_avancement WHERE a.id_signalement = s.id "
+            + "ORDER BY a.date_modification DESC, a.id DESC LIMIT 1) AS statut, "
+            + "ST_AsMVTGeom(ST_Transform(CAST(s.localisation AS geometry), 3857), ST_TileEnvelope(:z, :x, :y), "
+            + "4096, :buffer, true) AS geom "
+            + "FROM signalements s JOIN entreprises e ON e.id = s.id_entreprise "
+            + "WHERE CAST(s.localisation AS geometry) && ST_MakeEnvelope(:west, :south, :east, :north, 4326)) t "
+            + "WHERE t.geom IS NOT NULL", nativeQuery = true)
+    byte[] findVectorTile(@Param("z") int z, @Param("x") int x, @Param("y") int y, @Param("buffer") int buffer,
+            @Param("west") double west, @Param("south") double south,
+            @Param("east") double east, @Param("north") double north);
+
+    // Localisations de signalements (invalidation des tuiles en cache)
+    @Query("SELECT s.localisation FROM Signalement s WHERE s.id IN :ids")
+    List<Geometry> findLocalisationsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Signalements par ids avec créateur et entreprise, par id croissant
+    @EntityGraph(attributePaths = { "utilisateurCreateur", "entreprise" })
+    List<Signalement> findByIdInOrderByIdAsc(Collection<Integer> ids);
+
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<Signalement> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
+}
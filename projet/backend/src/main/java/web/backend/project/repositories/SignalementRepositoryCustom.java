@@ -0,0 +1,191 @@
+package web.backend.project.repositories;
+
+import web.backend.project.entities.Signalement;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Lecture paginée par clé (keyset) des signalements
+ * Chaque page reprend strictement après le dernier couple (clé de tri, id) de
+ * la précédente : une page profonde coûte autant que la première
+ */
+public interface SignalementRepositoryCustom {
+
+    /**
+     * Page de signalements correspondant au filtre, créateur et entreprise
+     * chargés dans la même requête
+     *
+     * @param after Position de reprise (null pour la première page)
+     * @param limit Nombre maximal de lignes
+     */
+    List<Signalement> findPage(Filter filter, SortKey sortKey, boolean descending, Keyset after, int limit);
+
+    /**
+     * Nombre de signalements correspondant au filtre
+     */
+    long countMatching(Filter filter);
+
+    /**
+     * Clés de tri autorisées (départagées par l'id)
+     */
+    enum SortKey {
+        ID("id", Integer::valueOf),
+        BUDGET("budget", Integer::valueOf),
+        SURFACE("surface", Double::valueOf),
+        DATE_CREATION("dateCreation", value -> value);
+
+        private final String attribute;
+        private final Function<String, Comparable<?>> parser;
+
+        SortKey(String attribute, Function<String, Comparable<?>> parser) {
+            this.attribute = attribute;
+            this.parser = parser;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * Valeur de la clé lue depuis sa forme textuelle (curseur)
+         */
+        public Comparable<?> parse(String value) {
+            return parser.apply(value);
+        }
+
+        /**
+         * Valeur de la clé pour un signalement
+         */
+        public Object valueOf(Signalement signalement) {
+            switch (this) {
+                case BUDGET:
+                    return signalement.getBudget();
+                case SURFACE:
+                    return signalement.getSurface();
+                case DATE_CREATION:
+                    return signalement.getDateCreation();
+                case ID:
+                default:
+                    return signalement.getId();
+            }
+        }
+    }
+
+    /**
+     * Position de reprise : valeur de la clé de tri et id du dernier signalement
+     */
+    class Keyset {
+        private final Comparable<?> value;
+        private final Integer id;
+
+        public Keyset(Comparable<?> value, Integer id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        public Comparable<?> getValue() {
+            return value;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Critères de recherche (null : critère ignoré)
+     */
+    class Filter {
+        private Integer entrepriseId;
+        private Integer utilisateurId;
+        private Boolean synchro;
+        private Integer budgetMin;
+        private Integer budgetMax;
+        private Double surfaceMin;
+        private Double surfaceMax;
+
+        public static Filter all() {
+            return new Filter();
+        }
+
+        public Filter entreprise(Integer entrepriseId) {
+            this.entrepriseId = entrepriseId;
+            return this;
+        }
+
+        public Filter utilisateur(Integer utilisateurId) {
+            this.utilisateurId = utilisateurId;
+            return this;
+        }
+
+        public Filter synchro(Boolean synchro) {
+            this.synchro = synchro;
+            return this;
+        }
+
+        public Filter budget(Integer min, Integer max) {
+            this.budgetMin = min;
+            this.budgetMax = max;
+            return this;
+        }
+
+        public Filter surface(Double min, Double max) {
+            this.surfaceMin = min;
+            this.surfaceMax = max;
+            return this;
+        }
+
+        public Integer getEntrepriseId() {
+            return entrepriseId;
+        }
+
+        public Integer getUtilisateurId() {
+            return utilisateurId;
+        }
+
+        public Boolean getSynchro() {
+            return synchro;
+        }
+
+        public Integer getBudgetMin() {
+            return budgetMin;
+        }
+
+        public Integer getBudgetMax() {
+            return budgetMax;
+        }
+
+        public Double getSurfaceMin() {
+            return surfaceMin;
+        }
+
+        public Double getSurfaceMax() {
+            return surfaceMax;
+        }
+
+        /**
+         * Forme canonique du filtre (clé du cache des totaux, empreinte des
+         * curseurs)
+         */
+        public String key() {
+            return "e=" + entrepriseId + ";u=" + utilisateurId + ";s=" + synchro + ";b=" + budgetMin + ".."
+                    + budgetMax + ";a=" + surfaceMin + ".." + surfaceMax;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            return key().equals(((Filter) o).key());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key());
+        }
+    }
+}
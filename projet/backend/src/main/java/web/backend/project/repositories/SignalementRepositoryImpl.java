@@ -0,0 +1,105 @@
+package web.backend.project.repositories;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import web.backend.project.entities.Signalement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implémentation Criteria de SignalementRepositoryCustom (fragment de
+ * SignalementRepository)
+ */
+public class SignalementRepositoryImpl implements SignalementRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<Signalement> findPage(Filter filter, SortKey sortKey, boolean descending, Keyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Signalement> query = cb.createQuery(Signalement.class);
+        Root<Signalement> root = query.from(Signalement.class);
+
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        Expression<Integer> id = root.get("id");
+        Expression key = root.get(sortKey.getAttribute());
+
+        // (clé, id) strictement après la position de reprise, dans le sens du tri.
+        // Le OR seul n'est pas une borne d'index : la borne simple clé >= valeur
+        // (<= en tri décroissant) devient la condition d'accès de l'index (clé, id)
+        // et le OR n'écarte plus que les lignes de même clé déjà lues
+        if (after != null) {
+            Comparable value = after.getValue();
+            if (sortKey == SortKey.ID) {
+                predicates.add(descending ? cb.lessThan(id, after.getId()) : cb.greaterThan(id, after.getId()));
+            } else {
+                Predicate fromKey = descending ? cb.lessThanOrEqualTo(key, value)
+                        : cb.greaterThanOrEqualTo(key, value);
+                Predicate beyondKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+                Predicate beyondId = descending ? cb.lessThan(id, after.getId()) : cb.greaterThan(id, after.getId());
+                predicates.add(fromKey);
+                predicates.add(cb.or(beyondKey, cb.and(cb.equal(key, value), beyondId)));
+            }
+        }
+
+        query.select(root).where(predicates.toArray(new Predicate[0]));
+        if (sortKey == SortKey.ID) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        EntityGraph<Signalement> graph = entityManager.createEntityGraph(Signalement.class);
+        graph.addAttributeNodes("utilisateurCreateur", "entreprise");
+
+        return entityManager.createQuery(query)
+                .setHint("jakarta.persistence.fetchgraph", graph)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countMatching(Filter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Signalement> root = query.from(Signalement.class);
+        query.select(cb.count(root)).where(filterPredicates(cb, root, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Signalement> root, Filter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getEntrepriseId() != null) {
+            predicates.add(cb.equal(root.get("entreprise").get("id"), filter.getEntrepriseId()));
+        }
+        if (filter.getUtilisateurId() != null) {
+            predicates.add(cb.equal(root.get("utilisateurCreateur").get("id"), filter.getUtilisateurId()));
+        }
+        if (filter.getSynchro() != null) {
+            predicates.add(cb.equal(root.get("synchro"), filter.getSynchro()));
+        }
+        if (filter.getBudgetMin() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("budget"), filter.getBudgetMin()));
+        }
+        if (filter.getBudgetMax() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("budget"), filter.getBudgetMax()));
+        }
+        if (filter.getSurfaceMin() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("surface"), filter.getSurfaceMin()));
+        }
+        if (filter.getSurfaceMax() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("surface"), filter.getSurfaceMax()));
+        }
+        return predicates;
+    }
+}
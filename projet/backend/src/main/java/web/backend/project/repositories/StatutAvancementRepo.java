@@ -1,5 +1,8 @@
 package web.backend.project.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,4 +11,8 @@ import web.backend.project.entities.StatutAvancement;
 @Repository
 public interface StatutAvancementRepo extends JpaRepository<StatutAvancement, Integer> {
 
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<StatutAvancement> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncCheckpoint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, Long> {
+
+    /**
+     * Dernier point de reprise resté en cours pour un type et une phase
+     */
+    Optional<SyncCheckpoint> findFirstByEntityTypeAndPhaseAndStatusOrderByIdDesc(String entityType, String phase,
+            String status);
+
+    List<SyncCheckpoint> findByRunIdInOrderByIdAsc(Collection<Long> runIds);
+}
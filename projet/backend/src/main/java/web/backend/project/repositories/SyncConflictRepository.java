@@ -0,0 +1,28 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncConflict;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncConflictRepository extends JpaRepository<SyncConflict, Long> {
+
+    /**
+     * Dates de dernière modification locale (table sync_local_versions, tenue
+     * par le trigger d'outbox) : lignes [entity_id, modified_at]
+     */
+    @Query(value = "SELECT entity_id, modified_at FROM sync_local_versions "
+            + "WHERE entity_type = :entityType AND entity_id IN (:ids)", nativeQuery = true)
+    List<Object[]> findLocalVersions(@Param("entityType") String entityType, @Param("ids") Collection<Integer> ids);
+
+    List<SyncConflict> findByEntityTypeOrderByIdDesc(String entityType, Pageable pageable);
+
+    List<SyncConflict> findAllByOrderByIdDesc(Pageable pageable);
+}
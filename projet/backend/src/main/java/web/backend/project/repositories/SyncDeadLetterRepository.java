@@ -0,0 +1,40 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncDeadLetter;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncDeadLetterRepository extends JpaRepository<SyncDeadLetter, Long> {
+
+    /**
+     * Enregistre un échec : crée la ligne du document ou incrémente ses tentatives
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sync_dead_letters(entity_type, document_id, error) "
+            + "VALUES (:entityType, :documentId, :error) "
+            + "ON CONFLICT (entity_type, document_id) DO UPDATE SET error = EXCLUDED.error, "
+            + "attempts = sync_dead_letters.attempts + 1, last_failed_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int upsert(@Param("entityType") String entityType, @Param("documentId") String documentId,
+            @Param("error") String error);
+
+    /**
+     * Retire les documents intégrés avec succès (une requête par page)
+     */
+    @Modifying
+    @Query("DELETE FROM SyncDeadLetter d WHERE d.entityType = :entityType AND d.documentId IN :documentIds")
+    int deleteByDocumentIds(@Param("entityType") String entityType,
+            @Param("documentIds") Collection<String> documentIds);
+
+    List<SyncDeadLetter> findByEntityTypeOrderByIdAsc(String entityType, Pageable pageable);
+
+    List<SyncDeadLetter> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncFingerprint;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncFingerprintRepository extends JpaRepository<SyncFingerprint, SyncFingerprint.Key> {
+
+    /** Empreintes connues d'une page de documents d'une collection */
+    List<SyncFingerprint> findByCollectionNameAndDocumentIdIn(String collectionName, Collection<String> documentIds);
+
+    /** Oublie les empreintes de documents supprimés de Firestore */
+    @Modifying
+    @Query("DELETE FROM SyncFingerprint f WHERE f.collectionName = :collectionName AND f.documentId IN :documentIds")
+    int deleteByDocumentIds(@Param("collectionName") String collectionName,
+            @Param("documentIds") Collection<String> documentIds);
+}
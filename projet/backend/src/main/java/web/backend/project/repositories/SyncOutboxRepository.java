@@ -0,0 +1,34 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncOutboxEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncOutboxRepository extends JpaRepository<SyncOutboxEntry, Long> {
+
+    /**
+     * Réserve un lot de lignes prêtes, verrouillées jusqu'à la fin de la
+     * transaction ; les lignes déjà réservées par un autre drainer sont sautées
+     */
+    @Query(value = "SELECT * FROM sync_outbox WHERE available_at <= CURRENT_TIMESTAMP "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<SyncOutboxEntry> claimBatch(@Param("limit") int limit);
+
+    /**
+     * Reporte des lignes en échec de delaySeconds secondes
+     */
+    @Modifying
+    @Query(value = "UPDATE sync_outbox SET attempts = attempts + 1, last_error = :error, "
+            + "available_at = CURRENT_TIMESTAMP + make_interval(secs => :delaySeconds) "
+            + "WHERE id IN (:ids)", nativeQuery = true)
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("error") String error,
+            @Param("delaySeconds") double delaySeconds);
+}
@@ -0,0 +1,34 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncRun;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncRunRepository extends JpaRepository<SyncRun, Long> {
+
+    List<SyncRun> findAllByOrderByIdDesc(Pageable pageable);
+
+    /**
+     * Marque interrompue une exécution restée RUNNING (arrêt du backend)
+     */
+    @Modifying
+    @Query("UPDATE SyncRun r SET r.status = 'INTERRUPTED' WHERE r.id = :id AND r.status = 'RUNNING'")
+    int markInterrupted(@Param("id") Long id);
+
+    /**
+     * Oublie les exécutions terminées avant la date limite (points de reprise
+     * supprimés en cascade)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM sync_runs WHERE finished_at < :limit", nativeQuery = true)
+    int deleteFinishedBefore(@Param("limit") LocalDateTime limit);
+}
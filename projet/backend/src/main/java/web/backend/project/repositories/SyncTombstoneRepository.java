@@ -0,0 +1,47 @@
+package web.backend.project.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import web.backend.project.entities.SyncTombstone;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    /**
+     * Ids supprimés localement et pas encore supprimés de Firestore (keyset sur
+     * entity_id)
+     */
+    @Query(value = "SELECT entity_id FROM sync_tombstones WHERE entity_type = :entityType "
+            + "AND pushed_at IS NULL AND entity_id > :afterId ORDER BY entity_id LIMIT :limit", nativeQuery = true)
+    List<Integer> findPendingIds(@Param("entityType") String entityType, @Param("afterId") Integer afterId,
+            @Param("limit") int limit);
+
+    /**
+     * Parmi une page d'ids, ceux qui ont été supprimés localement
+     */
+    @Query("SELECT t.entityId FROM SyncTombstone t WHERE t.entityType = :entityType AND t.entityId IN :ids")
+    List<Integer> findEntityIds(@Param("entityType") String entityType, @Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("UPDATE SyncTombstone t SET t.pushedAt = CURRENT_TIMESTAMP "
+            + "WHERE t.entityType = :entityType AND t.entityId IN :ids")
+    int markPushed(@Param("entityType") String entityType, @Param("ids") Collection<Integer> ids);
+
+    /**
+     * Oublie les suppressions propagées avant la date limite
+     */
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.pushedAt < :limit")
+    int deletePushedBefore(@Param("limit") LocalDateTime limit);
+
+    @Query("SELECT COUNT(t) FROM SyncTombstone t WHERE t.pushedAt IS NULL")
+    long countPending();
+}
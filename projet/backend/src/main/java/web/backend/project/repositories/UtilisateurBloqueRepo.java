@@ -1,5 +1,8 @@
 package web.backend.project.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,4 +17,9 @@ public interface UtilisateurBloqueRepo extends JpaRepository<UtilisateurBloque,
     boolean existsByUtilisateurId(Integer utilisateurId);
 
     void deleteByUtilisateurId(Integer utilisateurId);
+
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<UtilisateurBloque> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
 }
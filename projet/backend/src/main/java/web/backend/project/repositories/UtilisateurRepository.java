@@ -1,5 +1,8 @@
 package web.backend.project.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +12,8 @@ import web.backend.project.entities.Utilisateur;
 public interface UtilisateurRepository extends JpaRepository<Utilisateur, Integer> {
     java.util.Optional<Utilisateur> findByEmail(String email);
 
+    /**
+     * Page d'entités non synchronisées, parcourue par clé (id croissant)
+     */
+    List<Utilisateur> findBySynchroFalseAndIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
 }
@@ -0,0 +1,305 @@
+package web.backend.project.utils;
+
+import com.google.cloud.Timestamp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Décodage des valeurs des documents Firebase (dates, nombres)
+ *
+ * Chemin nominal sans exception ni allocation superflue : les dates textuelles
+ * sont lues caractère par caractère (ISO "2026-02-07T12:39:22[.fraction]" ou
+ * "2026-02-07 12:39:22"), les entiers sans Integer.parseInt, les réels après
+ * contrôle de leur format. Une valeur malformée donne null (ou la valeur par
+ * défaut des variantes primitives).
+ */
+public final class FirebaseValueDecoder {
+
+    private static final int[] POW10 = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+            100_000_000, 1_000_000_000 };
+
+    private FirebaseValueDecoder() {
+    }
+
+    // ========== Dates ==========
+
+    /**
+     * Convertit une valeur Firebase en LocalDateTime
+     * Accepte les chaînes ISO ou séparées par un espace, les Timestamp Firestore,
+     * les Date et les LocalDateTime (fuseau système pour les instants)
+     *
+     * @return la date, ou null si la valeur est absente ou illisible
+     */
+    public static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            return parseDateTime((String) value);
+        }
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()),
+                    ZoneId.systemDefault());
+        }
+        if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        return null;
+    }
+
+    /**
+     * Lit "yyyy-MM-dd(T| )HH:mm[:ss[.fraction]]" (espaces de bord ignorés)
+     *
+     * @return la date, ou null si le texte ne respecte pas ce format
+     */
+    public static LocalDateTime parseDateTime(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 16) {
+            return null;
+        }
+
+        char separator = text.charAt(start + 10);
+        if (text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-' || text.charAt(start + 13) != ':'
+                || (separator != 'T' && separator != 't' && separator != ' ')) {
+            return null;
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+
+        int second = 0;
+        int nano = 0;
+        int pos = start + 16;
+        if (pos < end) {
+            if (end - pos < 3 || text.charAt(pos) != ':') {
+                return null;
+            }
+            second = digits(text, pos + 1, 2);
+            pos += 3;
+            if (pos < end) {
+                int fractionLength = end - pos - 1;
+                if (text.charAt(pos) != '.' || fractionLength < 1 || fractionLength > 9) {
+                    return null;
+                }
+                int fraction = digits(text, pos + 1, fractionLength);
+                if (fraction < 0) {
+                    return null;
+                }
+                nano = fraction * POW10[9 - fractionLength];
+            }
+        }
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59 || day > lengthOfMonth(year, month)) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    // ========== Nombres ==========
+
+    /**
+     * Entier d'une valeur Firebase (Long Firestore, Double tronqué, texte)
+     *
+     * @return l'entier, ou null si la valeur est absente ou illisible
+     */
+    public static Integer toInteger(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            long parsed = parseInt((String) value);
+            return parsed != Long.MIN_VALUE ? Integer.valueOf((int) parsed) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Variante primitive de toInteger : aucune boîte allouée
+     *
+     * @param defaultValue valeur retournée si la valeur est absente ou illisible
+     */
+    public static int intOr(Object value, int defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            long parsed = parseInt((String) value);
+            return parsed != Long.MIN_VALUE ? (int) parsed : defaultValue;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Réel d'une valeur Firebase (nombre ou texte)
+     *
+     * @return le réel, ou null si la valeur est absente ou illisible
+     */
+    public static Double toDouble(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            double parsed = parseDouble((String) value);
+            return Double.isNaN(parsed) ? null : parsed;
+        }
+        return null;
+    }
+
+    /**
+     * Variante primitive de toDouble : aucune boîte allouée
+     *
+     * @param defaultValue valeur retournée si la valeur est absente ou illisible
+     */
+    public static double doubleOr(Object value, double defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            double parsed = parseDouble((String) value);
+            return Double.isNaN(parsed) ? defaultValue : parsed;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Entier signé en base 10 tenant dans un int
+     *
+     * @return la valeur, ou Long.MIN_VALUE si le texte n'est pas un int
+     */
+    private static long parseInt(String text) {
+        int length = text.length();
+        if (length == 0 || length > 11) {
+            return Long.MIN_VALUE;
+        }
+        int pos = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos = 1;
+            if (length == 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long result = 0;
+        for (; pos < length; pos++) {
+            int digit = text.charAt(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            result = result * 10 + digit;
+        }
+        result = negative ? -result : result;
+        return result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE ? result : Long.MIN_VALUE;
+    }
+
+    /**
+     * Réel décimal signé, exposant facultatif ("-12.5", ".5", "3e4")
+     * Le format est contrôlé avant Double.parseDouble, qui ne peut donc plus
+     * lever d'exception ; "NaN", "Infinity", l'hexadécimal et les espaces de
+     * bord sont refusés
+     *
+     * @return la valeur, ou NaN si le texte n'est pas un réel décimal
+     */
+    private static double parseDouble(String text) {
+        return isDecimal(text) ? Double.parseDouble(text) : Double.NaN;
+    }
+
+    private static boolean isDecimal(String text) {
+        int length = text.length();
+        int pos = 0;
+        if (pos < length && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+            pos++;
+        }
+        int mantissaDigits = 0;
+        while (pos < length && isDigit(text.charAt(pos))) {
+            pos++;
+            mantissaDigits++;
+        }
+        if (pos < length && text.charAt(pos) == '.') {
+            pos++;
+            while (pos < length && isDigit(text.charAt(pos))) {
+                pos++;
+                mantissaDigits++;
+            }
+        }
+        if (mantissaDigits == 0) {
+            return false;
+        }
+        if (pos < length && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            if (pos < length && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+                pos++;
+            }
+            int exponentDigits = 0;
+            while (pos < length && isDigit(text.charAt(pos))) {
+                pos++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return pos == length;
+    }
+
+    // ========== Helpers ==========
+
+    /**
+     * Valeur de count chiffres à partir de offset, ou -1 si un caractère n'est
+     * pas un chiffre
+     */
+    private static int digits(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return Year.isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package web.backend.project.utils;
+
+/**
+ * Calculs de tuiles XYZ (Web Mercator, EPSG:3857 ; schéma des tuiles de la
+ * carte web)
+ * Les longitudes et latitudes sont en degrés WGS 84 ; la latitude est bornée
+ * à la limite de la projection.
+ */
+public final class WebMercatorTiles {
+
+    // Latitude maximale représentable en Web Mercator
+    public static final double MAX_LATITUDE = 85.0511287798066;
+
+    public static final int MAX_ZOOM = 22;
+
+    private WebMercatorTiles() {
+    }
+
+    /**
+     * Colonne de la tuile contenant la longitude
+     */
+    public static int tileX(double lon, int zoom) {
+        int n = 1 << zoom;
+        int x = (int) Math.floor(tileXFraction(lon, zoom));
+        return Math.max(0, Math.min(n - 1, x));
+    }
+
+    /**
+     * Ligne de la tuile contenant la latitude (0 au nord)
+     */
+    public static int tileY(double lat, int zoom) {
+        int n = 1 << zoom;
+        int y = (int) Math.floor(tileYFraction(lat, zoom));
+        return Math.max(0, Math.min(n - 1, y));
+    }
+
+    /**
+     * Position de la longitude en colonnes de tuiles, non arrondie
+     */
+    public static double tileXFraction(double lon, int zoom) {
+        return (lon + 180.0) / 360.0 * (1 << zoom);
+    }
+
+    /**
+     * Position de la latitude en lignes de tuiles, non arrondie (0 au nord)
+     */
+    public static double tileYFraction(double lat, int zoom) {
+        double latRad = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+        return (1.0 - Math.log(Math.tan(latRad) + 1.0 / Math.cos(latRad)) / Math.PI) / 2.0 * (1 << zoom);
+    }
+
+    /**
+     * Longitude du bord ouest de la colonne x (x = 2^zoom : bord est de la carte ;
+     * x peut être fractionnaire)
+     */
+    public static double tileWest(double x, int zoom) {
+        return x / (double) (1 << zoom) * 360.0 - 180.0;
+    }
+
+    /**
+     * Latitude du bord nord de la ligne y (y = 2^zoom : bord sud de la carte ;
+     * y peut être fractionnaire)
+     */
+    public static double tileNorth(double y, int zoom) {
+        double n = Math.PI - 2.0 * Math.PI * y / (1 << zoom);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    /**
+     * Vrai si (zoom, x, y) désigne une tuile existante
+     */
+    public static boolean isValid(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            return false;
+        }
+        int n = 1 << zoom;
+        return x >= 0 && x < n && y >= 0 && y < n;
+    }
+}
@@ -0,0 +1,199 @@
+-- Mise à niveau idempotente du schéma (tables de synchronisation, index, triggers)
+--
+-- Appliquée par le backend à chaque démarrage, avant la validation Hibernate
+-- (spring.sql.init, script exécuté en une seule instruction et donc une seule
+-- transaction) : une base créée avant ces tables est mise à niveau, une base à jour
+-- n'est pas modifiée. Les tables de base restent dans database/init/01-init-schema.sql.
+-- Toute évolution du schéma s'ajoute ici, sous une forme rejouable (IF NOT EXISTS,
+-- CREATE OR REPLACE, ...).
+
+-- Un seul backend applique la mise à niveau à la fois (verrou libéré au commit)
+SELECT pg_advisory_xact_lock(hashtext('signalisation.schema-upgrade'));
+
+-- Marques hautes du pull incrémental Firebase (une ligne par collection)
+CREATE TABLE IF NOT EXISTS sync_watermarks(
+   collection_name VARCHAR(100),
+   last_modified VARCHAR(64) NOT NULL,
+   last_document_id VARCHAR(255) NOT NULL,
+   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(collection_name)
+);
+
+-- Empreintes du contenu des documents Firebase (évite les réécritures identiques)
+CREATE TABLE IF NOT EXISTS sync_fingerprints(
+   collection_name VARCHAR(100),
+   document_id VARCHAR(255),
+   content_hash VARCHAR(64) NOT NULL,
+   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(collection_name, document_id)
+);
+
+-- Outbox transactionnelle : une ligne par modification locale à propager vers Firebase
+CREATE TABLE IF NOT EXISTS sync_outbox(
+   id BIGSERIAL,
+   entity_type VARCHAR(100) NOT NULL,
+   entity_id INTEGER NOT NULL,
+   attempts INTEGER NOT NULL DEFAULT 0,
+   available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   last_error TEXT,
+   created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(id)
+);
+
+-- Documents Firebase rejetés par la synchronisation, avec la raison du dernier échec
+CREATE TABLE IF NOT EXISTS sync_dead_letters(
+   id BIGSERIAL,
+   entity_type VARCHAR(100) NOT NULL,
+   document_id VARCHAR(255) NOT NULL,
+   error TEXT NOT NULL,
+   attempts INTEGER NOT NULL DEFAULT 1,
+   first_failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   last_failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(id),
+   UNIQUE(entity_type, document_id)
+);
+
+-- Date de la dernière modification locale non poussée de chaque entité (tenue par le
+-- trigger d'outbox), comparée au last_modified Firebase lors des conflits
+CREATE TABLE IF NOT EXISTS sync_local_versions(
+   entity_type VARCHAR(100),
+   entity_id INTEGER,
+   modified_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(entity_type, entity_id)
+);
+
+-- Conflits détectés au pull et leur résolution
+CREATE TABLE IF NOT EXISTS sync_conflicts(
+   id BIGSERIAL,
+   entity_type VARCHAR(100) NOT NULL,
+   entity_id INTEGER NOT NULL,
+   policy VARCHAR(30) NOT NULL,
+   resolution VARCHAR(30) NOT NULL,
+   local_modified_at TIMESTAMP,
+   remote_modified_at TIMESTAMP,
+   detected_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(id)
+);
+
+-- Suppressions locales à propager vers Firebase ; empêchent la recréation par un pull
+CREATE TABLE IF NOT EXISTS sync_tombstones(
+   id BIGSERIAL,
+   entity_type VARCHAR(100) NOT NULL,
+   entity_id INTEGER NOT NULL,
+   deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   pushed_at TIMESTAMP,
+   PRIMARY KEY(id),
+   UNIQUE(entity_type, entity_id)
+);
+
+-- Exécutions de synchronisation (une ligne par appel à /api/sync, job ou planification)
+CREATE TABLE IF NOT EXISTS sync_runs(
+   id BIGSERIAL,
+   direction VARCHAR(20) NOT NULL,
+   force_sync BOOLEAN NOT NULL DEFAULT false,
+   status VARCHAR(20) NOT NULL,
+   error TEXT,
+   started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   finished_at TIMESTAMP,
+   PRIMARY KEY(id)
+);
+
+-- Curseur de la dernière page committée, par exécution, type et phase (PUSH, PULL) :
+-- point de reprise d'une exécution interrompue
+CREATE TABLE IF NOT EXISTS sync_checkpoints(
+   id BIGSERIAL,
+   run_id BIGINT NOT NULL,
+   entity_type VARCHAR(100) NOT NULL,
+   phase VARCHAR(10) NOT NULL,
+   status VARCHAR(20) NOT NULL,
+   cursor_value VARCHAR(255),
+   pages INTEGER NOT NULL DEFAULT 0,
+   started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   PRIMARY KEY(id),
+   UNIQUE(run_id, entity_type, phase),
+   FOREIGN KEY(run_id) REFERENCES sync_runs(id) ON DELETE CASCADE
+);
+
+-- Baux de synchronisation entre instances : un run par type d'entité à la fois
+-- (SyncClusterLock, prolongés pendant le run, repris après expiration)
+CREATE TABLE IF NOT EXISTS sync_locks(
+   entity_type VARCHAR(100),
+   owner VARCHAR(64) NOT NULL,
+   acquired_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+   expires_at TIMESTAMP NOT NULL,
+   PRIMARY KEY(entity_type)
+);
+
+-- Pagination par clé des listes de signalements : (clé de tri, id)
+CREATE INDEX IF NOT EXISTS idx_signalement_budget_id ON signalements(budget, id);
+CREATE INDEX IF NOT EXISTS idx_signalement_surface_id ON signalements(surface, id);
+CREATE INDEX IF NOT EXISTS idx_signalement_date_creation_id ON signalements(date_creation, id);
+
+-- Emprises de tuiles de carte (clusters, points, tuiles vectorielles) : filtre &&
+-- planaire en degrés. Converties en geography, les emprises de 180° et plus
+-- (zooms 0 et 1) dégénèrent (côtés en arcs de grand cercle)
+CREATE INDEX IF NOT EXISTS idx_signalement_localisation_geom
+   ON signalements USING GIST((CAST(localisation AS geometry)));
+
+-- Index partiels pour la sélection des entités non synchronisées (push paginé)
+CREATE INDEX IF NOT EXISTS idx_signalement_non_synchro ON signalements(id) WHERE synchro = false;
+CREATE INDEX IF NOT EXISTS idx_avancement_non_synchro ON avancements_signalement(id) WHERE synchro = false;
+
+-- Lignes d'outbox prêtes à être traitées par le drainer
+CREATE INDEX IF NOT EXISTS idx_sync_outbox_available ON sync_outbox(available_at, id);
+
+-- Suppressions pas encore propagées vers Firebase
+CREATE INDEX IF NOT EXISTS idx_sync_tombstones_pending ON sync_tombstones(entity_type, entity_id) WHERE pushed_at IS NULL;
+
+-- Points de reprise en attente
+CREATE INDEX IF NOT EXISTS idx_sync_checkpoints_in_progress ON sync_checkpoints(entity_type, phase, id) WHERE status = 'IN_PROGRESS';
+
+-- Outbox : toute écriture laissant une entité à synchro = false ajoute une ligne,
+-- dans la même transaction que l'écriture, et date la modification locale
+CREATE OR REPLACE FUNCTION sync_outbox_enqueue() RETURNS TRIGGER AS $$
+BEGIN
+   INSERT INTO sync_outbox(entity_type, entity_id) VALUES (TG_ARGV[0], NEW.id);
+   INSERT INTO sync_local_versions(entity_type, entity_id, modified_at)
+   VALUES (TG_ARGV[0], NEW.id, CURRENT_TIMESTAMP)
+   ON CONFLICT (entity_type, entity_id) DO UPDATE SET modified_at = EXCLUDED.modified_at;
+   RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Suppression : tombstone en attente de propagation et ligne d'outbox, dans la
+-- même transaction que le DELETE
+CREATE OR REPLACE FUNCTION sync_tombstone_record() RETURNS TRIGGER AS $$
+BEGIN
+   INSERT INTO sync_tombstones(entity_type, entity_id) VALUES (TG_ARGV[0], OLD.id)
+   ON CONFLICT (entity_type, entity_id) DO UPDATE SET deleted_at = CURRENT_TIMESTAMP, pushed_at = NULL;
+   DELETE FROM sync_local_versions WHERE entity_type = TG_ARGV[0] AND entity_id = OLD.id;
+   INSERT INTO sync_outbox(entity_type, entity_id) VALUES (TG_ARGV[0], OLD.id);
+   RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Triggers créés s'ils manquent (pas de DROP à chaque démarrage : verrou exclusif
+-- sur les tables)
+DO $$
+DECLARE
+   t TEXT;
+BEGIN
+   FOREACH t IN ARRAY ARRAY['roles', 'entreprises', 'statuts_avancement', 'parametres', 'utilisateurs',
+                            'utilisateurs_bloques', 'signalements', 'avancements_signalement']
+   LOOP
+      IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                     WHERE tgrelid = to_regclass(t) AND tgname = format('trg_%s_outbox', t)) THEN
+         EXECUTE format('CREATE TRIGGER trg_%1$s_outbox AFTER INSERT OR UPDATE ON %1$I '
+                        || 'FOR EACH ROW WHEN (NEW.synchro = false) '
+                        || 'EXECUTE FUNCTION sync_outbox_enqueue(%1$L)', t);
+         RAISE NOTICE 'Trigger trg_%_outbox créé', t;
+      END IF;
+      IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                     WHERE tgrelid = to_regclass(t) AND tgname = format('trg_%s_tombstone', t)) THEN
+         EXECUTE format('CREATE TRIGGER trg_%1$s_tombstone AFTER DELETE ON %1$I '
+                        || 'FOR EACH ROW EXECUTE FUNCTION sync_tombstone_record(%1$L)', t);
+         RAISE NOTICE 'Trigger trg_%_tombstone créé', t;
+      END IF;
+   END LOOP;
+END $$;
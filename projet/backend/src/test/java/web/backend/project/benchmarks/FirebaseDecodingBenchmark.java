@@ -0,0 +1,190 @@
+package web.backend.project.benchmarks;
+
+import com.google.cloud.firestore.GeoPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import web.backend.project.entities.dto.FirebaseSerializable;
+import web.backend.project.entities.dto.SignalementDTO;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage des documents "signalements" tels que Firestore les renvoie
+ * (Long, Double, GeoPoint, dates textuelles ISO ou séparées par un espace)
+ *
+ * Compare les extracteurs d'origine (parse ISO, exception, nouveau
+ * DateTimeFormatter puis seconde tentative ; Integer.parseInt sous try) à
+ * FirebaseValueDecoder. Lancement :
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=web.backend.project.benchmarks.FirebaseDecodingBenchmark
+ * (ou depuis l'IDE) ; -prof gc via les options JMH pour les allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirebaseDecodingBenchmark {
+
+    private static final int DOCUMENTS = 1_000;
+
+    private List<Map<String, Object>> documents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        documents = new ArrayList<>(DOCUMENTS);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 8, 0);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            LocalDateTime modified = base.plusMinutes(random.nextInt(500_000)).plusSeconds(random.nextInt(60));
+            Map<String, Object> data = new HashMap<>();
+            data.put("id", (long) (i + 1));
+            data.put("date_creation", modified.toLocalDate().toString());
+            data.put("surface", 10 + random.nextDouble() * 500);
+            data.put("budget", (long) random.nextInt(50_000_000));
+            data.put("localisation", new GeoPoint(-18.8 - random.nextDouble(), 47.4 + random.nextDouble()));
+            data.put("synchro", random.nextBoolean());
+            data.put("id_utilisateur_createur", (long) (1 + random.nextInt(200)));
+            // Une partie des documents mobiles portent encore des nombres textuels
+            long entreprise = 1 + random.nextInt(20);
+            data.put("id_entreprise", i % 4 == 0 ? String.valueOf(entreprise) : entreprise);
+            // Moitié ISO (backend), moitié séparée par un espace (mobile)
+            data.put("last_modified", i % 2 == 0
+                    ? modified.toString()
+                    : modified.toString().replace('T', ' '));
+            documents.add(data);
+        }
+    }
+
+    @Benchmark
+    public void legacyDates(Blackhole blackhole) {
+        for (Map<String, Object> data : documents) {
+            blackhole.consume(legacyExtractLocalDateTime(data, "last_modified"));
+        }
+    }
+
+    @Benchmark
+    public void decoderDates(Blackhole blackhole) {
+        for (Map<String, Object> data : documents) {
+            blackhole.consume(FirebaseSerializable.extractLocalDateTime(data, "last_modified"));
+        }
+    }
+
+    @Benchmark
+    public void legacyNumbers(Blackhole blackhole) {
+        for (Map<String, Object> data : documents) {
+            blackhole.consume(legacyExtractInteger(data, "budget"));
+            blackhole.consume(legacyExtractInteger(data, "id_entreprise"));
+            blackhole.consume(legacyExtractDouble(data, "surface"));
+        }
+    }
+
+    @Benchmark
+    public void decoderNumbers(Blackhole blackhole) {
+        for (Map<String, Object> data : documents) {
+            blackhole.consume(FirebaseSerializable.extractInteger(data, "budget"));
+            blackhole.consume(FirebaseSerializable.extractInteger(data, "id_entreprise"));
+            blackhole.consume(FirebaseSerializable.extractDouble(data, "surface"));
+        }
+    }
+
+    @Benchmark
+    public void primitiveNumbers(Blackhole blackhole) {
+        for (Map<String, Object> data : documents) {
+            blackhole.consume(FirebaseSerializable.extractIntOr(data, "budget", 0));
+            blackhole.consume(FirebaseSerializable.extractIntOr(data, "id_entreprise", 0));
+            blackhole.consume(FirebaseSerializable.extractDoubleOr(data, "surface", 0));
+        }
+    }
+
+    @Benchmark
+    public void signalementDocuments(Blackhole blackhole) {
+        for (Map<String, Object> data : documents) {
+            blackhole.consume(new SignalementDTO().fromFirebaseMap(data));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FirebaseDecodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // ========== Extracteurs d'origine (référence) ==========
+
+    private static LocalDateTime legacyExtractLocalDateTime(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value == null)
+            return null;
+        if (value instanceof String) {
+            String str = ((String) value).trim();
+            try {
+                return LocalDateTime.parse(str);
+            } catch (Exception e1) {
+                try {
+                    return LocalDateTime.parse(str, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+                } catch (Exception e2) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Integer legacyExtractInteger(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value == null)
+            return null;
+        if (value instanceof Integer)
+            return (Integer) value;
+        if (value instanceof Long)
+            return ((Long) value).intValue();
+        if (value instanceof Double)
+            return ((Double) value).intValue();
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Double legacyExtractDouble(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value == null)
+            return null;
+        if (value instanceof Number)
+            return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
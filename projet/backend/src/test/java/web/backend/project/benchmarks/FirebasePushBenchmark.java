@@ -0,0 +1,110 @@
+package web.backend.project.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import web.backend.project.entities.dto.EntrepriseDTO;
+import web.backend.project.features.sync.services.FirebaseSyncService;
+import web.backend.project.features.sync.services.InMemoryFirestore;
+import web.backend.project.features.sync.services.SyncMetrics;
+
+import com.google.cloud.firestore.CollectionReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit du push de DOCUMENTS documents vers un Firestore en mémoire dont
+ * chaque appel réseau dure rpcLatencyMicros
+ *
+ * Compare le push d'origine (un set().get() bloquant par document) à
+ * FirebaseSyncService.pushBatched (WriteBatch de 500, 4 commits en vol).
+ * Lancement :
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=web.backend.project.benchmarks.FirebasePushBenchmark
+ * (ou depuis l'IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FirebasePushBenchmark {
+
+    private static final String COLLECTION = "entreprises";
+    private static final int DOCUMENTS = 2_000;
+
+    // Latence d'un aller-retour Firestore simulé
+    @Param({ "500", "2000" })
+    private long rpcLatencyMicros;
+
+    private InMemoryFirestore firestore;
+    private FirebaseSyncService service;
+    private List<EntrepriseDTO> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        firestore = new InMemoryFirestore(rpcLatencyMicros);
+        service = new FirebaseSyncService(firestore.firestore(), new SyncMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "concurrency", 4);
+        ReflectionTestUtils.setField(service, "maxRetries", 3);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 200L);
+
+        dtos = new ArrayList<>(DOCUMENTS);
+        for (int id = 1; id <= DOCUMENTS; id++) {
+            EntrepriseDTO dto = new EntrepriseDTO();
+            dto.setId(id);
+            dto.setNom("Entreprise " + id);
+            dto.setSynchro(false);
+            dtos.add(dto);
+        }
+        // Références de documents créées avant la mesure
+        CollectionReference collection = firestore.firestore().collection(COLLECTION);
+        dtos.forEach(dto -> collection.document(dto.getId().toString()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        firestore.close();
+    }
+
+    @Benchmark
+    public int legacySequentialSets() throws InterruptedException, ExecutionException {
+        CollectionReference collection = firestore.firestore().collection(COLLECTION);
+        for (EntrepriseDTO dto : dtos) {
+            collection.document(dto.getId().toString()).set(dto.toFirebaseMap()).get();
+        }
+        return dtos.size();
+    }
+
+    @Benchmark
+    public int batchedPush() {
+        return service.pushBatched(COLLECTION, dtos).getSucceeded().size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FirebasePushBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,164 @@
+package web.backend.project.features.sync.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import web.backend.project.entities.Entreprise;
+import web.backend.project.entities.dto.EntrepriseDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Intégration d'une page de pull : un document invalide est rejeté en mémoire,
+ * avant le flush, sans entraîner le reste de la page
+ *
+ * Le flush simulé échoue comme la base si une entité invalide l'atteint : sous
+ * Hibernate, cet échec rendrait la transaction de la page rollback-only.
+ */
+class EntityTypeHandlerTest {
+
+    private static final String TYPE = "entreprises";
+
+    private EntityManager entityManager;
+    private JpaRepository<Entreprise, Integer> repository;
+    private EntityTypeHandler<Entreprise, EntrepriseDTO> handler;
+    private List<Entreprise> persisted;
+    // Lignes déjà en base pour la contrainte UNIQUE(nom) : nom → id
+    private Map<String, Integer> existingNames;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        repository = mock(JpaRepository.class);
+        when(repository.findAllById(anyIterable())).thenReturn(List.of());
+        handler = new EntityTypeHandler<>(TYPE, repository, (afterId, pageable) -> List.of(),
+                Entreprise::new, EntrepriseDTO::new);
+
+        persisted = new ArrayList<>();
+        doAnswer(invocation -> persisted.add(invocation.getArgument(0))).when(entityManager).persist(any());
+        doAnswer(invocation -> {
+            if (persisted.stream().anyMatch(entreprise -> entreprise.getNom() == null
+                    || existingNames.containsKey(entreprise.getNom()))) {
+                throw new PersistenceException("constraint violation");
+            }
+            return null;
+        }).when(entityManager).flush();
+
+        existingNames = new HashMap<>();
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.setFlushMode(FlushModeType.COMMIT)).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenAnswer(invocation -> existingNames.entrySet().stream()
+                .map(entry -> new Object[] { entry.getValue(), entry.getKey() })
+                .toList());
+    }
+
+    @Test
+    void aDocumentMissingARequiredColumnIsRejectedBeforeTheFlush() {
+        List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes = updateOrCreatePage(
+                entreprise(1, "Colas"), entreprise(2, null), entreprise(3, "Eiffage"));
+
+        assertEquals(Map.of(1, true, 2, false, 3, true), successById(outcomes));
+        assertEquals(List.of(1, 3), persisted.stream().map(Entreprise::getId).toList());
+        verify(entityManager, times(1)).flush();
+    }
+
+    @Test
+    void aNameAlreadyTakenInTheDatabaseIsRejectedBeforeTheFlush() {
+        existingNames.put("Colas", 9);
+
+        List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes = updateOrCreatePage(
+                entreprise(1, "Colas"), entreprise(2, "Razel"), entreprise(3, "Eiffage"));
+
+        assertEquals(Map.of(1, false, 2, true, 3, true), successById(outcomes));
+        assertTrue(failure(outcomes, 1).getMessage().contains("already belongs to Entreprise 9"));
+        assertEquals(List.of(2, 3), persisted.stream().map(Entreprise::getId).toList());
+    }
+
+    @Test
+    void aNameRepeatedInThePageKeepsOnlyTheFirstDocument() {
+        List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes = updateOrCreatePage(
+                entreprise(1, "Colas"), entreprise(2, "Colas"), entreprise(3, "Eiffage"));
+
+        assertEquals(Map.of(1, true, 2, false, 3, true), successById(outcomes));
+        assertEquals(List.of(1, 3), persisted.stream().map(Entreprise::getId).toList());
+    }
+
+    @Test
+    void theFirstDocumentInPageOrderKeepsARepeatedName() {
+        List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes = updateOrCreatePage(
+                entreprise(7, "Colas"), entreprise(3, "Colas"), entreprise(5, "Colas"), entreprise(1, "Razel"));
+
+        assertEquals(Map.of(7, true, 3, false, 5, false, 1, true), successById(outcomes));
+        assertEquals(List.of(7, 1), persisted.stream().map(Entreprise::getId).toList());
+    }
+
+    @Test
+    void anInvalidUpdateDetachesTheLoadedEntity() {
+        Entreprise loaded = new Entreprise("Colas", true);
+        loaded.setId(1);
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(loaded));
+        when(entityManager.contains(loaded)).thenReturn(true);
+
+        List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes = updateOrCreatePage(
+                entreprise(1, "x".repeat(256)), entreprise(2, "Razel"));
+
+        assertEquals(Map.of(1, false, 2, true), successById(outcomes));
+        assertTrue(failure(outcomes, 1).getMessage().contains("nom exceeds 255 characters"));
+        verify(entityManager).detach(loaded);
+        assertFalse(persisted.contains(loaded));
+    }
+
+    @SafeVarargs
+    private List<EntityTypeHandler.RecordOutcome<Entreprise>> updateOrCreatePage(Map<String, Object>... page) {
+        return handler.updateOrCreatePage(List.of(page), entityManager, 100,
+                new SyncMetrics(new SimpleMeterRegistry()), SyncConflictContext.NONE);
+    }
+
+    private static Map<Integer, Boolean> successById(List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes) {
+        Map<Integer, Boolean> success = new HashMap<>();
+        outcomes.forEach(outcome -> success.put((Integer) outcome.getData().get("id"), outcome.isSuccess()));
+        return success;
+    }
+
+    private static Exception failure(List<EntityTypeHandler.RecordOutcome<Entreprise>> outcomes, int id) {
+        return outcomes.stream()
+                .filter(outcome -> outcome.getData().get("id").equals(id))
+                .findFirst()
+                .orElseThrow()
+                .getError();
+    }
+
+    private static Map<String, Object> entreprise(int id, String nom) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", id);
+        data.put("nom", nom);
+        data.put("synchro", true);
+        return data;
+    }
+}
@@ -0,0 +1,130 @@
+package web.backend.project.features.sync.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import web.backend.project.entities.dto.EntrepriseDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Push par WriteBatch contre InMemoryFirestore
+ */
+class FirebaseSyncServiceTest {
+
+    private static final String COLLECTION = "entreprises";
+
+    private InMemoryFirestore firestore;
+    private FirebaseSyncService service;
+
+    @BeforeEach
+    void setUp() {
+        firestore = new InMemoryFirestore(0);
+        service = newService(firestore, 500, 4, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        firestore.close();
+    }
+
+    @Test
+    void pushBatchedWritesEveryDocumentInBatchesOf500() {
+        FirebaseSyncService.PushReport report = service.pushBatched(COLLECTION, entreprises(1, 1_200));
+
+        assertFalse(report.hasFailures());
+        assertEquals(1_200, report.getSucceeded().size());
+        assertEquals(1_200, firestore.size(COLLECTION));
+        assertEquals("Entreprise 1200", firestore.document(COLLECTION, "1200").get("nom"));
+        // 3 commits (500 + 500 + 200), aucun aller-retour par document
+        assertEquals(3, firestore.rpcs());
+    }
+
+    @Test
+    void pushBatchedRetriesOnlyTheFailedBatch() {
+        firestore.failNextCommits(1);
+
+        FirebaseSyncService.PushReport report = service.pushBatched(COLLECTION, entreprises(1, 1_200));
+
+        assertFalse(report.hasFailures());
+        assertEquals(1_200, firestore.size(COLLECTION));
+        assertEquals(4, firestore.rpcs());
+    }
+
+    @Test
+    void pushBatchedReportsDocumentsStillFailingAfterRetries() {
+        firestore.failNextCommits(Integer.MAX_VALUE);
+
+        FirebaseSyncService.PushReport report = service.pushBatched(COLLECTION, entreprises(1, 10));
+
+        assertTrue(report.hasFailures());
+        assertEquals(10, report.getFailed().size());
+        assertTrue(report.getSucceeded().isEmpty());
+        // Tentative initiale + 2 nouvelles tentatives
+        assertEquals(3, firestore.rpcs());
+    }
+
+    @Test
+    void pushBatchedRejectsDocumentsWithoutIdWithoutAbortingThePush() {
+        List<EntrepriseDTO> dtos = entreprises(1, 3);
+        EntrepriseDTO withoutId = entreprise(null);
+        dtos.add(1, withoutId);
+
+        FirebaseSyncService.PushReport report = service.pushBatched(COLLECTION, dtos);
+
+        assertEquals(List.of(1, 2, 3), report.getSucceeded());
+        assertEquals(1, report.getFailed().size());
+        assertNotNull(report.getFailed().get(FirebaseSyncService.PushReport.failureKey(1)));
+        assertEquals(3, firestore.size(COLLECTION));
+    }
+
+    @Test
+    void pushBatchedNeverCreatesADocumentWithAGeneratedId() {
+        EntrepriseDTO withoutId = entreprise(null);
+
+        FirebaseSyncService.PushReport report = service.pushBatched(COLLECTION, List.of(withoutId));
+
+        assertTrue(report.getSucceeded().isEmpty());
+        assertNotNull(report.getFailed().get(FirebaseSyncService.PushReport.failureKey(0)));
+        assertNull(withoutId.getId());
+        assertEquals(0, firestore.size(COLLECTION));
+        assertEquals(0, firestore.rpcs());
+    }
+
+    static FirebaseSyncService newService(InMemoryFirestore firestore, int batchSize, int concurrency,
+            int maxRetries) {
+        FirebaseSyncService service = new FirebaseSyncService(firestore.firestore(),
+                new SyncMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "batchSize", batchSize);
+        ReflectionTestUtils.setField(service, "concurrency", concurrency);
+        ReflectionTestUtils.setField(service, "maxRetries", maxRetries);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 0L);
+        return service;
+    }
+
+    static List<EntrepriseDTO> entreprises(int firstId, int lastId) {
+        List<EntrepriseDTO> dtos = new ArrayList<>();
+        for (int id = firstId; id <= lastId; id++) {
+            dtos.add(entreprise(id));
+        }
+        return dtos;
+    }
+
+    private static EntrepriseDTO entreprise(Integer id) {
+        EntrepriseDTO dto = new EntrepriseDTO();
+        dto.setId(id);
+        dto.setNom("Entreprise " + id);
+        dto.setSynchro(false);
+        return dto;
+    }
+}
@@ -0,0 +1,102 @@
+package web.backend.project.features.sync.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ChangeSource en mémoire pour les tests du mode ingest
+ *
+ * Conserve chaque abonnement (collection, point de reprise) ; les tests
+ * livrent des changements ou une interruption à l'abonnement ouvert d'une
+ * collection, comme le ferait un snapshot listener.
+ */
+public class InMemoryChangeSource implements ChangeSource {
+
+    private final List<RecordedSubscription> subscriptions = new ArrayList<>();
+
+    @Override
+    public synchronized Subscription subscribe(String collectionName, String resumeLastModified,
+            String resumeDocumentId, Consumer<List<Change>> listener, Consumer<Throwable> onError) {
+        RecordedSubscription subscription = new RecordedSubscription(collectionName, resumeLastModified,
+                resumeDocumentId, listener, onError);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Abonnements d'une collection, dans l'ordre de création
+     */
+    public synchronized List<RecordedSubscription> subscriptions(String collectionName) {
+        return subscriptions.stream()
+                .filter(subscription -> subscription.collectionName.equals(collectionName))
+                .toList();
+    }
+
+    /**
+     * Livre un lot de changements à l'abonnement ouvert de la collection
+     */
+    public void emit(String collectionName, Change... changes) {
+        open(collectionName).listener.accept(List.of(changes));
+    }
+
+    /**
+     * Interrompt l'abonnement ouvert de la collection
+     */
+    public void fail(String collectionName, Throwable error) {
+        open(collectionName).onError.accept(error);
+    }
+
+    public static Change upsert(String documentId, Map<String, Object> data) {
+        return new Change(Change.Type.UPSERT, documentId, data);
+    }
+
+    private synchronized RecordedSubscription open(String collectionName) {
+        List<RecordedSubscription> recorded = subscriptions(collectionName);
+        for (int i = recorded.size() - 1; i >= 0; i--) {
+            if (!recorded.get(i).closed) {
+                return recorded.get(i);
+            }
+        }
+        throw new IllegalStateException("No open subscription for " + collectionName);
+    }
+
+    /**
+     * Abonnement enregistré
+     */
+    public static class RecordedSubscription implements Subscription {
+        private final String collectionName;
+        private final String resumeLastModified;
+        private final String resumeDocumentId;
+        private final Consumer<List<Change>> listener;
+        private final Consumer<Throwable> onError;
+        private volatile boolean closed;
+
+        RecordedSubscription(String collectionName, String resumeLastModified, String resumeDocumentId,
+                Consumer<List<Change>> listener, Consumer<Throwable> onError) {
+            this.collectionName = collectionName;
+            this.resumeLastModified = resumeLastModified;
+            this.resumeDocumentId = resumeDocumentId;
+            this.listener = listener;
+            this.onError = onError;
+        }
+
+        public String getResumeLastModified() {
+            return resumeLastModified;
+        }
+
+        public String getResumeDocumentId() {
+            return resumeDocumentId;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package web.backend.project.features.sync.services;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Firestore en mémoire pour les tests et benchmarks du push
+ *
+ * Couvre ce qu'utilise FirebaseSyncService pour écrire : collection(),
+ * document(), add(), set() d'un document, et WriteBatch (set, delete, commit).
+ * Chaque appel réseau (commit de batch, set ou add d'un document) se termine
+ * après rpcLatencyMicros, sur un pool de threads, comme un appel gRPC
+ * asynchrone. Des échecs peuvent être injectés pour les commits. add() génère,
+ * comme Firestore, des ids de 20 caractères alphanumériques.
+ */
+public class InMemoryFirestore implements AutoCloseable {
+
+    private static final String AUTO_ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int AUTO_ID_LENGTH = 20;
+
+    private final long rpcLatencyMicros;
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(8);
+    private final Map<String, Map<String, Map<String, Object>>> collections = new ConcurrentHashMap<>();
+    private final Map<String, CollectionReference> collectionRefs = new ConcurrentHashMap<>();
+    private final Firestore firestore = mock(Firestore.class);
+    private final WriteResult writeResult = mock(WriteResult.class);
+
+    private final AtomicInteger rpcs = new AtomicInteger();
+    private final AtomicInteger commitsToFail = new AtomicInteger();
+
+    public InMemoryFirestore(long rpcLatencyMicros) {
+        this.rpcLatencyMicros = rpcLatencyMicros;
+        when(firestore.collection(anyString()))
+                .thenAnswer(invocation -> collectionRefs.computeIfAbsent(invocation.getArgument(0),
+                        this::newCollection));
+        when(firestore.batch()).thenAnswer(invocation -> newBatch());
+    }
+
+    public Firestore firestore() {
+        return firestore;
+    }
+
+    /**
+     * Document stocké, null s'il n'existe pas
+     */
+    public Map<String, Object> document(String collection, String id) {
+        return collections.getOrDefault(collection, Map.of()).get(id);
+    }
+
+    public int size(String collection) {
+        return collections.getOrDefault(collection, Map.of()).size();
+    }
+
+    /**
+     * Nombre d'appels réseau simulés depuis la création
+     */
+    public int rpcs() {
+        return rpcs.get();
+    }
+
+    /**
+     * Les count prochains commits de batch échouent (aucune écriture appliquée)
+     */
+    public void failNextCommits(int count) {
+        commitsToFail.set(count);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private Map<String, Map<String, Object>> store(String collection) {
+        return collections.computeIfAbsent(collection, name -> new ConcurrentHashMap<>());
+    }
+
+    private CollectionReference newCollection(String name) {
+        CollectionReference collection = mock(CollectionReference.class);
+        Map<String, DocumentReference> documentRefs = new ConcurrentHashMap<>();
+        when(collection.getId()).thenReturn(name);
+        when(collection.document(anyString()))
+                .thenAnswer(invocation -> documentRefs.computeIfAbsent(invocation.getArgument(0),
+                        id -> newDocument(name, id)));
+        when(collection.add(anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> data = invocation.getArgument(0);
+            String id = autoId();
+            DocumentReference reference = documentRefs.computeIfAbsent(id, key -> newDocument(name, key));
+            return complete(reference, null, () -> store(name).put(id, data));
+        });
+        return collection;
+    }
+
+    /**
+     * Id de document auto-généré au format de Firestore
+     */
+    private static String autoId() {
+        StringBuilder id = new StringBuilder(AUTO_ID_LENGTH);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < AUTO_ID_LENGTH; i++) {
+            id.append(AUTO_ID_ALPHABET.charAt(random.nextInt(AUTO_ID_ALPHABET.length())));
+        }
+        return id.toString();
+    }
+
+    private DocumentReference newDocument(String collection, String id) {
+        DocumentReference reference = mock(DocumentReference.class);
+        when(reference.getId()).thenReturn(id);
+        when(reference.getPath()).thenReturn(collection + "/" + id);
+        when(reference.set(anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> data = invocation.getArgument(0);
+            return complete(writeResult, null, () -> store(collection).put(id, data));
+        });
+        return reference;
+    }
+
+    private WriteBatch newBatch() {
+        WriteBatch batch = mock(WriteBatch.class);
+        List<Runnable> writes = new ArrayList<>();
+        when(batch.set(any(DocumentReference.class), anyMap())).thenAnswer(invocation -> {
+            String[] path = ((DocumentReference) invocation.getArgument(0)).getPath().split("/");
+            Map<String, Object> data = invocation.getArgument(1);
+            writes.add(() -> store(path[0]).put(path[1], data));
+            return batch;
+        });
+        when(batch.delete(any(DocumentReference.class))).thenAnswer(invocation -> {
+            String[] path = ((DocumentReference) invocation.getArgument(0)).getPath().split("/");
+            writes.add(() -> store(path[0]).remove(path[1]));
+            return batch;
+        });
+        when(batch.commit()).thenAnswer(invocation -> {
+            if (commitsToFail.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                return complete(null, new IllegalStateException("commit rejected"), () -> {
+                });
+            }
+            List<WriteResult> results = new ArrayList<>();
+            writes.forEach(write -> results.add(writeResult));
+            return complete(results, null, () -> writes.forEach(Runnable::run));
+        });
+        return batch;
+    }
+
+    /**
+     * Future terminé après la latence simulée ; apply est exécuté avant le succès
+     */
+    private <R> ApiFuture<R> complete(R result, Exception failure, Runnable apply) {
+        rpcs.incrementAndGet();
+        SettableApiFuture<R> future = SettableApiFuture.create();
+        scheduler.schedule(() -> {
+            if (failure != null) {
+                future.setException(failure);
+            } else {
+                apply.run();
+                future.set(result);
+            }
+        }, rpcLatencyMicros, TimeUnit.MICROSECONDS);
+        return future;
+    }
+}
@@ -0,0 +1,101 @@
+package web.backend.project.features.sync.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Baux de SyncClusterLock : un bail repris par une autre instance, ou resté
+ * sans prolongation au-delà de ttl-ms, n'est plus détenu
+ */
+class SyncClusterLockTest {
+
+    private static final String TYPE = "signalements";
+
+    private PreparedStatement statement;
+    private SyncClusterLock lock;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        statement = mock(PreparedStatement.class);
+        when(statement.executeUpdate()).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lock.shutdown();
+    }
+
+    @Test
+    void aRenewedLeaseStaysHeld() throws SQLException {
+        lock = new SyncClusterLock(dataSourceOf(statement), true, 60_000);
+        SyncClusterLock.Lease lease = lock.tryAcquire(TYPE).orElseThrow();
+
+        lock.renewAll();
+
+        assertTrue(lease.isHeld());
+        lease.ensureHeld();
+    }
+
+    @Test
+    void aLeaseTakenOverByAnotherInstanceIsLost() throws SQLException {
+        lock = new SyncClusterLock(dataSourceOf(statement), true, 60_000);
+        SyncClusterLock.Lease lease = lock.tryAcquire(TYPE).orElseThrow();
+
+        when(statement.executeUpdate()).thenReturn(0);
+        lock.renewAll();
+
+        assertFalse(lease.isHeld());
+        assertThrows(SyncClusterLock.LeaseLostException.class, lease::ensureHeld);
+    }
+
+    @Test
+    void aLeaseThatCannotBeRenewedIsLostAfterTheTtl() throws SQLException {
+        lock = new SyncClusterLock(dataSourceOf(statement), true, 100);
+        SyncClusterLock.Lease lease = lock.tryAcquire(TYPE).orElseThrow();
+
+        when(statement.executeUpdate()).thenThrow(new SQLException("connection refused"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !lease.isHeld());
+        assertThrows(SyncClusterLock.LeaseLostException.class, lease::ensureHeld);
+    }
+
+    @Test
+    void aReleasedLeaseIsNoLongerHeld() throws SQLException {
+        lock = new SyncClusterLock(dataSourceOf(statement), true, 60_000);
+        SyncClusterLock.Lease lease = lock.tryAcquire(TYPE).orElseThrow();
+
+        lease.close();
+
+        assertFalse(lease.isHeld());
+    }
+
+    @Test
+    void aDisabledLockAlwaysHoldsItsLease() throws SQLException {
+        lock = new SyncClusterLock(dataSourceOf(statement), false, 1);
+
+        assertTrue(lock.tryAcquire(TYPE).orElseThrow().isHeld());
+    }
+
+    private static DataSource dataSourceOf(PreparedStatement statement) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        return dataSource;
+    }
+}
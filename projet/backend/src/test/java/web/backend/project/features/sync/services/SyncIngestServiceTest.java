@@ -0,0 +1,233 @@
+package web.backend.project.features.sync.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import web.backend.project.entities.SyncWatermark;
+import web.backend.project.features.sync.dto.SyncRequest;
+import web.backend.project.features.sync.dto.SyncResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mode ingest contre InMemoryChangeSource : micro-lots, nouvelles tentatives
+ * et point de reprise des abonnements
+ */
+class SyncIngestServiceTest {
+
+    private static final String TYPE = "signalements";
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private InMemoryChangeSource changeSource;
+    private SyncService syncService;
+    private SyncWatermarkService watermarkService;
+    private AtomicReference<Optional<SyncWatermark>> watermark;
+    private SyncIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        changeSource = new InMemoryChangeSource();
+        syncService = mock(SyncService.class);
+        watermarkService = mock(SyncWatermarkService.class);
+        EntitySyncRegistry syncRegistry = mock(EntitySyncRegistry.class);
+        SyncScheduler syncScheduler = mock(SyncScheduler.class);
+
+        watermark = new AtomicReference<>(Optional.of(new SyncWatermark(TYPE, "2026-01-01T08:00", "doc-1")));
+        when(watermarkService.find(TYPE)).thenAnswer(invocation -> watermark.get());
+        when(syncRegistry.getRegisteredTypes()).thenReturn(List.of(TYPE));
+        when(syncScheduler.dependencyOrder(List.of(TYPE))).thenReturn(List.of(TYPE));
+
+        ingestService = new SyncIngestService(changeSource, syncService, syncRegistry, syncScheduler,
+                watermarkService);
+        // Pas de passage périodique pendant les tests : flush() est appelé explicitement
+        ReflectionTestUtils.setField(ingestService, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(ingestService, "maxBatchSize", 2);
+        ReflectionTestUtils.setField(ingestService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(ingestService, "reconnectDelayMs", 0L);
+        ReflectionTestUtils.setField(ingestService, "resubscribeAfterDocuments", 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestService.stop();
+    }
+
+    @Test
+    void subscribesFromTheWatermark() {
+        startAndAwaitSubscriptions(1);
+
+        InMemoryChangeSource.RecordedSubscription subscription = changeSource.subscriptions(TYPE).get(0);
+        assertEquals("2026-01-01T08:00", subscription.getResumeLastModified());
+        assertEquals("doc-1", subscription.getResumeDocumentId());
+        verify(syncService, never()).synchronize(any(SyncRequest.class));
+    }
+
+    @Test
+    void pullsTheCollectionBeforeSubscribingWithoutWatermark() {
+        watermark.set(Optional.empty());
+        when(syncService.synchronize(any(SyncRequest.class))).thenAnswer(invocation -> {
+            watermark.set(Optional.of(new SyncWatermark(TYPE, "2026-02-01T08:00", "doc-42")));
+            return new SyncResponse(true, "Synchronization completed");
+        });
+
+        startAndAwaitSubscriptions(1);
+
+        ArgumentCaptor<SyncRequest> request = ArgumentCaptor.forClass(SyncRequest.class);
+        verify(syncService).synchronize(request.capture());
+        assertEquals(List.of(TYPE), request.getValue().getEntityTypes());
+        assertEquals(SyncRequest.SyncDirection.PULL, request.getValue().getDirection());
+        InMemoryChangeSource.RecordedSubscription subscription = changeSource.subscriptions(TYPE).get(0);
+        assertEquals("2026-02-01T08:00", subscription.getResumeLastModified());
+        assertEquals("doc-42", subscription.getResumeDocumentId());
+    }
+
+    @Test
+    void retriesAFailedInitialPullBeforeSubscribing() {
+        watermark.set(Optional.empty());
+        AtomicInteger pulls = new AtomicInteger();
+        when(syncService.synchronize(any(SyncRequest.class))).thenAnswer(invocation -> {
+            if (pulls.incrementAndGet() == 1) {
+                return new SyncResponse(false, "Synchronization failed: Firestore unavailable");
+            }
+            watermark.set(Optional.of(new SyncWatermark(TYPE, "2026-02-01T08:00", "doc-42")));
+            return new SyncResponse(true, "Synchronization completed");
+        });
+
+        startAndAwaitSubscriptions(1);
+
+        assertEquals(2, pulls.get());
+        assertEquals("doc-42", changeSource.subscriptions(TYPE).get(0).getResumeDocumentId());
+    }
+
+    @Test
+    void ingestsChangesInBatchesOfMaxBatchSize() {
+        startAndAwaitSubscriptions(1);
+
+        changeSource.emit(TYPE, change("a", 1), change("b", 1), change("c", 1), change("d", 1), change("e", 1));
+
+        List<List<Map<String, Object>>> batches = ingestedBatches(3);
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+        assertEquals(List.of("a", "b", "c", "d", "e"), batches.stream()
+                .flatMap(List::stream)
+                .map(data -> data.get(FirebaseSyncService.FIREBASE_DOC_ID_FIELD))
+                .toList());
+    }
+
+    @Test
+    void keepsOnlyTheLatestVersionOfADocument() {
+        startAndAwaitSubscriptions(1);
+
+        changeSource.emit(TYPE, change("a", 1));
+        changeSource.emit(TYPE, change("a", 2));
+        ingestService.flush();
+
+        List<List<Map<String, Object>>> batches = ingestedBatches(1);
+        assertEquals(1, batches.get(0).size());
+        assertEquals(2, batches.get(0).get(0).get("version"));
+    }
+
+    @Test
+    void retriesFailedDocumentsThenGivesUp() {
+        when(syncService.ingest(eq(TYPE), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+        startAndAwaitSubscriptions(1);
+
+        changeSource.emit(TYPE, change("a", 1));
+        for (int pass = 0; pass < 5; pass++) {
+            ingestService.flush();
+        }
+
+        // Tentative initiale + 2 nouvelles tentatives (max-attempts = 3), puis abandon
+        verify(syncService, times(3)).ingest(eq(TYPE), anyList());
+    }
+
+    @Test
+    void aFailedDocumentSucceedsOnALaterAttempt() {
+        AtomicInteger calls = new AtomicInteger();
+        when(syncService.ingest(eq(TYPE), anyList())).thenAnswer(invocation -> calls.incrementAndGet() == 1
+                ? invocation.getArgument(1)
+                : List.of());
+        startAndAwaitSubscriptions(1);
+
+        changeSource.emit(TYPE, change("a", 1));
+        for (int pass = 0; pass < 5; pass++) {
+            ingestService.flush();
+        }
+
+        verify(syncService, times(2)).ingest(eq(TYPE), anyList());
+    }
+
+    @Test
+    void resubscribesFromTheCurrentWatermarkAfterAnInterruption() {
+        startAndAwaitSubscriptions(1);
+        watermark.set(Optional.of(new SyncWatermark(TYPE, "2026-03-01T08:00", "doc-7")));
+
+        changeSource.fail(TYPE, new IllegalStateException("stream reset"));
+
+        await().atMost(WAIT).until(() -> changeSource.subscriptions(TYPE).size() == 2);
+        List<InMemoryChangeSource.RecordedSubscription> subscriptions = changeSource.subscriptions(TYPE);
+        assertTrue(subscriptions.get(0).isClosed());
+        assertEquals("2026-03-01T08:00", subscriptions.get(1).getResumeLastModified());
+        assertEquals("doc-7", subscriptions.get(1).getResumeDocumentId());
+    }
+
+    @Test
+    void narrowsTheListenerOnceTheWatermarkHasAdvanced() {
+        ReflectionTestUtils.setField(ingestService, "resubscribeAfterDocuments", 3);
+        // Chaque micro-lot intégré fait avancer la marque haute
+        when(syncService.ingest(eq(TYPE), anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> documents = invocation.getArgument(1);
+            Object last = documents.get(documents.size() - 1).get(FirebaseSyncService.FIREBASE_DOC_ID_FIELD);
+            watermark.set(Optional.of(new SyncWatermark(TYPE, "2026-04-01T08:00", String.valueOf(last))));
+            return List.of();
+        });
+        startAndAwaitSubscriptions(1);
+
+        changeSource.emit(TYPE, change("a", 1), change("b", 1), change("c", 1));
+
+        await().atMost(WAIT).until(() -> changeSource.subscriptions(TYPE).size() == 2);
+        List<InMemoryChangeSource.RecordedSubscription> subscriptions = changeSource.subscriptions(TYPE);
+        assertTrue(subscriptions.get(0).isClosed());
+        assertEquals("2026-04-01T08:00", subscriptions.get(1).getResumeLastModified());
+        assertEquals("c", subscriptions.get(1).getResumeDocumentId());
+    }
+
+    private void startAndAwaitSubscriptions(int count) {
+        ingestService.start();
+        await().atMost(WAIT).until(() -> changeSource.subscriptions(TYPE).size() == count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Map<String, Object>>> ingestedBatches(int count) {
+        ArgumentCaptor<List<Map<String, Object>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(syncService, timeout(WAIT.toMillis()).times(count)).ingest(eq(TYPE), captor.capture());
+        return new ArrayList<>(captor.getAllValues());
+    }
+
+    private static ChangeSource.Change change(String documentId, int version) {
+        return InMemoryChangeSource.upsert(documentId, Map.of(
+                FirebaseSyncService.FIREBASE_DOC_ID_FIELD, documentId,
+                "version", version));
+    }
+}
@@ -0,0 +1,193 @@
+package web.backend.project.utils;
+
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Décodage des dates et nombres des documents Firebase
+ */
+class FirebaseValueDecoderTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 2, 7, 12, 39, 22);
+
+    // ========== Dates ==========
+
+    @Test
+    void parsesIsoWithoutFraction() {
+        assertEquals(NOON, FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22"));
+    }
+
+    @Test
+    void parsesIsoWithOneToNineFractionDigits() {
+        assertEquals(NOON.withNano(100_000_000), FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22.1"));
+        assertEquals(NOON.withNano(120_000_000), FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22.12"));
+        assertEquals(NOON.withNano(123_000_000), FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22.123"));
+        assertEquals(NOON.withNano(123_456_000), FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22.123456"));
+        assertEquals(NOON.withNano(123_456_789),
+                FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22.123456789"));
+    }
+
+    @Test
+    void parsesLikeLocalDateTimeParseForEveryFractionLength() {
+        String fraction = "987654321";
+        for (int length = 1; length <= 9; length++) {
+            String text = "2026-02-07T12:39:22." + fraction.substring(0, length);
+            assertEquals(LocalDateTime.parse(text), FirebaseValueDecoder.parseDateTime(text), text);
+        }
+    }
+
+    @Test
+    void rejectsAnEmptyOrTooLongFraction() {
+        assertNull(FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22."));
+        assertNull(FirebaseValueDecoder.parseDateTime("2026-02-07T12:39:22.1234567890"));
+    }
+
+    @Test
+    void parsesSpaceSeparatedDates() {
+        assertEquals(NOON, FirebaseValueDecoder.parseDateTime("2026-02-07 12:39:22"));
+        assertEquals(NOON.withNano(500_000_000), FirebaseValueDecoder.parseDateTime("2026-02-07 12:39:22.5"));
+        assertEquals(NOON, FirebaseValueDecoder.parseDateTime("  2026-02-07 12:39:22 "));
+    }
+
+    @Test
+    void parsesMinuteOnlyDates() {
+        assertEquals(NOON.withSecond(0), FirebaseValueDecoder.parseDateTime("2026-02-07T12:39"));
+        assertEquals(NOON.withSecond(0), FirebaseValueDecoder.parseDateTime("2026-02-07 12:39"));
+    }
+
+    @Test
+    void acceptsFebruary29OnlyInLeapYears() {
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), FirebaseValueDecoder.parseDateTime("2024-02-29T00:00:00"));
+        assertEquals(LocalDateTime.of(2000, 2, 29, 0, 0), FirebaseValueDecoder.parseDateTime("2000-02-29T00:00:00"));
+        assertNull(FirebaseValueDecoder.parseDateTime("2026-02-29T00:00:00"));
+        assertNull(FirebaseValueDecoder.parseDateTime("1900-02-29T00:00:00"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "2026-02-07", "2026-02-07T12", "2026/02/07 12:39:22", "2026-02-07X12:39:22",
+            "2026-13-07T12:39:22", "2026-00-07T12:39:22", "2026-04-31T12:39:22", "2026-02-07T24:00:00",
+            "2026-02-07T12:60:00", "2026-02-07T12:39:60", "2026-02-07T12:39:2", "2026-02-07T12:39:22Z",
+            "2026-02-07T12:39:22.12a", "2026-0a-07T12:39:22", "not a date at all" })
+    void rejectsMalformedDates(String text) {
+        assertNull(FirebaseValueDecoder.parseDateTime(text));
+        assertNull(FirebaseValueDecoder.toLocalDateTime(text));
+    }
+
+    @Test
+    void convertsTimestampsAndDatesInTheSystemZone() {
+        LocalDateTime expected = NOON.withNano(123_000_000);
+        Date date = Date.from(expected.atZone(ZoneId.systemDefault()).toInstant());
+
+        assertEquals(expected, FirebaseValueDecoder.toLocalDateTime(Timestamp.of(date)));
+        assertEquals(expected, FirebaseValueDecoder.toLocalDateTime(date));
+        assertEquals(expected, FirebaseValueDecoder.toLocalDateTime(expected));
+    }
+
+    @Test
+    void keepsTheNanosecondsOfATimestamp() {
+        Timestamp timestamp = Timestamp.ofTimeSecondsAndNanos(
+                NOON.atZone(ZoneId.systemDefault()).toEpochSecond(), 123_456_789);
+
+        assertEquals(NOON.withNano(123_456_789), FirebaseValueDecoder.toLocalDateTime(timestamp));
+    }
+
+    @Test
+    void returnsNullForMissingOrUnsupportedDates() {
+        assertNull(FirebaseValueDecoder.toLocalDateTime(null));
+        assertNull(FirebaseValueDecoder.toLocalDateTime(42L));
+    }
+
+    // ========== Nombres ==========
+
+    @Test
+    void convertsFirestoreNumbersToIntegers() {
+        assertEquals(42, FirebaseValueDecoder.toInteger(42));
+        assertEquals(42, FirebaseValueDecoder.toInteger(42L));
+        assertEquals(42, FirebaseValueDecoder.toInteger(42.9));
+    }
+
+    @Test
+    void parsesSignedIntegerText() {
+        assertEquals(42, FirebaseValueDecoder.toInteger("42"));
+        assertEquals(42, FirebaseValueDecoder.toInteger("+42"));
+        assertEquals(-42, FirebaseValueDecoder.toInteger("-42"));
+        assertEquals(0, FirebaseValueDecoder.toInteger("-0"));
+    }
+
+    @Test
+    void parsesTheIntBoundsAndRejectsAnythingBeyond() {
+        assertEquals(Integer.MAX_VALUE, FirebaseValueDecoder.toInteger("2147483647"));
+        assertEquals(Integer.MAX_VALUE, FirebaseValueDecoder.toInteger("+2147483647"));
+        assertEquals(Integer.MIN_VALUE, FirebaseValueDecoder.toInteger("-2147483648"));
+        assertNull(FirebaseValueDecoder.toInteger("2147483648"));
+        assertNull(FirebaseValueDecoder.toInteger("-2147483649"));
+        assertNull(FirebaseValueDecoder.toInteger("99999999999"));
+        assertNull(FirebaseValueDecoder.toInteger("-99999999999"));
+        assertNull(FirebaseValueDecoder.toInteger("123456789012345"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-", "+", "12a", "1.5", " 42", "42 ", "0x1F", "--1" })
+    void rejectsMalformedIntegerText(String text) {
+        assertNull(FirebaseValueDecoder.toInteger(text));
+    }
+
+    @Test
+    void returnsNullForMissingOrUnsupportedIntegers() {
+        assertNull(FirebaseValueDecoder.toInteger(null));
+        assertNull(FirebaseValueDecoder.toInteger(true));
+    }
+
+    @Test
+    void parsesDecimalText() {
+        assertEquals(-12.5, FirebaseValueDecoder.toDouble("-12.5"));
+        assertEquals(30_000.0, FirebaseValueDecoder.toDouble("3e4"));
+        assertEquals(0.5, FirebaseValueDecoder.toDouble(".5"));
+        assertEquals(42.0, FirebaseValueDecoder.toDouble(42L));
+        assertEquals(12.5, FirebaseValueDecoder.toDouble(12.5));
+    }
+
+    @Test
+    void parsesDecimalTextLikeDoubleParseDouble() {
+        for (String text : new String[] { "0", "-0.0", "+1.", "123.456", "1E-3", "-2.5e+10", "4.9e-324" }) {
+            assertEquals(Double.parseDouble(text), FirebaseValueDecoder.toDouble(text), text);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-", "+", ".", "abc", "1.2.3", "1e", "1e+", "e5", "NaN", "Infinity", "-Infinity",
+            "0x1p3", "1.5d", "2f", " 1.5", "1.5 ", "1,5" })
+    void rejectsMalformedDecimalText(String text) {
+        assertNull(FirebaseValueDecoder.toDouble(text));
+        assertEquals(-1.0, FirebaseValueDecoder.doubleOr(text, -1.0));
+    }
+
+    @Test
+    void primitiveVariantsDecodeWithoutBoxing() {
+        assertEquals(42, FirebaseValueDecoder.intOr(42L, -1));
+        assertEquals(42, FirebaseValueDecoder.intOr("42", -1));
+        assertEquals(Integer.MIN_VALUE, FirebaseValueDecoder.intOr("-2147483648", -1));
+        assertEquals(12.5, FirebaseValueDecoder.doubleOr(12.5, -1.0));
+        assertEquals(42.0, FirebaseValueDecoder.doubleOr(42L, -1.0));
+        assertEquals(-12.5, FirebaseValueDecoder.doubleOr("-12.5", -1.0));
+    }
+
+    @Test
+    void primitiveVariantsFallBackToTheDefault() {
+        assertEquals(-1, FirebaseValueDecoder.intOr(null, -1));
+        assertEquals(-1, FirebaseValueDecoder.intOr(true, -1));
+        assertEquals(-1, FirebaseValueDecoder.intOr("2147483648", -1));
+        assertEquals(-1, FirebaseValueDecoder.intOr("12a", -1));
+        assertEquals(-1.0, FirebaseValueDecoder.doubleOr(null, -1.0));
+        assertEquals(-1.0, FirebaseValueDecoder.doubleOr(true, -1.0));
+    }
+}
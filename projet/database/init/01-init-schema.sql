@@ -94,6 +94,10 @@ CREATE INDEX IF NOT EXISTS idx_signalement_entreprise ON signalements(id_entrepr
 CREATE INDEX IF NOT EXISTS idx_signalement_createur ON signalements(id_utilisateur_createur);
 CREATE INDEX IF NOT EXISTS idx_avancement_signalement ON avancements_signalement(id_signalement);
 
+-- Tables de synchronisation, index de pagination et triggers d'outbox/tombstone :
+-- backend/src/main/resources/db/schema-upgrade.sql, appliqué par le backend à chaque
+-- démarrage (idempotent, aussi pour une base existante)
+
 -- Affichage de confirmation
 DO $$
 BEGIN